@@ -0,0 +1,101 @@
+package fr.ltsi.medicis.ontospm;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of a phase of a run.
+ *
+ * Built apart from the main sources, for Java 11, by the <code>jfr</code>
+ * profile, and only loaded by {@link OSCMetrics} through
+ * {@link FlightRecorder} once Flight Recorder is known to be available.
+ *
+ * @author javier
+ */
+@Name("fr.ltsi.medicis.ontospm.Phase")
+@Label("OntoSPM Checker Phase")
+@Category("OntoSPM")
+@Description("Load, index build, check or rule of an OntoSPM checker run")
+final class OSCPhaseEvent extends Event {
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Items")
+    private long items;
+
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long time;
+
+    @Label("Allocated")
+    @DataAmount
+    private long allocated;
+
+    /**
+     * Phase events as an {@link OSCMetrics.Recorder}.
+     */
+    static final class FlightRecorder implements OSCMetrics.Recorder {
+
+        @Override
+        public Object begin(final String phase) {
+
+            return OSCPhaseEvent.begin(phase);
+        }
+
+        @Override
+        public void end(final Object event, final long items, final long time, final long allocated) {
+
+            OSCPhaseEvent.end(event, items, time, allocated);
+        }
+
+        @Override
+        public void commit(final String phase, final long items, final long time, final long allocated) {
+
+            OSCPhaseEvent.commit(phase, items, time, allocated);
+        }
+    }
+
+    static Object begin(final String phase) {
+
+        OSCPhaseEvent event = new OSCPhaseEvent();
+        event.phase = phase;
+        event.begin();
+
+        return event;
+    }
+
+    static void end(final Object object, final long items, final long time, final long allocated) {
+
+        OSCPhaseEvent event = (OSCPhaseEvent) object;
+        event.end();
+        if (event.shouldCommit()) {
+
+            event.items = items;
+            event.time = time;
+            event.allocated = allocated;
+            event.commit();
+        }
+    }
+
+    /**
+     * Commit an event for totals measured elsewhere.
+     */
+    static void commit(final String phase, final long items, final long time, final long allocated) {
+
+        OSCPhaseEvent event = new OSCPhaseEvent();
+        if (event.isEnabled()) {
+
+            event.phase = phase;
+            event.items = items;
+            event.time = time;
+            event.allocated = allocated;
+            event.commit();
+        }
+    }
+}
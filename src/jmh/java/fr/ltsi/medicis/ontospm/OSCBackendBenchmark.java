@@ -0,0 +1,113 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.semanticweb.owlapi.model.OWLClass;
+
+/**
+ * Identical checks and queries run on each {@link OSCBackend}.
+ *
+ * @author javier
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OSCBackendBenchmark {
+
+    @Param({"owlapi", "jena", "tdb"})
+    private String backend;
+
+    private Path directory;
+    private OSCBackend instance;
+    private OSCChecker checker;
+    private OWLClass[] classes;
+
+    @Setup
+    public void setup()
+            throws
+            java.io.IOException {
+
+        switch (backend) {
+
+            case "owlapi":
+                OSCManager manager = OSCManager.getInstance(OSCManagerBenchmark.PATH);
+                instance = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true).getBackend();
+                break;
+            case "jena":
+                instance = OSCJenaBackend.getInstance(OSCManagerBenchmark.PATH);
+                break;
+            case "tdb":
+                directory = Files.createTempDirectory("osc-tdb");
+                instance = OSCJenaBackend.getInstance(OSCManagerBenchmark.PATH, directory);
+                break;
+            default:
+                throw new IllegalArgumentException("backend: " + backend);
+        }
+
+        checker = OSCChecker.getInstance();
+        classes = instance.classes().toArray(OWLClass[]::new);
+    }
+
+    @TearDown
+    public void tearDown()
+            throws
+            java.io.IOException {
+
+        instance.close();
+        if (directory != null) {
+
+            try (Stream<Path> paths = Files.walk(directory)) {
+
+                for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public OSCReport check() {
+
+        return checker.check(instance);
+    }
+
+    @Benchmark
+    public void labels(final Blackhole blackhole) {
+
+        for (OWLClass classe : classes) {
+
+            blackhole.consume(instance.getPreferredLabel(classe, "en"));
+        }
+    }
+
+    @Benchmark
+    public void hierarchy(final Blackhole blackhole) {
+
+        for (OWLClass classe : classes) {
+
+            blackhole.consume(instance.superClasses(classe).count());
+            blackhole.consume(instance.restrictions(classe).count());
+        }
+    }
+}
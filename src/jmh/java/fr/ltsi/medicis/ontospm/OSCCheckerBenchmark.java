@@ -0,0 +1,68 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end run of all class rules against the test ontology.
+ *
+ * @author javier
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OSCCheckerBenchmark {
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private OSCManager manager;
+    private OSCOntology ontology;
+    private OSCChecker checker;
+
+    @Setup
+    public void setup() {
+
+        manager = OSCManager.getInstance(OSCManagerBenchmark.PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), indexed);
+        checker = OSCChecker.getInstance();
+    }
+
+    @Benchmark
+    public OSCReport check() {
+
+        return checker.check(ontology);
+    }
+
+    @Benchmark
+    public OSCReport checkParallel() {
+
+        return checker.check(ontology, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Index build included: cost of a whole run once the ontology is loaded.
+     *
+     * @return
+     */
+    @Benchmark
+    public OSCReport checkFromLoaded() {
+
+        OSCOntology o = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), indexed);
+
+        return checker.check(o);
+    }
+}
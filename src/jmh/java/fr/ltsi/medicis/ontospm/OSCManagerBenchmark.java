@@ -0,0 +1,76 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parse and load of the ontology source file, against the warm load of its
+ * snapshot.
+ *
+ * @author javier
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OSCManagerBenchmark {
+
+    static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private Path directory;
+    private OSCSnapshotCache cache;
+
+    @Setup
+    public void setup()
+            throws
+            java.io.IOException {
+
+        directory = Files.createTempDirectory("osc-cache");
+        cache = OSCSnapshotCache.getInstance(directory);
+        OSCManager.getInstance(PATH, cache);
+    }
+
+    @TearDown
+    public void tearDown()
+            throws
+            java.io.IOException {
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public OSCManager getInstance() {
+
+        return OSCManager.getInstance(PATH, null);
+    }
+
+    @Benchmark
+    public OSCManager snapshot() {
+
+        return OSCManager.getInstance(PATH, cache);
+    }
+}
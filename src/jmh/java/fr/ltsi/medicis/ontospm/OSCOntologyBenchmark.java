@@ -0,0 +1,81 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+/**
+ * Queries of {@link OSCOntology}, over all classes of the ontology, in
+ * scanning and indexed modes.
+ *
+ * @author javier
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OSCOntologyBenchmark {
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private OSCOntology ontology;
+    private OWLClass[] classes;
+
+    @Setup
+    public void setup() {
+
+        OSCManager manager = OSCManager.getInstance(OSCManagerBenchmark.PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), indexed);
+        classes = ontology.classes().toArray(OWLClass[]::new);
+    }
+
+    @Benchmark
+    public long classes() {
+
+        return ontology.classes().count();
+    }
+
+    @Benchmark
+    public void hasAnnotation(final Blackhole blackhole) {
+
+        for (OWLClass classe : classes) {
+
+            blackhole.consume(ontology.hasAnnotation(classe, OWLRDFVocabulary.OWL_DEPRECATED));
+        }
+    }
+
+    @Benchmark
+    public void preferredLabels(final Blackhole blackhole) {
+
+        for (OWLClass classe : classes) {
+
+            blackhole.consume(ontology.preferredLabels(classe).count());
+        }
+    }
+
+    @Benchmark
+    public void getPreferredLabel(final Blackhole blackhole) {
+
+        for (OWLClass classe : classes) {
+
+            blackhole.consume(ontology.getPreferredLabel(classe, "en"));
+            blackhole.consume(ontology.getPreferredLabel(classe, "fr"));
+            blackhole.consume(ontology.getPreferredLabel(classe, "de"));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Load and check of generated ontologies of growing size, see
+ * {@link OSCOntologyGenerator}: the time per class should stay flat while
+ * throughput scales linearly.
+ *
+ * Larger sizes can be given with <code>-p size=1000000</code> and a larger
+ * heap. With the GC profiler (<code>-prof gc</code>), the
+ * <code>gc.alloc.rate.norm</code> of {@link #index()} divided by the size,
+ * the bytes allocated per class by the structures kept with an ontology,
+ * should stay flat too.
+ *
+ * @author javier
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class OSCScalingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private Path path;
+    private OWLOntology generated;
+    private OSCOntology ontology;
+    private OSCChecker checker;
+
+    @Setup
+    public void setup()
+            throws IOException {
+
+        OSCOntologyGenerator generator = OSCOntologyGenerator.getInstance(size, 42);
+        path = generator.write(Files.createTempFile("generated-" + size, ".owl"));
+        generated = generator.generate();
+        ontology = OSCOntology.getInstance(generated, generated.getOWLOntologyManager().getOWLDataFactory(), true);
+        checker = OSCChecker.getInstance();
+    }
+
+    @TearDown
+    public void tearDown()
+            throws IOException {
+
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Parse of the generated file, without snapshot cache.
+     *
+     * @return
+     */
+    @Benchmark
+    public OSCManager load() {
+
+        return OSCManager.getInstance(path, null);
+    }
+
+    /**
+     * Index build and check of all classes.
+     *
+     * @return
+     */
+    @Benchmark
+    public OSCReport checkFromLoaded() {
+
+        return checker.check(OSCOntology.getInstance(generated, generated.getOWLOntologyManager().getOWLDataFactory(), true));
+    }
+
+    /**
+     * Index build: class identifiers, labels, hierarchy and restrictions.
+     *
+     * @return
+     */
+    @Benchmark
+    public OSCOntology index() {
+
+        OSCOntology indexed = OSCOntology.getInstance(generated, generated.getOWLOntologyManager().getOWLDataFactory(), true);
+        indexed.getHierarchy();
+        indexed.getRestrictions();
+
+        return indexed;
+    }
+
+    @Benchmark
+    public OSCReport check() {
+
+        return checker.check(ontology);
+    }
+
+    @Benchmark
+    public OSCAxiomScan scan() {
+
+        return OSCAxiomScan.getInstance(generated);
+    }
+}
@@ -0,0 +1,152 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.semanticweb.owlapi.model.HasIRI;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.util.IRIComparator;
+import org.semanticweb.owlapi.util.SimpleIRIShortFormProvider;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+
+/**
+ * Utilities of {@link OSCUtil}, called several times per class and per rule.
+ *
+ * The <code>legacy</code> benchmarks run the former implementations (regular
+ * expressions, comparator per call, reflection), as a reference for the
+ * allocation rate per class checked.
+ *
+ * @author javier
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OSCUtilBenchmark {
+
+    private String label = "Bowman's lacrimal-probe dilator";
+    private IRI i1 = IRI.create(OSCOntology.NAMESPACE + "lacrimal_probe");
+    private IRI i2 = IRI.create(OSCOntology.NAMESPACE + "lacrimal_probe");
+    private SKOSVocabulary vocabulary = SKOSVocabulary.PREFLABEL;
+
+    private String[] labels;
+    private IRI[] iris;
+
+    @Setup
+    public void setup() {
+
+        OSCManager manager = OSCManager.getInstance(OSCManagerBenchmark.PATH);
+        OSCOntology ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+        OWLClass[] classes = ontology.classes()
+                .filter(c -> ontology.getPreferredLabel(c, "en") != null)
+                .toArray(OWLClass[]::new);
+        labels = new String[classes.length];
+        iris = new IRI[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+
+            labels[i] = ontology.getPreferredLabel(classes[i], "en");
+            iris[i] = classes[i].getIRI();
+        }
+    }
+
+    @Benchmark
+    public String toNormalisedSegmentPath() {
+
+        return OSCUtil.toNormalisedSegmentPath(label);
+    }
+
+    @Benchmark
+    public boolean compare() {
+
+        return OSCUtil.compare(i1, i2);
+    }
+
+    @Benchmark
+    public IRI getIRI() {
+
+        return OSCUtil.getIRI(vocabulary);
+    }
+
+    /**
+     * Utilities used by the rules for every class of the ontology.
+     *
+     * @param blackhole
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void perClass(final Blackhole blackhole) {
+
+        for (int i = 0; i < labels.length; i++) {
+
+            blackhole.consume(OSCUtil.getIRI(vocabulary));
+            blackhole.consume(OSCUtil.compare(iris[i], IRI.create(OSCOntology.NAMESPACE, OSCUtil.toNormalisedSegmentPath(labels[i]))));
+        }
+    }
+
+    @Benchmark
+    public String legacyToNormalisedSegmentPath() {
+
+        return legacyToNormalisedSegmentPath(label);
+    }
+
+    @Benchmark
+    public boolean legacyCompare() {
+
+        return legacyCompare(i1, i2);
+    }
+
+    @Benchmark
+    public IRI legacyGetIRI() {
+
+        return legacyGetIRI(vocabulary);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void legacyPerClass(final Blackhole blackhole) {
+
+        for (int i = 0; i < labels.length; i++) {
+
+            blackhole.consume(legacyGetIRI(vocabulary));
+            blackhole.consume(legacyCompare(iris[i], IRI.create(OSCOntology.NAMESPACE, legacyToNormalisedSegmentPath(labels[i]))));
+        }
+    }
+
+    private static String legacyToNormalisedSegmentPath(final String string) {
+
+        return string.replaceAll(" ", "_")
+                .replaceAll("'", "")
+                .replaceAll("-", "_").toLowerCase();
+    }
+
+    private static boolean legacyCompare(final IRI i1, final IRI i2) {
+
+        return new IRIComparator(new SimpleIRIShortFormProvider()).compare(i1, i2) == 0;
+    }
+
+    private static <E extends Enum<E> & HasIRI> IRI legacyGetIRI(final E enumeration) {
+
+        try {
+
+            Method method = enumeration.getClass().getMethod("getIRI", (Class<?>[]) null);
+
+            return (IRI) method.invoke(enumeration);
+        } catch (ReflectiveOperationException e) {
+
+            throw new RuntimeException(e);
+        }
+    }
+}
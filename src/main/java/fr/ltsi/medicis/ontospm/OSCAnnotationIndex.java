@@ -0,0 +1,116 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Immutable entity &rarr; annotation property &rarr; assertions table.
+ *
+ * The table is built with a single pass over the annotation assertion axioms
+ * of an ontology. Annotation assertions whose subject is not an
+ * {@link org.semanticweb.owlapi.model.IRI} (anonymous individuals) are not
+ * indexed.
+ *
+ * @author javier
+ */
+final class OSCAnnotationIndex {
+
+    private final Map<IRI, Map<IRI, List<OWLAnnotationAssertionAxiom>>> table;
+    private final Map<IRI, Map<IRI, List<OWLAnnotationValue>>> values;
+
+    private OSCAnnotationIndex(final Map<IRI, Map<IRI, List<OWLAnnotationAssertionAxiom>>> table,
+            final Map<IRI, Map<IRI, List<OWLAnnotationValue>>> values) {
+
+        this.table = table;
+        this.values = values;
+    }
+
+    /**
+     * Build the index of all annotation assertion axioms of an ontology.
+     *
+     * @param ontology {@link org.semanticweb.owlapi.model.OWLOntology}
+     * @return the index.
+     */
+    static OSCAnnotationIndex getInstance(final OWLOntology ontology) {
+
+        Map<IRI, Map<IRI, List<OWLAnnotationAssertionAxiom>>> builder = new HashMap<>();
+
+        ontology.axioms(AxiomType.ANNOTATION_ASSERTION)
+                .filter(a -> a.getSubject().isIRI())
+                .forEach(a -> builder
+                .computeIfAbsent((IRI) a.getSubject(), k -> new HashMap<>())
+                .computeIfAbsent(a.getProperty().getIRI(), k -> new ArrayList<>())
+                .add(a));
+
+        Map<IRI, Map<IRI, List<OWLAnnotationAssertionAxiom>>> table = new HashMap<>(builder.size() * 4 / 3 + 1);
+        Map<IRI, Map<IRI, List<OWLAnnotationValue>>> values = new HashMap<>(builder.size() * 4 / 3 + 1);
+        builder.forEach((subject, properties) -> {
+
+            Map<IRI, List<OWLAnnotationAssertionAxiom>> a = new HashMap<>(properties.size() * 4 / 3 + 1);
+            Map<IRI, List<OWLAnnotationValue>> v = new HashMap<>(properties.size() * 4 / 3 + 1);
+            properties.forEach((property, axioms) -> {
+
+                a.put(property, Collections.unmodifiableList(new ArrayList<>(axioms)));
+                v.put(property, Collections.unmodifiableList(axioms.stream()
+                        .map(axiom -> axiom.getAnnotation().getValue())
+                        .collect(Collectors.toList())));
+            });
+            table.put(subject, Collections.unmodifiableMap(a));
+            values.put(subject, Collections.unmodifiableMap(v));
+        });
+
+        return new OSCAnnotationIndex(Collections.unmodifiableMap(table), Collections.unmodifiableMap(values));
+    }
+
+    /**
+     * Get all annotation assertions of a subject, grouped by property.
+     *
+     * @param subject
+     * @return an unmodifiable map, empty if the subject has no annotation.
+     */
+    Map<IRI, List<OWLAnnotationAssertionAxiom>> assertions(final IRI subject) {
+
+        return table.getOrDefault(subject, Collections.emptyMap());
+    }
+
+    /**
+     * Get the annotation assertions of a subject for a single property.
+     *
+     * @param subject
+     * @param property
+     * @return {@link java.util.stream.Stream} of
+     * {@link org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom}
+     */
+    Stream<OWLAnnotationAssertionAxiom> assertions(final IRI subject, final IRI property) {
+
+        return this.assertions(subject)
+                .getOrDefault(property, Collections.emptyList())
+                .stream();
+    }
+
+    /**
+     * Get the annotation values of a subject, grouped by property.
+     *
+     * @param subject
+     * @return an unmodifiable map, empty if the subject has no annotation.
+     */
+    Map<IRI, List<OWLAnnotationValue>> values(final IRI subject) {
+
+        return values.getOrDefault(subject, Collections.emptyMap());
+    }
+
+    boolean contains(final IRI subject, final IRI property) {
+
+        return this.assertions(subject).containsKey(property);
+    }
+}
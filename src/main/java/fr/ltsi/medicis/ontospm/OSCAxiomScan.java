@@ -0,0 +1,283 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLAxiomVisitor;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLNegativeDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLNegativeObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLPropertyExpression;
+import org.semanticweb.owlapi.model.OWLRestriction;
+import org.semanticweb.owlapi.model.OWLSubPropertyChainOfAxiom;
+
+/**
+ * Object and data properties of an ontology, and its statistics, collected
+ * in a single pass over its axioms.
+ *
+ * Every axiom is counted, its anonymous class expressions are walked for
+ * restrictions, then it is dispatched by type to an
+ * {@link OWLAxiomVisitor}: declarations, annotation assertions, domains,
+ * ranges, assertions and property chains. Property rules therefore cost one
+ * linear scan, instead of a <code>referencingAxioms</code> query per
+ * property.
+ *
+ * @author javier
+ */
+public final class OSCAxiomScan {
+
+    private final List<OSCPropertySnapshot> properties;
+    private final Map<IRI, OSCPropertySnapshot> table;
+    private final OSCStatistics statistics;
+
+    private OSCAxiomScan(final List<OSCPropertySnapshot> properties, final OSCStatistics statistics) {
+
+        this.properties = Collections.unmodifiableList(properties);
+        this.table = properties.stream().collect(Collectors.toMap(OSCPropertySnapshot::getIRI, p -> p, (p1, p2) -> p1));
+        this.statistics = statistics;
+    }
+
+    /**
+     * Scan the axioms of an ontology, without its imports.
+     *
+     * @param ontology
+     * @return
+     */
+    public static OSCAxiomScan getInstance(final OWLOntology ontology) {
+
+        OSCMetrics.Probe probe = OSCMetrics.getInstance().start("scan:axioms");
+        Visitor visitor = new Visitor();
+        ontology.objectPropertiesInSignature().forEach(visitor::property);
+        ontology.dataPropertiesInSignature().forEach(visitor::property);
+
+        ontology.axioms().forEach(visitor::scan);
+
+        List<OSCPropertySnapshot> properties = visitor.properties.values().stream()
+                .map(Property::build)
+                .sorted(Comparator.comparing(p -> p.getIRI().toString()))
+                .collect(Collectors.toCollection(ArrayList::new));
+        probe.stop(ontology.getAxiomCount());
+
+        return new OSCAxiomScan(properties, visitor.statistics.build());
+    }
+
+    /**
+     * @return object and data properties, ordered by IRI.
+     */
+    public List<OSCPropertySnapshot> getProperties() {
+
+        return properties;
+    }
+
+    /**
+     * @param iri
+     * @return the property, or null if the ontology has no such property.
+     */
+    public OSCPropertySnapshot getProperty(final IRI iri) {
+
+        return table.get(iri);
+    }
+
+    public OSCStatistics getStatistics() {
+
+        return statistics;
+    }
+
+    /**
+     * Counts and annotations of a property, filled during the scan.
+     */
+    private static final class Property {
+
+        private final OWLEntity entity;
+        private final Map<IRI, List<OWLAnnotationValue>> annotations = new HashMap<>(4);
+        private int domains;
+        private int ranges;
+        private int uses;
+        private int restrictions;
+
+        private Property(final OWLEntity entity) {
+
+            this.entity = entity;
+        }
+
+        private OSCPropertySnapshot build() {
+
+            return OSCPropertySnapshot.getInstance(entity, annotations, domains, ranges, uses, restrictions);
+        }
+    }
+
+    /**
+     * Single pass visitor.
+     */
+    private static final class Visitor implements OWLAxiomVisitor {
+
+        private final Map<IRI, Property> properties = new HashMap<>();
+        private final OSCStatistics.Builder statistics = new OSCStatistics.Builder();
+
+        private void property(final OWLEntity entity) {
+
+            // a punned IRI keeps the object property
+            properties.putIfAbsent(entity.getIRI(), new Property(entity));
+        }
+
+        private void scan(final OWLAxiom axiom) {
+
+            statistics.axiom(axiom.getAxiomType(), axiom.isLogicalAxiom());
+            if (axiom.isLogicalAxiom()) {
+
+                axiom.nestedClassExpressions()
+                        .filter(OWLClassExpression::isAnonymous)
+                        .forEach(this::expression);
+            }
+            axiom.accept(this);
+        }
+
+        private void expression(final OWLClassExpression expression) {
+
+            statistics.expression(expression.getClassExpressionType());
+            if (expression instanceof OWLRestriction) {
+
+                Property property = this.get(((OWLRestriction) expression).getProperty());
+                if (property != null) {
+
+                    property.uses++;
+                    property.restrictions++;
+                }
+            }
+        }
+
+        private Property get(final OWLPropertyExpression expression) {
+
+            if (expression.isObjectPropertyExpression()) {
+
+                return properties.get(expression.asObjectPropertyExpression().getNamedProperty().getIRI());
+            }
+
+            return expression.isDataPropertyExpression()
+                    ? properties.get(expression.asDataPropertyExpression().asOWLDataProperty().getIRI())
+                    : null;
+        }
+
+        private void use(final OWLPropertyExpression expression) {
+
+            Property property = this.get(expression);
+            if (property != null) {
+
+                property.uses++;
+            }
+        }
+
+        @Override
+        public void visit(final OWLDeclarationAxiom axiom) {
+
+            statistics.entity(axiom.getEntity().getEntityType());
+        }
+
+        @Override
+        public void visit(final OWLAnnotationAssertionAxiom axiom) {
+
+            if (axiom.getSubject().isIRI()) {
+
+                Property property = properties.get((IRI) axiom.getSubject());
+                if (property != null) {
+
+                    property.annotations.computeIfAbsent(axiom.getProperty().getIRI(), k -> new ArrayList<>(3))
+                            .add(axiom.getValue());
+                }
+            }
+        }
+
+        @Override
+        public void visit(final OWLObjectPropertyDomainAxiom axiom) {
+
+            Property property = this.get(axiom.getProperty());
+            if (property != null) {
+
+                property.domains++;
+            }
+        }
+
+        @Override
+        public void visit(final OWLDataPropertyDomainAxiom axiom) {
+
+            Property property = this.get(axiom.getProperty());
+            if (property != null) {
+
+                property.domains++;
+            }
+        }
+
+        @Override
+        public void visit(final OWLObjectPropertyRangeAxiom axiom) {
+
+            Property property = this.get(axiom.getProperty());
+            if (property != null) {
+
+                property.ranges++;
+            }
+        }
+
+        @Override
+        public void visit(final OWLDataPropertyRangeAxiom axiom) {
+
+            Property property = this.get(axiom.getProperty());
+            if (property != null) {
+
+                property.ranges++;
+            }
+        }
+
+        @Override
+        public void visit(final OWLObjectPropertyAssertionAxiom axiom) {
+
+            this.use(axiom.getProperty());
+        }
+
+        @Override
+        public void visit(final OWLNegativeObjectPropertyAssertionAxiom axiom) {
+
+            this.use(axiom.getProperty());
+        }
+
+        @Override
+        public void visit(final OWLDataPropertyAssertionAxiom axiom) {
+
+            this.use(axiom.getProperty());
+        }
+
+        @Override
+        public void visit(final OWLNegativeDataPropertyAssertionAxiom axiom) {
+
+            this.use(axiom.getProperty());
+        }
+
+        @Override
+        public void visit(final OWLSubPropertyChainOfAxiom axiom) {
+
+            axiom.getPropertyChain().forEach(this::use);
+        }
+
+        @Override
+        public void doDefault(final Object object) {
+
+            // other axioms only count in the statistics
+        }
+    }
+}
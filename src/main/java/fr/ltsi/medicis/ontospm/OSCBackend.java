@@ -0,0 +1,84 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+/**
+ * Read access to the classes of an ontology, whatever the store holding it.
+ *
+ * A backend answers the questions asked by the rules and the tests: which
+ * classes there are, their annotations and preferred labels, their asserted
+ * named super classes and the restrictions asserted on them. Answers are
+ * OWLAPI objects, so {@link OSCClassRules} run unchanged on any backend
+ * through {@link OSCChecker#check(OSCBackend)}.
+ *
+ * @see OSCOWLAPIBackend
+ * @see OSCJenaBackend
+ * @author javier
+ */
+public interface OSCBackend extends AutoCloseable {
+
+    /**
+     * @return short name of the backend, used in reports and benchmarks.
+     */
+    String getName();
+
+    /**
+     * @return factory of the OWLAPI objects returned by the backend.
+     */
+    OWLDataFactory getFactory();
+
+    /**
+     * @return classes of the ontology, ordered by
+     * {@link org.semanticweb.owlapi.model.IRI}.
+     */
+    Stream<OWLClass> classes();
+
+    /**
+     * Fetch all annotations of a class at once.
+     *
+     * @param classe
+     * @return {@link OSCClassSnapshot}
+     */
+    OSCClassSnapshot snapshot(OWLClass classe);
+
+    /**
+     * @param classe
+     * @param iri annotation property
+     * @return values of the annotations of the class with this property.
+     */
+    default Stream<OWLAnnotationValue> annotationValues(final OWLClass classe, final IRI iri) {
+
+        return this.snapshot(classe).values(iri).stream();
+    }
+
+    /**
+     * @param classe
+     * @param language
+     * @return a <code>skos:prefLabel</code> of the class in this language, or
+     * null.
+     */
+    String getPreferredLabel(OWLClass classe, String language);
+
+    /**
+     * @param classe
+     * @return asserted named super classes.
+     */
+    Stream<OWLClass> superClasses(OWLClass classe);
+
+    /**
+     * @param classe
+     * @return distinct restrictions asserted on the class, as in
+     * {@link OSCRestrictionIndex}.
+     */
+    Stream<OSCRestriction> restrictions(OWLClass classe);
+
+    /**
+     * Release the resources held by the backend.
+     */
+    @Override
+    void close();
+}
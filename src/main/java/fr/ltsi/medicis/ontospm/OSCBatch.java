@@ -0,0 +1,234 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Batch checker of many ontology documents in a single JVM.
+ *
+ * Documents are checked concurrently, each one loaded by its own
+ * {@link OSCManager}. A document is only admitted while the estimated heap
+ * of the documents being checked stays within a budget: the estimate of a
+ * document is {@value #EXPANSION} times its size, and a document larger than
+ * the whole budget is checked alone. Documents are admitted largest first.
+ *
+ * @author javier
+ */
+public class OSCBatch {
+
+    /**
+     * Estimated heap used while loading and checking a document, per byte of
+     * the document.
+     */
+    public static final int EXPANSION = 8;
+
+    /**
+     * Extensions of the ontology documents found in directories.
+     */
+    private static final List<String> EXTENSIONS = Collections.unmodifiableList(Arrays.asList(
+            ".owl", ".rdf", ".owx", ".ofn", ".omn", ".ttl"));
+
+    /**
+     * Admission unit, so that budgets above 2 GiB fit in the semaphore.
+     */
+    private static final int UNIT = 1024;
+
+    private final OSCChecker checker;
+    private final OSCSnapshotCache cache;
+    private final long budget;
+    private final int parallelism;
+
+    private OSCBatch(final OSCChecker checker, final OSCSnapshotCache cache, final long budget, final int parallelism) {
+
+        if (budget < UNIT || parallelism < 1) {
+
+            throw new IllegalArgumentException("budget: " + budget + ", parallelism: " + parallelism);
+        }
+
+        this.checker = checker;
+        this.cache = cache;
+        this.budget = budget;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param checker
+     * @param cache snapshot cache, or null to always parse the documents.
+     * @param budget heap budget, in bytes.
+     * @param parallelism maximum number of documents checked at once.
+     * @return
+     */
+    public static OSCBatch getInstance(final OSCChecker checker, final OSCSnapshotCache cache, final long budget, final int parallelism) {
+
+        return new OSCBatch(checker, cache, budget, parallelism);
+    }
+
+    /**
+     * @return a batch running all {@link OSCClassRules}, with the default
+     * snapshot cache, half of the maximum heap as budget and one document per
+     * processor.
+     */
+    public static OSCBatch getInstance() {
+
+        return getInstance(OSCChecker.getInstance(),
+                OSCSnapshotCache.getDefaultInstance(),
+                Runtime.getRuntime().maxMemory() / 2,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * List the ontology documents of files and directories. Directories are
+     * walked recursively.
+     *
+     * @param paths
+     * @return documents, ordered by path.
+     */
+    public static List<Path> documents(final Collection<Path> paths) {
+
+        return paths.stream()
+                .flatMap(path -> {
+
+                    if (!Files.isDirectory(path)) {
+
+                        return Stream.of(path);
+                    }
+
+                    try (Stream<Path> walk = Files.walk(path)) {
+
+                        return walk
+                                .filter(Files::isRegularFile)
+                                .filter(p -> EXTENSIONS.stream().anyMatch(p.getFileName().toString().toLowerCase(Locale.ROOT)::endsWith))
+                                .collect(Collectors.toList())
+                                .stream();
+                    } catch (IOException e) {
+
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Check documents.
+     *
+     * @param paths documents and directories of documents.
+     * @return the combined report, ordered by path.
+     */
+    public OSCBatchReport check(final Collection<Path> paths) {
+
+        List<Path> documents = documents(paths);
+        int permits = (int) Math.min(Integer.MAX_VALUE, budget / UNIT);
+        Semaphore admission = new Semaphore(permits, true);
+
+        List<Path> order = new ArrayList<>(documents);
+        order.sort(Comparator.comparingLong(OSCBatch::size).reversed());
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, order.size())));
+        Map<Path, Future<OSCReport>> futures = new LinkedHashMap<>();
+
+        try {
+
+            for (Path path : order) {
+
+                int estimate = (int) Math.min(permits, Math.max(1, size(path) * EXPANSION / UNIT));
+                futures.put(path, executor.submit(() -> {
+
+                    admission.acquire(estimate);
+                    try {
+
+                        OSCManager manager = OSCManager.getInstance(path, cache);
+                        OSCOntology ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+
+                        return checker.check(ontology);
+                    } finally {
+
+                        admission.release(estimate);
+                    }
+                }));
+            }
+
+            Map<Path, OSCReport> reports = new LinkedHashMap<>();
+            Map<Path, Throwable> failures = new LinkedHashMap<>();
+            for (Path path : documents) {
+
+                try {
+
+                    reports.put(path, futures.get(path).get());
+                } catch (ExecutionException e) {
+
+                    failures.put(path, e.getCause());
+                }
+            }
+
+            return OSCBatchReport.getInstance(reports, failures);
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+
+            executor.shutdownNow();
+        }
+    }
+
+    private static long size(final Path path) {
+
+        try {
+
+            return Files.size(path);
+        } catch (IOException e) {
+
+            // unreadable documents fail when loaded
+            return 0;
+        }
+    }
+
+    /**
+     * Check the documents and directories given as arguments and print the
+     * combined report. The budget (in MiB) and the parallelism can be set with
+     * the system properties <code>osc.budget</code> and
+     * <code>osc.parallelism</code>.
+     *
+     * @param args
+     */
+    public static void main(final String[] args) {
+
+        OSCBatch defaults = getInstance();
+        long budget = Long.getLong("osc.budget", defaults.budget >> 20) << 20;
+        int parallelism = Integer.getInteger("osc.parallelism", defaults.parallelism);
+
+        OSCBatchReport report = getInstance(defaults.checker, defaults.cache, budget, parallelism)
+                .check(Arrays.stream(args).map(Paths::get).collect(Collectors.toList()));
+
+        PrintWriter out = new PrintWriter(System.out);
+        report.write(out);
+        out.flush();
+
+        if (!report.getFailures().isEmpty()) {
+
+            System.exit(1);
+        }
+    }
+}
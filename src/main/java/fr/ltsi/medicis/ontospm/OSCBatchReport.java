@@ -0,0 +1,86 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable combined result of a batch check: one {@link OSCReport} per
+ * document checked, and the error of every document that could not be
+ * checked.
+ *
+ * @author javier
+ */
+public final class OSCBatchReport {
+
+    private final Map<Path, OSCReport> reports;
+    private final Map<Path, Throwable> failures;
+
+    private OSCBatchReport(final Map<Path, OSCReport> reports, final Map<Path, Throwable> failures) {
+
+        this.reports = reports;
+        this.failures = failures;
+    }
+
+    /**
+     * Create a batch report.
+     *
+     * @param reports report by document, in report order.
+     * @param failures error by document, in report order.
+     * @return
+     */
+    static OSCBatchReport getInstance(final Map<Path, OSCReport> reports, final Map<Path, Throwable> failures) {
+
+        return new OSCBatchReport(
+                Collections.unmodifiableMap(new LinkedHashMap<>(reports)),
+                Collections.unmodifiableMap(new LinkedHashMap<>(failures)));
+    }
+
+    public Map<Path, OSCReport> getReports() {
+
+        return reports;
+    }
+
+    /**
+     * @param path
+     * @return the report of a document, or null if it was not checked.
+     */
+    public OSCReport getReport(final Path path) {
+
+        return reports.get(path);
+    }
+
+    public Map<Path, Throwable> getFailures() {
+
+        return failures;
+    }
+
+    /**
+     * @return total number of violations.
+     */
+    public int size() {
+
+        return reports.values().stream()
+                .mapToInt(OSCReport::size)
+                .sum();
+    }
+
+    /**
+     * Write the report as text: one section per document, then one line per
+     * failure.
+     *
+     * @param out
+     */
+    public void write(final PrintWriter out) {
+
+        reports.forEach((path, report) -> {
+
+            out.println("# " + path + ": " + report.getVisited() + " classes, " + report.size() + " violations");
+            report.violations().forEach(v -> out.println(v.getIRI() + "\t" + v));
+        });
+        failures.forEach((path, error) -> out.println("# " + path + ": FAILED " + error));
+        out.println("# total: " + reports.size() + " documents, " + this.size() + " violations, " + failures.size() + " failures");
+    }
+}
@@ -0,0 +1,356 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+/**
+ * Rule engine running a set of class rules in a single pass.
+ *
+ * Each class of the ontology is visited once: its annotations are fetched
+ * once into a {@link OSCClassSnapshot} and every applicable rule is checked
+ * against that snapshot.
+ *
+ * When {@link OSCMetrics} are enabled, each check run and each rule are
+ * measured: for a rule, the classes it applied to, its time and the bytes it
+ * allocated.
+ *
+ * @author javier
+ */
+public class OSCChecker {
+
+    /**
+     * Smallest number of classes checked by a parallel task.
+     */
+    private static final int MINIMUM_SPLIT = 16;
+
+    private final List<OSCClassRule> rules;
+    private final OSCMetrics metrics;
+
+    private OSCChecker(final Collection<? extends OSCClassRule> rules, final OSCMetrics metrics) {
+
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.metrics = metrics;
+    }
+
+    public static OSCChecker getInstance(final Collection<? extends OSCClassRule> rules) {
+
+        return getInstance(rules, OSCMetrics.getInstance());
+    }
+
+    static OSCChecker getInstance(final Collection<? extends OSCClassRule> rules, final OSCMetrics metrics) {
+
+        return new OSCChecker(rules, metrics);
+    }
+
+    /**
+     * @return a checker running all {@link OSCClassRules}.
+     */
+    public static OSCChecker getInstance() {
+
+        return getInstance(Arrays.asList(OSCClassRules.values()));
+    }
+
+    public List<OSCClassRule> getRules() {
+
+        return rules;
+    }
+
+    /**
+     * Check all classes of an ontology.
+     *
+     * @param ontology
+     * @return the report; violations are ordered by class
+     * {@link org.semanticweb.owlapi.model.IRI}, then by rule.
+     */
+    public OSCReport check(final OSCOntology ontology) {
+
+        List<OSCViolation> violations = new ArrayList<>();
+        long visited = this.check(ontology, violations::add);
+
+        return OSCReport.getInstance(violations, visited);
+    }
+
+    /**
+     * Check all classes of an ontology, passing each violation to a consumer
+     * as soon as it is found, in the order of {@link #check(OSCOntology)}.
+     * Violations are not retained.
+     *
+     * @param ontology
+     * @param consumer
+     * @return number of classes checked.
+     */
+    public long check(final OSCOntology ontology, final Consumer<OSCViolation> consumer) {
+
+        OSCMetrics.Probe probe = metrics.start("check");
+        OWLClass[] classes = sorted(ontology);
+        List<OSCViolation> violations = new ArrayList<>(rules.size());
+        Tally tally = this.tally();
+
+        for (OWLClass classe : classes) {
+
+            this.check(ontology.snapshot(classe), violations, tally);
+            violations.forEach(consumer);
+            violations.clear();
+        }
+
+        if (tally != null) {
+
+            tally.record();
+        }
+        probe.stop(classes.length);
+
+        return classes.length;
+    }
+
+    /**
+     * Check all classes of a backend.
+     *
+     * @param backend
+     * @return the report; violations are ordered by class
+     * {@link org.semanticweb.owlapi.model.IRI}, then by rule, as in
+     * {@link #check(OSCOntology)}.
+     */
+    public OSCReport check(final OSCBackend backend) {
+
+        OSCMetrics.Probe probe = metrics.start("check");
+        List<OSCViolation> violations = new ArrayList<>();
+        Tally tally = this.tally();
+        long[] visited = new long[1];
+
+        backend.classes().forEachOrdered(classe -> {
+
+            this.check(backend.snapshot(classe), violations, tally);
+            visited[0]++;
+        });
+
+        if (tally != null) {
+
+            tally.record();
+        }
+        probe.stop(visited[0]);
+
+        return OSCReport.getInstance(violations, visited[0]);
+    }
+
+    /**
+     * Check all classes of a compact model.
+     *
+     * @param model
+     * @return the report; violations are ordered by class
+     * {@link org.semanticweb.owlapi.model.IRI}, then by rule, as in
+     * {@link #check(OSCOntology)}.
+     */
+    public OSCReport check(final OSCCompactModel model) {
+
+        OSCMetrics.Probe probe = metrics.start("check");
+        OWLDataFactory factory = OWLManager.getOWLDataFactory();
+        List<OSCViolation> violations = new ArrayList<>();
+        Tally tally = this.tally();
+
+        for (int id = 0; id < model.size(); id++) {
+
+            this.check(model.snapshot(id, factory), violations, tally);
+        }
+
+        if (tally != null) {
+
+            tally.record();
+        }
+        probe.stop(model.size());
+
+        return OSCReport.getInstance(violations, model.size());
+    }
+
+    /**
+     * Check all classes of an ontology in parallel.
+     *
+     * The class signature is split across the tasks of the pool. The report
+     * is the same as the one of {@link #check(OSCOntology)}, whatever the
+     * parallelism of the pool.
+     *
+     * @param ontology
+     * @param pool
+     * @return the report; violations are ordered by class
+     * {@link org.semanticweb.owlapi.model.IRI}, then by rule.
+     */
+    public OSCReport check(final OSCOntology ontology, final ForkJoinPool pool) {
+
+        OSCMetrics.Probe probe = metrics.start("check");
+        OWLClass[] classes = sorted(ontology);
+        int threshold = Math.max(MINIMUM_SPLIT, classes.length / (pool.getParallelism() * 4));
+        List<OSCViolation> violations = pool.invoke(new CheckTask(ontology, classes, 0, classes.length, threshold));
+        probe.stop(classes.length);
+
+        return OSCReport.getInstance(violations, classes.length);
+    }
+
+    /**
+     * Check all classes of an ontology in parallel with a dedicated pool.
+     *
+     * @param ontology
+     * @param parallelism number of threads.
+     * @return
+     */
+    public OSCReport check(final OSCOntology ontology, final int parallelism) {
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+
+            return this.check(ontology, pool);
+        } finally {
+
+            pool.shutdown();
+        }
+    }
+
+    private static OWLClass[] sorted(final OSCOntology ontology) {
+
+        // the view is cached, so repeated runs do not sort the signature again
+        return ontology.getView(OSCClassViews.ALL).toArray();
+    }
+
+    /**
+     * Check a range of classes in order.
+     */
+    private void check(final OSCOntology ontology, final OWLClass[] classes, final int from, final int to, final List<OSCViolation> violations) {
+
+        Tally tally = this.tally();
+        for (int i = from; i < to; i++) {
+
+            this.check(ontology.snapshot(classes[i]), violations, tally);
+        }
+
+        if (tally != null) {
+
+            tally.record();
+        }
+    }
+
+    /**
+     * Check all rules against a single class.
+     *
+     * @param snapshot
+     * @param violations list the violations are added to, in rule order.
+     */
+    void check(final OSCClassSnapshot snapshot, final List<OSCViolation> violations) {
+
+        this.check(snapshot, violations, null);
+    }
+
+    /**
+     * Check all rules against a single class, measuring each rule.
+     *
+     * @param snapshot
+     * @param violations
+     * @param tally per rule totals, or null not to measure.
+     */
+    private void check(final OSCClassSnapshot snapshot, final List<OSCViolation> violations, final Tally tally) {
+
+        for (int r = 0; r < rules.size(); r++) {
+
+            OSCClassRule rule = rules.get(r);
+            long start = tally == null ? 0 : System.nanoTime();
+            long allocated = tally == null ? 0 : metrics.allocated();
+
+            if (rule.isApplicable(snapshot)) {
+
+                Optional<OSCViolation> violation = rule.check(snapshot);
+                violation.ifPresent(violations::add);
+                if (tally != null) {
+
+                    tally.items[r]++;
+                }
+            }
+
+            if (tally != null) {
+
+                tally.calls[r]++;
+                tally.nanos[r] += System.nanoTime() - start;
+                tally.bytes[r] += metrics.allocated() - allocated;
+            }
+        }
+    }
+
+    private Tally tally() {
+
+        return metrics.isEnabled() ? new Tally() : null;
+    }
+
+    /**
+     * Per rule totals of a check run, or of a part of a parallel run, recorded
+     * into the rule counters of the {@link OSCMetrics} at its end.
+     */
+    private final class Tally {
+
+        private final long[] calls = new long[rules.size()];
+        private final long[] items = new long[rules.size()];
+        private final long[] nanos = new long[rules.size()];
+        private final long[] bytes = new long[rules.size()];
+
+        private void record() {
+
+            for (int r = 0; r < rules.size(); r++) {
+
+                metrics.record(metrics.counter("rule:" + rules.get(r).getId()), calls[r], items[r], nanos[r], bytes[r]);
+            }
+        }
+    }
+
+    /**
+     * Check a range of classes, splitting it in halves until it is smaller
+     * than the threshold. Results are concatenated left to right, so the
+     * order does not depend on scheduling.
+     */
+    private final class CheckTask extends RecursiveTask<List<OSCViolation>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final OSCOntology ontology;
+        private final OWLClass[] classes;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        private CheckTask(final OSCOntology ontology, final OWLClass[] classes, final int from, final int to, final int threshold) {
+
+            this.ontology = ontology;
+            this.classes = classes;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<OSCViolation> compute() {
+
+            if (to - from <= threshold) {
+
+                List<OSCViolation> violations = new ArrayList<>();
+                OSCChecker.this.check(ontology, classes, from, to, violations);
+
+                return violations;
+            }
+
+            int middle = (from + to) >>> 1;
+            CheckTask left = new CheckTask(ontology, classes, from, middle, threshold);
+            CheckTask right = new CheckTask(ontology, classes, middle, to, threshold);
+            left.fork();
+            List<OSCViolation> violations = right.compute();
+            List<OSCViolation> result = left.join();
+            result.addAll(violations);
+
+            return result;
+        }
+    }
+}
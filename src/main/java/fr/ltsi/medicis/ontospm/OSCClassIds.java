@@ -0,0 +1,70 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.OWLClass;
+
+/**
+ * Dense identifiers of the classes of an ontology.
+ *
+ * Classes are numbered from 0 in the order of their
+ * {@link org.semanticweb.owlapi.model.IRI}, so identifiers can index arrays
+ * and bit sets.
+ *
+ * @author javier
+ */
+public final class OSCClassIds {
+
+    private final OWLClass[] classes;
+    private final Map<OWLClass, Integer> ids;
+
+    private OSCClassIds(final OWLClass[] classes) {
+
+        this.classes = classes;
+        this.ids = new HashMap<>(classes.length * 4 / 3 + 1);
+        for (int i = 0; i < classes.length; i++) {
+
+            ids.put(classes[i], i);
+        }
+    }
+
+    static OSCClassIds getInstance(final Stream<OWLClass> classes) {
+
+        return new OSCClassIds(classes
+                .distinct()
+                .sorted(Comparator.comparing(c -> c.getIRI().toString()))
+                .toArray(OWLClass[]::new));
+    }
+
+    public int size() {
+
+        return classes.length;
+    }
+
+    /**
+     * @param classe
+     * @return the identifier of the class, or -1 if it is unknown.
+     */
+    public int getId(final OWLClass classe) {
+
+        Integer id = ids.get(classe);
+
+        return id == null ? -1 : id;
+    }
+
+    public OWLClass getOWLClass(final int id) {
+
+        return classes[id];
+    }
+
+    /**
+     * @return classes ordered by identifier.
+     */
+    public Stream<OWLClass> classes() {
+
+        return Arrays.stream(classes);
+    }
+}
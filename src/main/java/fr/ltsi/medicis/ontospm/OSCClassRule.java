@@ -0,0 +1,35 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Optional;
+
+/**
+ * A check run against the annotations of a single class.
+ *
+ * Rules must be stateless: the same rule instance is applied to every class
+ * of the ontology, possibly from several threads.
+ *
+ * @author javier
+ */
+public interface OSCClassRule {
+
+    /**
+     * @return unique identifier of the rule.
+     */
+    String getId();
+
+    OSCSeverity getSeverity();
+
+    /**
+     * @param snapshot
+     * @return true iff the rule has to be checked against the class.
+     */
+    boolean isApplicable(OSCClassSnapshot snapshot);
+
+    /**
+     * Check the rule.
+     *
+     * @param snapshot
+     * @return the violation, or an empty optional if the class passes.
+     */
+    Optional<OSCViolation> check(OSCClassSnapshot snapshot);
+}
@@ -0,0 +1,170 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+/**
+ * Class rules of the OntoSPM sanity check.
+ *
+ * Except {@link #NAMESPACE}, which is checked on every class with a valid
+ * namespace, rules are checked on classes that are not deprecated and are
+ * defined in OntoSPM.
+ *
+ * @author javier
+ */
+public enum OSCClassRules implements OSCClassRule {
+
+    NAMESPACE("ontospm-namespace", OSCSeverity.ERROR, OSCClassSnapshot::hasNamespace) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCClassSnapshot snapshot) {
+
+            return snapshot.isOntoSPM()
+                    ? Optional.empty()
+                    : this.violation(snapshot, "Class: " + snapshot.getIRI() + " defined as part of OntoSPM.", snapshot.getIRI().getNamespace());
+        }
+    },
+    ALL_LABELS("all-labels", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCClassSnapshot snapshot) {
+
+            int count = snapshot.getPreferredLabels().size();
+
+            return count == 3
+                    ? Optional.empty()
+                    : this.violation(snapshot, snapshot.getIRI() + " has " + count + " preferred labels instead of 3.", Integer.toString(count));
+        }
+    },
+    UNDERSCORE_IN_LABEL("underscore-in-label", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCClassSnapshot snapshot) {
+
+            return snapshot.getPreferredLabels().stream()
+                    .map(OWLLiteral::getLiteral)
+                    .filter(label -> label.contains("_"))
+                    .findFirst()
+                    .flatMap(label -> this.violation(snapshot, "A label of " + snapshot.getIRI() + " contains underscores.", label));
+        }
+    },
+    RDFS_LABEL("rdfs-label", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCClassSnapshot snapshot) {
+
+            return snapshot.hasAnnotation(OWLRDFVocabulary.RDFS_LABEL.getIRI())
+                    ? this.violation(snapshot, "Label is set using 'rdfs:label' in " + snapshot.getIRI() + " .", null)
+                    : Optional.empty();
+        }
+    },
+    DEFINITION("definition", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCClassSnapshot snapshot) {
+
+            return snapshot.hasAnnotation(IAO_DEFINITION)
+                    ? Optional.empty()
+                    : this.violation(snapshot, "Class " + snapshot.getIRI() + " has no definition.", null);
+        }
+    },
+    IRI_MATCHES_LABEL("iri-matches-label", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCClassSnapshot snapshot) {
+
+            String result = snapshot.getIRI().getShortForm();
+            String label = snapshot.getPreferredLabel("en");
+            String expected = label == null ? null : OSCUtil.toNormalisedSegmentPath(label);
+
+            return result.equals(expected)
+                    ? Optional.empty()
+                    : this.violation(snapshot, "IRI local name does not match with the English label in " + snapshot.getIRI() + " .", expected);
+        }
+    },
+    ENGLISH_LABEL("english-label", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCClassSnapshot snapshot) {
+
+            return this.checkLanguage(snapshot, "en", "an English");
+        }
+    },
+    FRENCH_LABEL("french-label", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCClassSnapshot snapshot) {
+
+            return this.checkLanguage(snapshot, "fr", "a French");
+        }
+    },
+    GERMAN_LABEL("german-label", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCClassSnapshot snapshot) {
+
+            return this.checkLanguage(snapshot, "de", "a German");
+        }
+    };
+
+    /**
+     * Annotation property &lt;IAO:definition&gt;.
+     */
+    public static final IRI IAO_DEFINITION = IRI.create("http://purl.obolibrary.org/obo/IAO_0000115");
+
+    private final String id;
+    private final OSCSeverity severity;
+    private final Predicate<OSCClassSnapshot> scope;
+
+    private OSCClassRules(final String id, final OSCSeverity severity, final Predicate<OSCClassSnapshot> scope) {
+
+        this.id = id;
+        this.severity = severity;
+        this.scope = scope;
+    }
+
+    @Override
+    public String getId() {
+
+        return id;
+    }
+
+    @Override
+    public OSCSeverity getSeverity() {
+
+        return severity;
+    }
+
+    @Override
+    public boolean isApplicable(final OSCClassSnapshot snapshot) {
+
+        return scope.test(snapshot);
+    }
+
+    Optional<OSCViolation> violation(final OSCClassSnapshot snapshot, final String message, final String evidence) {
+
+        return Optional.of(OSCViolation.getInstance(id, snapshot.getIRI(), severity, message, evidence));
+    }
+
+    Optional<OSCViolation> checkLanguage(final OSCClassSnapshot snapshot, final String language, final String name) {
+
+        return snapshot.getPreferredLabel(language) != null
+                ? Optional.empty()
+                : this.violation(snapshot, "Class " + snapshot.getIRI() + " has not " + name + " label.", null);
+    }
+
+    /**
+     * Classes checked by the rules.
+     */
+    private static final class Scope {
+
+        /**
+         * Classes that are not deprecated, with valid namespace, and are
+         * defined in OntoSPM.
+         */
+        private static final Predicate<OSCClassSnapshot> LIVE = s -> s.isOntoSPM() && !s.isDeprecated();
+    }
+}
@@ -0,0 +1,100 @@
+package fr.ltsi.medicis.ontospm;
+
+import static fr.ltsi.medicis.ontospm.OSCOntology.NAMESPACE;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+
+/**
+ * Annotations of a class fetched once, shared by all class rules.
+ *
+ * @author javier
+ */
+public final class OSCClassSnapshot {
+
+    private final OWLClass classe;
+    private final Map<IRI, List<OWLAnnotationValue>> annotations;
+    private final List<OWLLiteral> preferredLabels;
+
+    private OSCClassSnapshot(final OWLClass classe, final Map<IRI, List<OWLAnnotationValue>> annotations) {
+
+        this.classe = classe;
+        this.annotations = annotations;
+        this.preferredLabels = this.values(SKOSVocabulary.PREFLABEL.getIRI()).stream()
+                .filter(OWLLiteral.class::isInstance)
+                .map(OWLLiteral.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Create a snapshot.
+     *
+     * @param classe
+     * @param annotations annotation values grouped by annotation property
+     * {@link org.semanticweb.owlapi.model.IRI}; it must not be modified
+     * afterwards.
+     * @return
+     */
+    static OSCClassSnapshot getInstance(final OWLClass classe, final Map<IRI, List<OWLAnnotationValue>> annotations) {
+
+        return new OSCClassSnapshot(classe, annotations);
+    }
+
+    public OWLClass getOWLClass() {
+
+        return classe;
+    }
+
+    public IRI getIRI() {
+
+        return classe.getIRI();
+    }
+
+    public boolean hasNamespace() {
+
+        return classe.getIRI().getNamespace() != null;
+    }
+
+    /**
+     * @return true iff the class is defined in the OntoSPM namespace.
+     */
+    public boolean isOntoSPM() {
+
+        return NAMESPACE.equals(classe.getIRI().getNamespace());
+    }
+
+    public boolean isDeprecated() {
+
+        return this.hasAnnotation(OWLRDFVocabulary.OWL_DEPRECATED.getIRI());
+    }
+
+    public boolean hasAnnotation(final IRI property) {
+
+        return annotations.containsKey(property);
+    }
+
+    public List<OWLAnnotationValue> values(final IRI property) {
+
+        return annotations.getOrDefault(property, Collections.emptyList());
+    }
+
+    public List<OWLLiteral> getPreferredLabels() {
+
+        return preferredLabels;
+    }
+
+    public String getPreferredLabel(final String language) {
+
+        return preferredLabels.stream()
+                .filter(literal -> literal.hasLang(language))
+                .map(OWLLiteral::getLiteral)
+                .findAny().orElse(null);
+    }
+}
@@ -0,0 +1,186 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Immutable subset of the classes of an ontology.
+ *
+ * Members are stored as a sorted array of {@link OSCClassIds} identifiers, so
+ * they are ordered by {@link org.semanticweb.owlapi.model.IRI}, and streams
+ * of a view split in halves without copying, for parallel iteration.
+ *
+ * @author javier
+ */
+public final class OSCClassView {
+
+    private final OSCClassViews name;
+    private final OSCClassIds ids;
+    private final int[] members;
+
+    private OSCClassView(final OSCClassViews name, final OSCClassIds ids, final int[] members) {
+
+        this.name = name;
+        this.ids = ids;
+        this.members = members;
+    }
+
+    static OSCClassView getInstance(final OSCClassViews name, final OWLOntology ontology, final OSCClassIds ids) {
+
+        return new OSCClassView(name, ids, IntStream.range(0, ids.size())
+                .filter(id -> name.test(ontology, ids.getOWLClass(id)))
+                .toArray());
+    }
+
+    public OSCClassViews getName() {
+
+        return name;
+    }
+
+    public OSCClassIds getClassIds() {
+
+        return ids;
+    }
+
+    public int size() {
+
+        return members.length;
+    }
+
+    /**
+     * @param index position in the view.
+     * @return the {@link OSCClassIds} identifier of the class.
+     */
+    public int getId(final int index) {
+
+        return members[index];
+    }
+
+    /**
+     * @param index position in the view.
+     * @return
+     */
+    public OWLClass getOWLClass(final int index) {
+
+        return ids.getOWLClass(members[index]);
+    }
+
+    public boolean contains(final OWLClass classe) {
+
+        int id = ids.getId(classe);
+
+        return id >= 0 && Arrays.binarySearch(members, id) >= 0;
+    }
+
+    /**
+     * @return identifiers of the classes, in ascending order.
+     */
+    public IntStream ids() {
+
+        return Arrays.stream(members);
+    }
+
+    /**
+     * @return classes, ordered by identifier.
+     */
+    public Stream<OWLClass> stream() {
+
+        return StreamSupport.stream(new ViewSpliterator(0, members.length), false);
+    }
+
+    /**
+     * @return a new array of the classes, ordered by identifier.
+     */
+    public OWLClass[] toArray() {
+
+        OWLClass[] classes = new OWLClass[members.length];
+        for (int i = 0; i < members.length; i++) {
+
+            classes[i] = ids.getOWLClass(members[i]);
+        }
+
+        return classes;
+    }
+
+    public BitSet toBitSet() {
+
+        BitSet set = new BitSet(ids.size());
+        for (int id : members) {
+
+            set.set(id);
+        }
+
+        return set;
+    }
+
+    /**
+     * Spliterator over a range of the members.
+     */
+    private final class ViewSpliterator implements Spliterator<OWLClass> {
+
+        private int from;
+        private final int to;
+
+        private ViewSpliterator(final int from, final int to) {
+
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super OWLClass> action) {
+
+            if (from >= to) {
+
+                return false;
+            }
+
+            action.accept(ids.getOWLClass(members[from++]));
+
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super OWLClass> action) {
+
+            for (; from < to; from++) {
+
+                action.accept(ids.getOWLClass(members[from]));
+            }
+        }
+
+        @Override
+        public Spliterator<OWLClass> trySplit() {
+
+            int middle = (from + to) >>> 1;
+            if (middle <= from) {
+
+                return null;
+            }
+
+            ViewSpliterator prefix = new ViewSpliterator(from, middle);
+            from = middle;
+
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+
+            return ORDERED | SIZED | SUBSIZED | DISTINCT | NONNULL | IMMUTABLE;
+        }
+    }
+}
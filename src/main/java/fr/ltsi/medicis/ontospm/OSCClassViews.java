@@ -0,0 +1,66 @@
+package fr.ltsi.medicis.ontospm;
+
+import static fr.ltsi.medicis.ontospm.OSCOntology.NAMESPACE;
+
+import java.util.function.BiPredicate;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Named subsets of the classes of an ontology, see
+ * {@link OSCOntology#getView(OSCClassViews)}.
+ *
+ * Membership is decided on the ontology itself, not on the annotation index
+ * of an indexed {@link OSCOntology}, so views follow the changes of the
+ * ontology.
+ *
+ * @author javier
+ */
+public enum OSCClassViews {
+
+    /**
+     * All classes in the signature.
+     */
+    ALL((o, c) -> true),
+    /**
+     * Classes defined in the OntoSPM namespace.
+     */
+    ONTOSPM((o, c) -> isOntoSPM(c)),
+    /**
+     * Classes that are not deprecated and are defined in OntoSPM: the classes
+     * checked by most {@link OSCClassRules}.
+     */
+    LIVE((o, c) -> isOntoSPM(c) && !isDeprecated(o, c)),
+    /**
+     * Deprecated classes, whatever their namespace.
+     */
+    DEPRECATED(OSCClassViews::isDeprecated);
+
+    private final BiPredicate<OWLOntology, OWLClass> member;
+
+    private OSCClassViews(final BiPredicate<OWLOntology, OWLClass> member) {
+
+        this.member = member;
+    }
+
+    /**
+     * @param ontology
+     * @param classe
+     * @return true iff the class belongs to the view.
+     */
+    public boolean test(final OWLOntology ontology, final OWLClass classe) {
+
+        return member.test(ontology, classe);
+    }
+
+    private static boolean isOntoSPM(final OWLClass classe) {
+
+        return NAMESPACE.equals(classe.getIRI().getNamespace());
+    }
+
+    private static boolean isDeprecated(final OWLOntology ontology, final OWLClass classe) {
+
+        return ontology.annotationAssertionAxioms(classe.getIRI())
+                .anyMatch(a -> a.getProperty().isDeprecated());
+    }
+}
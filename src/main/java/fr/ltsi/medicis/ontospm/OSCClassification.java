@@ -0,0 +1,144 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.semanticweb.owlapi.model.HasIRI;
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * Result of the classification of an ontology by a reasoner: the
+ * unsatisfiable classes and the inferred direct super classes of the
+ * satisfiable ones.
+ *
+ * Classes are identified by {@link org.semanticweb.owlapi.model.IRI}, so a
+ * classification does not depend on the manager of the ontology and can be
+ * stored.
+ *
+ * @author javier
+ */
+public final class OSCClassification {
+
+    private final String reasoner;
+    private final Set<IRI> unsatisfiable;
+    private final Map<IRI, Set<IRI>> superClasses;
+
+    private OSCClassification(final String reasoner, final Set<IRI> unsatisfiable, final Map<IRI, Set<IRI>> superClasses) {
+
+        this.reasoner = reasoner;
+        this.unsatisfiable = unsatisfiable;
+        this.superClasses = superClasses;
+    }
+
+    /**
+     * Create a classification.
+     *
+     * @param reasoner name of the reasoner.
+     * @param unsatisfiable unsatisfiable classes.
+     * @param superClasses inferred direct named super classes by satisfiable
+     * class, <code>owl:Thing</code> excluded.
+     * @return
+     */
+    static OSCClassification getInstance(final String reasoner, final Set<IRI> unsatisfiable, final Map<IRI, Set<IRI>> superClasses) {
+
+        Map<IRI, Set<IRI>> copy = new HashMap<>(superClasses.size() * 4 / 3 + 1);
+        superClasses.forEach((k, v) -> copy.put(k, Collections.unmodifiableSet(new HashSet<>(v))));
+
+        return new OSCClassification(reasoner,
+                Collections.unmodifiableSet(new HashSet<>(unsatisfiable)),
+                Collections.unmodifiableMap(copy));
+    }
+
+    public String getReasonerName() {
+
+        return reasoner;
+    }
+
+    public Set<IRI> getUnsatisfiableClasses() {
+
+        return unsatisfiable;
+    }
+
+    public boolean isUnsatisfiable(final HasIRI entity) {
+
+        return unsatisfiable.contains(entity.getIRI());
+    }
+
+    /**
+     * @param entity
+     * @return inferred direct named super classes, empty for an unsatisfiable
+     * or unknown class.
+     */
+    public Set<IRI> getSuperClasses(final HasIRI entity) {
+
+        return superClasses.getOrDefault(entity.getIRI(), Collections.emptySet());
+    }
+
+    /**
+     * @return satisfiable classes.
+     */
+    public Set<IRI> getClasses() {
+
+        return superClasses.keySet();
+    }
+
+    void write(final DataOutput out)
+            throws
+            IOException {
+
+        out.writeUTF(reasoner);
+        out.writeInt(unsatisfiable.size());
+        for (IRI iri : unsatisfiable) {
+
+            out.writeUTF(iri.toString());
+        }
+        out.writeInt(superClasses.size());
+        for (Map.Entry<IRI, Set<IRI>> entry : superClasses.entrySet()) {
+
+            out.writeUTF(entry.getKey().toString());
+            out.writeInt(entry.getValue().size());
+            for (IRI iri : entry.getValue()) {
+
+                out.writeUTF(iri.toString());
+            }
+        }
+    }
+
+    static OSCClassification read(final DataInput in)
+            throws
+            IOException {
+
+        OSCIRITable iris = OSCIRITable.getInstance();
+        String reasoner = in.readUTF();
+
+        int n = in.readInt();
+        Set<IRI> unsatisfiable = new HashSet<>(n * 4 / 3 + 1);
+        for (int i = 0; i < n; i++) {
+
+            unsatisfiable.add(iris.intern(in.readUTF()));
+        }
+
+        n = in.readInt();
+        Map<IRI, Set<IRI>> superClasses = new HashMap<>(n * 4 / 3 + 1);
+        for (int i = 0; i < n; i++) {
+
+            IRI iri = iris.intern(in.readUTF());
+            int m = in.readInt();
+            Set<IRI> set = new HashSet<>(m * 4 / 3 + 1);
+            for (int j = 0; j < m; j++) {
+
+                set.add(iris.intern(in.readUTF()));
+            }
+            superClasses.put(iri, Collections.unmodifiableSet(set));
+        }
+
+        return new OSCClassification(reasoner,
+                Collections.unmodifiableSet(unsatisfiable),
+                Collections.unmodifiableMap(superClasses));
+    }
+}
@@ -0,0 +1,733 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.jena.atlas.web.HttpException;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compact read-only model of the classes of an ontology and of its import
+ * closure: their annotations and their asserted named super classes.
+ *
+ * IRIs and literals are encoded once in a sorted dictionary, as UTF-8 bytes
+ * split in chunks of at most {@value #CHUNK} bytes (a longer term has a chunk
+ * of its own), and referred to by int identifiers; annotations and super
+ * classes are
+ * stored per class in int arrays (compressed sparse rows). Classes are
+ * numbered from 0 in the order of their IRI, as {@link OSCClassIds}. The
+ * arrays can be allocated outside of the heap.
+ *
+ * A model is built from an {@link OWLOntology}, or directly from the triples
+ * of a document, without building the OWLAPI objects; in that case classes
+ * are found as in {@link OSCStreamingChecker}, and the imported documents are
+ * read from a {@link OSCMirror}, or from their IRIs, missing ones being
+ * ignored as by {@link OSCManager}. The annotations of a class are
+ * turned into OWLAPI objects only for the time of a
+ * {@link #snapshot(int, OWLDataFactory)}, so {@link OSCClassRules} run against
+ * the model through {@link OSCChecker#check(OSCCompactModel)}.
+ *
+ * @author javier
+ */
+public final class OSCCompactModel {
+
+    /**
+     * Size of a chunk of the dictionary, in bytes.
+     */
+    static final int CHUNK = 1 << 26;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OSCCompactModel.class);
+
+    /**
+     * Annotation properties of the RDF, RDFS and OWL vocabularies; other
+     * predicates of these vocabularies are not annotations.
+     */
+    private static final Set<String> ANNOTATIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            RDFS.label.getURI(),
+            RDFS.comment.getURI(),
+            RDFS.seeAlso.getURI(),
+            RDFS.isDefinedBy.getURI(),
+            OWL2.deprecated.getURI(),
+            OWL2.versionInfo.getURI(),
+            OWL2.priorVersion.getURI(),
+            OWL2.backwardCompatibleWith.getURI(),
+            OWL2.incompatibleWith.getURI())));
+    private static final List<String> VOCABULARIES = Collections.unmodifiableList(Arrays.asList(
+            RDF.getURI(),
+            RDFS.getURI(),
+            OWL2.getURI()));
+
+    private static final char IRI_TERM = '<';
+    private static final char LANGUAGE_TERM = '@';
+    private static final char TYPED_TERM = '^';
+    private static final char SEPARATOR = '\u0000';
+
+    private final ByteBuffer[] chunks;
+    private final int[] firsts;
+    private final IntBuffer offsets;
+    private final IntBuffer classes;
+    private final IntBuffer annotationOffsets;
+    private final IntBuffer properties;
+    private final IntBuffer values;
+    private final IntBuffer parentOffsets;
+    private final IntBuffer parents;
+
+    private OSCCompactModel(final ByteBuffer[] chunks, final int[] firsts, final IntBuffer offsets,
+            final IntBuffer classes, final IntBuffer annotationOffsets, final IntBuffer properties,
+            final IntBuffer values, final IntBuffer parentOffsets, final IntBuffer parents) {
+
+        this.chunks = chunks;
+        this.firsts = firsts;
+        this.offsets = offsets;
+        this.classes = classes;
+        this.annotationOffsets = annotationOffsets;
+        this.properties = properties;
+        this.values = values;
+        this.parentOffsets = parentOffsets;
+        this.parents = parents;
+    }
+
+    /**
+     * Build the model of an ontology and of its import closure.
+     *
+     * @param ontology
+     * @param direct true to allocate the arrays outside of the heap.
+     * @return
+     */
+    public static OSCCompactModel getInstance(final OWLOntology ontology, final boolean direct) {
+
+        return getInstance(ontology, direct, CHUNK);
+    }
+
+    static OSCCompactModel getInstance(final OWLOntology ontology, final boolean direct, final int chunk) {
+
+        Builder builder = new Builder();
+        List<OWLOntology> closure = ontology.importsClosure().collect(Collectors.toList());
+        Set<OWLClass> classes = closure.stream().flatMap(OWLOntology::classesInSignature).collect(Collectors.toSet());
+
+        classes.forEach(c -> builder.classe(iri(c.getIRI().toString())));
+        closure.forEach(o -> classes.forEach(c -> o.annotationAssertionAxioms(c.getIRI()).forEach(a -> {
+
+            OWLAnnotationValue value = a.getValue();
+            String term = value.isIRI() ? iri(value.toString())
+                    : value.asLiteral().map(OSCCompactModel::literal).orElse(null);
+            if (term != null) {
+
+                builder.annotation(iri(c.getIRI().toString()), iri(a.getProperty().getIRI().toString()), term);
+            }
+        })));
+        closure.forEach(o -> o.axioms(AxiomType.SUBCLASS_OF)
+                .filter(a -> !a.getSubClass().isAnonymous() && !a.getSuperClass().isAnonymous())
+                .forEach(a -> builder.edge(iri(a.getSubClass().asOWLClass().getIRI().toString()),
+                iri(a.getSuperClass().asOWLClass().getIRI().toString()))));
+
+        return builder.build(direct, chunk);
+    }
+
+    /**
+     * Build the model of an ontology document and of its import closure,
+     * reading their triples. The syntax (RDF/XML, N-Triples, Turtle...) is
+     * guessed from the file extension. Imports are read from their IRIs,
+     * missing ones being ignored.
+     *
+     * @param path
+     * @param direct true to allocate the arrays outside of the heap.
+     * @return
+     */
+    public static OSCCompactModel getInstance(final Path path, final boolean direct) {
+
+        return getInstance(path, null, direct);
+    }
+
+    /**
+     * Build the model of an ontology document and of the part of its import
+     * closure found in a local mirror, reading their triples; other imports
+     * are ignored.
+     *
+     * @param path
+     * @param mirror local mirror, or null to read imports from their IRIs,
+     * ignoring missing ones.
+     * @param direct true to allocate the arrays outside of the heap.
+     * @return
+     */
+    public static OSCCompactModel getInstance(final Path path, final OSCMirror mirror, final boolean direct) {
+
+        Sink sink = new Sink();
+        String root = path.toAbsolutePath().normalize().toUri().toString();
+        RDFDataMgr.parse(sink, root);
+        Set<String> read = new HashSet<>(Collections.singleton(root));
+
+        while (!sink.imports.isEmpty()) {
+
+            List<String> imports = new ArrayList<>(sink.imports);
+            sink.imports.clear();
+            for (String iri : imports) {
+
+                String document = mirror == null ? iri
+                        : mirror.getDocument(IRI.create(iri)).map(p -> p.toUri().toString()).orElse(null);
+                if (document != null && read.add(document)) {
+
+                    try {
+
+                        RDFDataMgr.parse(sink, document);
+                    } catch (RiotException | HttpException e) {
+
+                        LOGGER.warn("Ignoring unreadable import {}: {}", document, e.toString());
+                    }
+                }
+            }
+        }
+
+        return sink.builder.build(direct, CHUNK);
+    }
+
+    /**
+     * @param predicate
+     * @return true iff a triple with this predicate and a named subject is
+     * kept as an annotation of the subject.
+     */
+    static boolean isAnnotation(final String predicate) {
+
+        return ANNOTATIONS.contains(predicate) || VOCABULARIES.stream().noneMatch(predicate::startsWith);
+    }
+
+    private static String iri(final String iri) {
+
+        return IRI_TERM + iri;
+    }
+
+    private static String literal(final OWLLiteral literal) {
+
+        return literal.hasLang()
+                ? LANGUAGE_TERM + literal.getLang() + SEPARATOR + literal.getLiteral()
+                : TYPED_TERM + literal.getDatatype().getIRI().toString() + SEPARATOR + literal.getLiteral();
+    }
+
+    /**
+     * @return number of classes.
+     */
+    public int size() {
+
+        return classes.limit();
+    }
+
+    /**
+     * @return bytes used by the dictionary and the arrays.
+     */
+    public long getSize() {
+
+        long size = 4L * firsts.length;
+        for (ByteBuffer chunk : chunks) {
+
+            size += chunk.capacity();
+        }
+
+        return size + 4L * (offsets.capacity() + classes.capacity()
+                + annotationOffsets.capacity() + properties.capacity() + values.capacity()
+                + parentOffsets.capacity() + parents.capacity());
+    }
+
+    public boolean isDirect() {
+
+        return offsets.isDirect();
+    }
+
+    /**
+     * @return number of distinct IRIs and literals.
+     */
+    public int getTermCount() {
+
+        return firsts[chunks.length];
+    }
+
+    /**
+     * @param iri
+     * @return the identifier of the class, or -1 if it is unknown.
+     */
+    public int getId(final IRI iri) {
+
+        int term = this.lookup(iri(iri.toString()));
+
+        return term < 0 ? -1 : Math.max(-1, search(classes, 0, classes.limit(), term));
+    }
+
+    public IRI getIRI(final int id) {
+
+        return IRI.create(this.term(classes.get(id)).substring(1));
+    }
+
+    /**
+     * @return IRIs of the classes, ordered by identifier.
+     */
+    public Stream<IRI> classes() {
+
+        return IntStream.range(0, this.size()).mapToObj(this::getIRI);
+    }
+
+    /**
+     * @param id
+     * @return identifiers of the asserted named super classes.
+     */
+    public IntStream superClasses(final int id) {
+
+        return IntStream.range(parentOffsets.get(id), parentOffsets.get(id + 1)).map(parents::get);
+    }
+
+    public boolean hasAnnotation(final int id, final IRI property) {
+
+        int term = this.lookup(iri(property.toString()));
+        if (term < 0) {
+
+            return false;
+        }
+
+        for (int i = annotationOffsets.get(id); i < annotationOffsets.get(id + 1); i++) {
+
+            if (properties.get(i) == term) {
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean isDeprecated(final int id) {
+
+        return this.hasAnnotation(id, OWLRDFVocabulary.OWL_DEPRECATED.getIRI());
+    }
+
+    /**
+     * @param id
+     * @param language
+     * @return the first preferred label of the class in a language, or null.
+     */
+    public String getPreferredLabel(final int id, final String language) {
+
+        int term = this.lookup(iri(SKOSVocabulary.PREFLABEL.getIRI().toString()));
+        String prefix = LANGUAGE_TERM + language + SEPARATOR;
+        for (int i = annotationOffsets.get(id); term >= 0 && i < annotationOffsets.get(id + 1); i++) {
+
+            if (properties.get(i) == term) {
+
+                String value = this.term(values.get(i));
+                if (value.startsWith(prefix)) {
+
+                    return value.substring(prefix.length());
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the annotations of a class as OWLAPI objects, in the order of the
+     * source.
+     *
+     * @param id
+     * @param factory
+     * @return {@link OSCClassSnapshot}
+     */
+    public OSCClassSnapshot snapshot(final int id, final OWLDataFactory factory) {
+
+        Map<IRI, List<OWLAnnotationValue>> annotations = new HashMap<>(4);
+        for (int i = annotationOffsets.get(id); i < annotationOffsets.get(id + 1); i++) {
+
+            IRI property = IRI.create(this.term(properties.get(i)).substring(1));
+            annotations.computeIfAbsent(property, k -> new ArrayList<>(3)).add(this.value(values.get(i), factory));
+        }
+
+        OWLClass classe = factory.getOWLClass(this.getIRI(id));
+
+        return OSCClassSnapshot.getInstance(classe, annotations);
+    }
+
+    private OWLAnnotationValue value(final int term, final OWLDataFactory factory) {
+
+        String value = this.term(term);
+        if (value.charAt(0) == IRI_TERM) {
+
+            return IRI.create(value.substring(1));
+        }
+
+        int separator = value.indexOf(SEPARATOR);
+        String lexical = value.substring(separator + 1);
+
+        return value.charAt(0) == LANGUAGE_TERM
+                ? factory.getOWLLiteral(lexical, value.substring(1, separator))
+                : factory.getOWLLiteral(lexical, factory.getOWLDatatype(IRI.create(value.substring(1, separator))));
+    }
+
+    /**
+     * Decode a term of the dictionary.
+     */
+    private String term(final int term) {
+
+        int chunk = Arrays.binarySearch(firsts, 0, chunks.length, term);
+        if (chunk < 0) {
+
+            chunk = -chunk - 2;
+        }
+        int from = offsets.get(term);
+        int to = term + 1 == firsts[chunk + 1] ? chunks[chunk].limit() : offsets.get(term + 1);
+        byte[] bytes = new byte[to - from];
+        ByteBuffer buffer = chunks[chunk].duplicate();
+        buffer.position(from);
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Find a term in the dictionary.
+     *
+     * @return the identifier of the term, or a negative value.
+     */
+    private int lookup(final String term) {
+
+        int low = 0;
+        int high = this.getTermCount() - 1;
+        while (low <= high) {
+
+            int middle = (low + high) >>> 1;
+            int result = this.term(middle).compareTo(term);
+            if (result < 0) {
+
+                low = middle + 1;
+            } else if (result > 0) {
+
+                high = middle - 1;
+            } else {
+
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int search(final IntBuffer buffer, final int from, final int to, final int value) {
+
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+
+            int middle = (low + high) >>> 1;
+            int result = Integer.compare(buffer.get(middle), value);
+            if (result < 0) {
+
+                low = middle + 1;
+            } else if (result > 0) {
+
+                high = middle - 1;
+            } else {
+
+                return middle;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    /**
+     * Growable int array.
+     */
+    private static final class IntList {
+
+        private int[] data = new int[1024];
+        private int size;
+
+        private void add(final int value) {
+
+            if (size == data.length) {
+
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+
+    /**
+     * Collects the terms, classes, annotations and edges of a model, then
+     * encodes them.
+     */
+    private static final class Builder {
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> order = new ArrayList<>();
+        private final IntList classes = new IntList();
+        private final IntList annotations = new IntList();
+        private final IntList edges = new IntList();
+
+        private int term(final String term) {
+
+            Integer id = dictionary.get(term);
+            if (id == null) {
+
+                id = order.size();
+                dictionary.put(term, id);
+                order.add(term);
+            }
+
+            return id;
+        }
+
+        private void classe(final String iri) {
+
+            classes.add(this.term(iri));
+        }
+
+        private void annotation(final String subject, final String property, final String value) {
+
+            annotations.add(this.term(subject));
+            annotations.add(this.term(property));
+            annotations.add(this.term(value));
+        }
+
+        private void edge(final String child, final String parent) {
+
+            edges.add(this.term(child));
+            edges.add(this.term(parent));
+        }
+
+        private OSCCompactModel build(final boolean direct, final int chunk) {
+
+            // dictionary, sorted so that classes are in IRI order
+            String[] sorted = order.toArray(new String[0]);
+            Arrays.sort(sorted);
+            int[] remap = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+
+                remap[dictionary.get(sorted[i])] = i;
+            }
+            dictionary.clear();
+            order.clear();
+
+            // one chunk encoded at a time, offsets relative to their chunk
+            List<ByteBuffer> chunks = new ArrayList<>();
+            IntList firsts = new IntList();
+            int[] offsets = new int[sorted.length];
+            List<byte[]> pending = new ArrayList<>();
+            int length = 0;
+            for (int i = 0; i <= sorted.length; i++) {
+
+                byte[] bytes = i < sorted.length ? sorted[i].getBytes(StandardCharsets.UTF_8) : null;
+                if (!pending.isEmpty() && (bytes == null || (long) length + bytes.length > chunk)) {
+
+                    ByteBuffer terms = direct ? ByteBuffer.allocateDirect(length) : ByteBuffer.allocate(length);
+                    pending.forEach(terms::put);
+                    terms.flip();
+                    chunks.add(terms);
+                    pending.clear();
+                    length = 0;
+                }
+                if (bytes != null) {
+
+                    if (pending.isEmpty()) {
+
+                        firsts.add(i);
+                    }
+                    offsets[i] = length;
+                    length += bytes.length;
+                    pending.add(bytes);
+                    sorted[i] = null;
+                }
+            }
+            firsts.add(sorted.length);
+
+            int[] ids = Arrays.stream(classes.data, 0, classes.size).map(t -> remap[t]).sorted().distinct().toArray();
+
+            // annotations of classes, grouped by class in the order of the source
+            int[] annotationOffsets = new int[ids.length + 1];
+            int[] subjects = new int[annotations.size / 3];
+            for (int i = 0; i < subjects.length; i++) {
+
+                subjects[i] = Arrays.binarySearch(ids, remap[annotations.data[3 * i]]);
+                if (subjects[i] >= 0) {
+
+                    annotationOffsets[subjects[i] + 1]++;
+                }
+            }
+            Arrays.parallelPrefix(annotationOffsets, Integer::sum);
+            int[] properties = new int[annotationOffsets[ids.length]];
+            int[] values = new int[properties.length];
+            int[] next = Arrays.copyOf(annotationOffsets, ids.length);
+            for (int i = 0; i < subjects.length; i++) {
+
+                if (subjects[i] >= 0) {
+
+                    int position = next[subjects[i]]++;
+                    properties[position] = remap[annotations.data[3 * i + 1]];
+                    values[position] = remap[annotations.data[3 * i + 2]];
+                }
+            }
+
+            // distinct named super classes of classes
+            int[] parentOffsets = new int[ids.length + 1];
+            int[] children = new int[edges.size / 2];
+            int[] targets = new int[children.length];
+            for (int i = 0; i < children.length; i++) {
+
+                children[i] = Arrays.binarySearch(ids, remap[edges.data[2 * i]]);
+                targets[i] = Arrays.binarySearch(ids, remap[edges.data[2 * i + 1]]);
+                if (children[i] >= 0 && targets[i] >= 0) {
+
+                    parentOffsets[children[i] + 1]++;
+                }
+            }
+            Arrays.parallelPrefix(parentOffsets, Integer::sum);
+            int[] parents = new int[parentOffsets[ids.length]];
+            next = Arrays.copyOf(parentOffsets, ids.length);
+            for (int i = 0; i < children.length; i++) {
+
+                if (children[i] >= 0 && targets[i] >= 0) {
+
+                    parents[next[children[i]]++] = targets[i];
+                }
+            }
+            int size = 0;
+            for (int c = 0; c < ids.length; c++) {
+
+                int from = parentOffsets[c];
+                int to = parentOffsets[c + 1];
+                Arrays.sort(parents, from, to);
+                parentOffsets[c] = size;
+                for (int i = from; i < to; i++) {
+
+                    if (i == from || parents[i] != parents[i - 1]) {
+
+                        parents[size++] = parents[i];
+                    }
+                }
+            }
+            parentOffsets[ids.length] = size;
+
+            return new OSCCompactModel(chunks.toArray(new ByteBuffer[0]),
+                    Arrays.copyOf(firsts.data, firsts.size),
+                    buffer(offsets, offsets.length, direct),
+                    buffer(ids, ids.length, direct),
+                    buffer(annotationOffsets, annotationOffsets.length, direct),
+                    buffer(properties, properties.length, direct),
+                    buffer(values, values.length, direct),
+                    buffer(parentOffsets, parentOffsets.length, direct),
+                    buffer(parents, size, direct));
+        }
+
+        private static IntBuffer buffer(final int[] array, final int length, final boolean direct) {
+
+            if (!direct) {
+
+                return IntBuffer.wrap(length == array.length ? array : Arrays.copyOf(array, length));
+            }
+
+            IntBuffer buffer = ByteBuffer.allocateDirect(4 * length).order(ByteOrder.nativeOrder()).asIntBuffer();
+            buffer.put(array, 0, length);
+            buffer.flip();
+
+            return buffer;
+        }
+    }
+
+    /**
+     * Triple sink feeding a builder.
+     */
+    private static final class Sink extends StreamRDFBase {
+
+        private final Builder builder = new Builder();
+        private final Set<String> imports = new LinkedHashSet<>();
+        private final OSCStreamingChecker.ClassReferences references = new OSCStreamingChecker.ClassReferences(this::reference);
+
+        @Override
+        public void triple(final Triple triple) {
+
+            Node s = triple.getSubject();
+            String predicate = triple.getPredicate().getURI();
+            Node o = triple.getObject();
+
+            if (OWL2.imports.getURI().equals(predicate) && o.isURI()) {
+
+                imports.add(o.getURI());
+            }
+
+            if (o.isURI() && OSCStreamingChecker.REFERENCES.contains(predicate)) {
+
+                this.reference(o.getURI());
+            }
+            references.triple(s, predicate, o);
+
+            if (!s.isURI()) {
+
+                return;
+            }
+
+            if (RDF.type.getURI().equals(predicate) && o.isURI() && OWL2.Class.getURI().equals(o.getURI())
+                    || OSCStreamingChecker.AXIOMS.contains(predicate)) {
+
+                builder.classe(iri(s.getURI()));
+            }
+
+            if (RDFS.subClassOf.getURI().equals(predicate) && o.isURI()) {
+
+                builder.edge(iri(s.getURI()), iri(o.getURI()));
+            } else if (isAnnotation(predicate)) {
+
+                String value = o.isURI() ? iri(o.getURI())
+                        : o.isLiteral() ? literal(o) : null;
+                if (value != null) {
+
+                    builder.annotation(iri(s.getURI()), iri(predicate), value);
+                }
+            }
+        }
+
+        private void reference(final String uri) {
+
+            if (OSCStreamingChecker.BUILTINS.stream().noneMatch(uri::startsWith)) {
+
+                builder.classe(iri(uri));
+            }
+        }
+
+        private static String literal(final Node node) {
+
+            String language = node.getLiteralLanguage();
+
+            return language == null || language.isEmpty()
+                    ? TYPED_TERM + node.getLiteralDatatypeURI() + SEPARATOR + node.getLiteralLexicalForm()
+                    : LANGUAGE_TERM + language + SEPARATOR + node.getLiteralLexicalForm();
+        }
+    }
+}
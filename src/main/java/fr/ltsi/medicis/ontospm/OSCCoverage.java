@@ -0,0 +1,133 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Locale;
+
+/**
+ * Part of the classes of an ontology checked by a run stopped at a deadline,
+ * by priority tier, see {@link OSCDeadlineChecker}.
+ *
+ * @author javier
+ */
+public final class OSCCoverage {
+
+    /**
+     * Priority tiers, checked in declaration order.
+     */
+    public enum Tier {
+
+        /**
+         * Classes changed or recently edited, as given by the caller.
+         */
+        CHANGED,
+        /**
+         * Other classes defined in the OntoSPM namespace.
+         */
+        ONTOSPM,
+        /**
+         * Other classes, i.e. imported or referenced from other ontologies.
+         */
+        IMPORTED
+    }
+
+    private final long[] checked;
+    private final long[] total;
+    private final long elapsed;
+
+    private OSCCoverage(final long[] checked, final long[] total, final long elapsed) {
+
+        this.checked = checked;
+        this.total = total;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Create a coverage.
+     *
+     * @param checked number of classes checked, indexed by tier ordinal; the
+     * array must not be modified afterwards.
+     * @param total number of classes, indexed by tier ordinal; the array must
+     * not be modified afterwards.
+     * @param elapsed duration of the run, in nanoseconds.
+     * @return
+     */
+    static OSCCoverage getInstance(final long[] checked, final long[] total, final long elapsed) {
+
+        return new OSCCoverage(checked, total, elapsed);
+    }
+
+    public long getChecked(final Tier tier) {
+
+        return checked[tier.ordinal()];
+    }
+
+    public long getTotal(final Tier tier) {
+
+        return total[tier.ordinal()];
+    }
+
+    public long getChecked() {
+
+        long result = 0;
+        for (long count : checked) {
+
+            result += count;
+        }
+
+        return result;
+    }
+
+    public long getTotal() {
+
+        long result = 0;
+        for (long count : total) {
+
+            result += count;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return checked part of the classes, between 0 and 1.
+     */
+    public double getRatio() {
+
+        long all = this.getTotal();
+
+        return all == 0 ? 1 : (double) this.getChecked() / all;
+    }
+
+    /**
+     * @return true iff every class was checked before the deadline.
+     */
+    public boolean isComplete() {
+
+        return this.getChecked() == this.getTotal();
+    }
+
+    /**
+     * @return duration of the run, in nanoseconds.
+     */
+    public long getElapsed() {
+
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder result = new StringBuilder(String.format(Locale.ROOT, "%d/%d classes (%.1f%%) in %d ms",
+                this.getChecked(), this.getTotal(), this.getRatio() * 100, elapsed / 1_000_000));
+        for (Tier tier : Tier.values()) {
+
+            result.append(", ").append(tier.name().toLowerCase(Locale.ROOT))
+                    .append(' ').append(checked[tier.ordinal()]).append('/').append(total[tier.ordinal()]);
+        }
+        if (!this.isComplete()) {
+
+            result.append(", stopped at deadline");
+        }
+
+        return result.toString();
+    }
+}
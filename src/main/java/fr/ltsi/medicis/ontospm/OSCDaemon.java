@@ -0,0 +1,734 @@
+package fr.ltsi.medicis.ontospm;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long-running checker keeping ontologies loaded, with a JSON API over HTTP
+ * on the loopback interface.
+ *
+ * Resources, all answering a JSON object; ontologies are named by the
+ * <code>path</code> parameter:
+ * <ul>
+ * <li><code>POST /reload?path=</code> loads or reloads a document;</li>
+ * <li><code>GET /check?path=</code> checks all classes of a loaded
+ * document;</li>
+ * <li><code>GET /check?path=&amp;class=&amp;class=</code> checks some
+ * classes, given by IRI;</li>
+ * <li><code>GET /label?path=&amp;iri=</code> gets the preferred labels of a
+ * class, <code>GET /label?path=&amp;text=&amp;lang=</code> the classes with a
+ * preferred label;</li>
+ * <li><code>GET /status</code> lists the loaded ontologies.</li>
+ * </ul>
+ *
+ * Only the documents loaded with {@link #load(Path)}, e.g. given at start,
+ * and the documents below the root directory, if any, are served; GET
+ * requests never load a document. Requests whose <code>Host</code> header is
+ * not a loopback name are refused, so that web pages cannot reach the daemon
+ * through DNS rebinding, and errors are answered without their cause, which
+ * is only logged.
+ *
+ * Each ontology has its own worker thread. Reloads and checks of an ontology
+ * are queued to its worker; the class checks queued while the worker is busy
+ * are run as one batch, each class being checked once. The report of all
+ * classes is computed once per load.
+ *
+ * @author javier
+ */
+public class OSCDaemon {
+
+    /**
+     * Default port.
+     */
+    public static final int PORT = 8765;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OSCDaemon.class);
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final Set<String> LOCAL_HOSTS = new LinkedHashSet<>(Arrays.asList("localhost", "127.0.0.1", "[::1]"));
+
+    private final OSCChecker checker;
+    private final OSCSnapshotCache cache;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final Path root;
+    private final Set<Path> documents = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Resident> residents = new ConcurrentHashMap<>();
+
+    private OSCDaemon(final OSCChecker checker, final OSCSnapshotCache cache, final int port, final int threads, final Path root)
+            throws
+            IOException {
+
+        this.checker = checker;
+        this.cache = cache;
+        this.root = root == null ? null : root.toRealPath();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.handlers = Executors.newFixedThreadPool(threads, r -> {
+
+            Thread thread = new Thread(r, "osc-daemon");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        server.setExecutor(handlers);
+        server.createContext("/reload", e -> this.handle(e, "POST", this::reload));
+        server.createContext("/check", e -> this.handle(e, "GET", this::check));
+        server.createContext("/label", e -> this.handle(e, "GET", this::label));
+        server.createContext("/status", e -> this.handle(e, "GET", this::status));
+    }
+
+    /**
+     * Create a daemon, not started.
+     *
+     * @param checker
+     * @param cache snapshot cache, or null to always parse the documents.
+     * @param port port on the loopback interface, or 0 for any free port.
+     * @param threads number of threads serving requests.
+     * @param root directory whose documents can be loaded through
+     * <code>/reload</code>, or null to serve only the documents loaded with
+     * {@link #load(Path)}.
+     * @return
+     */
+    public static OSCDaemon getInstance(final OSCChecker checker, final OSCSnapshotCache cache, final int port, final int threads, final Path root) {
+
+        try {
+
+            return new OSCDaemon(checker, cache, port, threads, root);
+        } catch (IOException e) {
+
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Create a daemon, not started, serving only the documents loaded with
+     * {@link #load(Path)}.
+     *
+     * @param checker
+     * @param cache snapshot cache, or null to always parse the documents.
+     * @param port port on the loopback interface, or 0 for any free port.
+     * @param threads number of threads serving requests.
+     * @return
+     */
+    public static OSCDaemon getInstance(final OSCChecker checker, final OSCSnapshotCache cache, final int port, final int threads) {
+
+        return getInstance(checker, cache, port, threads, null);
+    }
+
+    public void start() {
+
+        server.start();
+        LOGGER.info("Listening on http://{}:{}/", server.getAddress().getHostString(), this.getPort());
+    }
+
+    /**
+     * Stop serving requests and release the ontologies.
+     */
+    public void stop() {
+
+        server.stop(0);
+        handlers.shutdownNow();
+        residents.values().forEach(r -> r.worker.shutdownNow());
+        residents.clear();
+    }
+
+    public int getPort() {
+
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Load or reload an ontology document, which is then served.
+     *
+     * @param path
+     * @return the loaded state.
+     */
+    public CompletableFuture<Loaded> load(final Path path) {
+
+        Path document = path.toAbsolutePath().normalize();
+        documents.add(document);
+
+        return this.reload(document);
+    }
+
+    private CompletableFuture<Loaded> reload(final Path document) {
+
+        return residents.computeIfAbsent(document, Resident::new).reload();
+    }
+
+    /**
+     * Get the worker of a loaded document, for tests.
+     *
+     * @param path
+     * @return
+     */
+    ExecutorService worker(final Path path) {
+
+        return residents.get(path.toAbsolutePath().normalize()).worker;
+    }
+
+    /**
+     * A loaded version of an ontology.
+     */
+    public final class Loaded {
+
+        private final OSCOntology ontology;
+        private final long millis;
+        private final CompletableFuture<OSCReport> report = new CompletableFuture<>();
+
+        private Loaded(final OSCOntology ontology, final long millis) {
+
+            this.ontology = ontology;
+            this.millis = millis;
+        }
+
+        public OSCOntology getOntology() {
+
+            return ontology;
+        }
+
+        /**
+         * @return load time, in milliseconds.
+         */
+        public long getMillis() {
+
+            return millis;
+        }
+    }
+
+    /**
+     * Classes to check for one request, in a loaded version.
+     */
+    private static final class Request {
+
+        private final Loaded loaded;
+        private final Set<IRI> classes;
+        private final CompletableFuture<List<OSCViolation>> result = new CompletableFuture<>();
+
+        private Request(final Loaded loaded, final Set<IRI> classes) {
+
+            this.loaded = loaded;
+            this.classes = classes;
+        }
+    }
+
+    /**
+     * Refused request, answered with a status and a message that does not
+     * depend on internal state.
+     */
+    private static final class Refused extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private Refused(final int status, final String message) {
+
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * An ontology document kept loaded, with its worker.
+     */
+    private final class Resident {
+
+        private final Path path;
+        private final ExecutorService worker;
+        private final Queue<Request> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong requests = new AtomicLong();
+        // last requested load, shared by all the requests waiting for it
+        private volatile CompletableFuture<Loaded> loading;
+
+        private Resident(final Path path) {
+
+            this.path = path;
+            this.worker = Executors.newSingleThreadExecutor(r -> {
+
+                Thread thread = new Thread(r, "osc-daemon-" + path.getFileName());
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+
+        private synchronized CompletableFuture<Loaded> reload() {
+
+            loading = CompletableFuture.supplyAsync(this::load, worker);
+
+            return loading;
+        }
+
+        private Loaded load() {
+
+            long start = System.nanoTime();
+            OSCManager manager = OSCManager.getInstance(path, cache);
+            OSCOntology ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+            // build the tables served by the lookups before the first request
+            ontology.getLabelTable();
+
+            return new Loaded(ontology, (System.nanoTime() - start) / 1000000);
+        }
+
+        /**
+         * Get the last requested load, waiting for it if in progress.
+         */
+        private Loaded loaded()
+                throws
+                InterruptedException,
+                ExecutionException {
+
+            CompletableFuture<Loaded> current = loading;
+            if (current == null) {
+
+                throw new Refused(404, "not loaded");
+            }
+
+            return current.get();
+        }
+
+        /**
+         * @return the last load if done, or null.
+         */
+        private Loaded current() {
+
+            CompletableFuture<Loaded> current = loading;
+
+            return current != null && current.isDone() && !current.isCompletedExceptionally() ? current.join() : null;
+        }
+
+        private CompletableFuture<OSCReport> checkAll()
+                throws
+                InterruptedException,
+                ExecutionException {
+
+            Loaded current = this.loaded();
+            if (!current.report.isDone()) {
+
+                worker.execute(() -> {
+
+                    if (!current.report.isDone()) {
+
+                        current.report.complete(checker.check(current.ontology));
+                    }
+                });
+            }
+
+            return current.report;
+        }
+
+        private CompletableFuture<List<OSCViolation>> check(final Loaded current, final Set<IRI> classes) {
+
+            Request request = new Request(current, classes);
+            pending.add(request);
+            requests.incrementAndGet();
+            if (scheduled.compareAndSet(false, true)) {
+
+                worker.execute(this::drain);
+            }
+
+            return request.result;
+        }
+
+        /**
+         * Check the classes of all pending requests, each class once.
+         */
+        private void drain() {
+
+            scheduled.set(false);
+            List<Request> batch = new ArrayList<>();
+            for (Request request = pending.poll(); request != null; request = pending.poll()) {
+
+                batch.add(request);
+            }
+            if (batch.isEmpty()) {
+
+                return;
+            }
+
+            batches.incrementAndGet();
+            try {
+
+                // a reload between requests gives a batch over two versions
+                Map<Loaded, Map<IRI, List<OSCViolation>>> versions = new HashMap<>();
+                for (Request request : batch) {
+
+                    OSCOntology ontology = request.loaded.ontology;
+                    OSCClassIds ids = ontology.getClassIds();
+                    Map<IRI, List<OSCViolation>> results = versions.computeIfAbsent(request.loaded, k -> new HashMap<>());
+                    for (IRI iri : request.classes) {
+
+                        results.computeIfAbsent(iri, k -> {
+
+                            int id = ids.getId(ontology.getFactory().getOWLClass(k));
+                            if (id < 0) {
+
+                                return null;
+                            }
+
+                            List<OSCViolation> violations = new ArrayList<>(0);
+                            checker.check(ontology.snapshot(ids.getOWLClass(id)), violations);
+
+                            return violations;
+                        });
+                    }
+                }
+
+                for (Request request : batch) {
+
+                    Map<IRI, List<OSCViolation>> results = versions.get(request.loaded);
+                    List<OSCViolation> violations = new ArrayList<>();
+                    request.classes.stream()
+                            .map(results::get)
+                            .filter(v -> v != null)
+                            .forEach(violations::addAll);
+                    request.result.complete(violations);
+                }
+            } catch (RuntimeException e) {
+
+                batch.forEach(r -> r.result.completeExceptionally(e));
+            }
+        }
+    }
+
+    /**
+     * Request handler answering a JSON object.
+     */
+    @FunctionalInterface
+    private interface Handler {
+
+        String handle(Map<String, List<String>> parameters)
+                throws
+                InterruptedException,
+                ExecutionException;
+    }
+
+    private void handle(final HttpExchange exchange, final String method, final Handler handler)
+            throws
+            IOException {
+
+        int status = 200;
+        String body;
+
+        try {
+
+            if (!this.isLocal(exchange.getRequestHeaders().getFirst("Host"))) {
+
+                throw new Refused(403, "loopback host expected");
+            }
+            if (!method.equals(exchange.getRequestMethod())) {
+
+                throw new Refused(405, method + " expected");
+            }
+            body = handler.handle(parameters(exchange.getRequestURI().getRawQuery()));
+        } catch (Refused e) {
+
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+
+            LOGGER.debug("{} refused", exchange.getRequestURI(), e);
+            status = 400;
+            body = error("invalid parameter");
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            status = 503;
+            body = error("interrupted");
+        } catch (ExecutionException | RuntimeException e) {
+
+            Throwable cause = e instanceof ExecutionException || e instanceof CompletionException ? e.getCause() : e;
+            LOGGER.warn("{} failed", exchange.getRequestURI(), cause);
+            status = 500;
+            body = error("internal error, see the daemon log");
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+
+            out.write(bytes);
+        }
+    }
+
+    private String reload(final Map<String, List<String>> parameters)
+            throws
+            InterruptedException,
+            ExecutionException {
+
+        Path path = this.served(parameters);
+        Loaded loaded = this.reload(path).get();
+
+        StringBuilder json = new StringBuilder("{\"path\":");
+        OSCReportWriter.quote(json, path.toString());
+
+        return json.append(",\"classes\":").append(loaded.ontology.getClassIds().size())
+                .append(",\"millis\":").append(loaded.millis)
+                .append('}').toString();
+    }
+
+    private String check(final Map<String, List<String>> parameters)
+            throws
+            InterruptedException,
+            ExecutionException {
+
+        Resident resident = this.resident(parameters);
+        Loaded loaded = resident.loaded();
+        List<String> classes = parameters.getOrDefault("class", Collections.emptyList());
+
+        List<OSCViolation> violations;
+        long visited;
+        if (classes.isEmpty()) {
+
+            OSCReport report = resident.checkAll().get();
+            violations = report.getViolations();
+            visited = report.getVisited();
+        } else {
+
+            Set<IRI> iris = new LinkedHashSet<>();
+            classes.forEach(c -> iris.add(IRI.create(c)));
+            violations = resident.check(loaded, iris).get();
+            OSCClassIds ids = loaded.ontology.getClassIds();
+            visited = iris.stream().filter(i -> ids.getId(loaded.ontology.getFactory().getOWLClass(i)) >= 0).count();
+        }
+
+        StringBuilder json = new StringBuilder("{\"path\":");
+        OSCReportWriter.quote(json, resident.path.toString());
+        json.append(",\"visited\":").append(visited).append(",\"violations\":[");
+        for (int i = 0; i < violations.size(); i++) {
+
+            OSCReportWriter.json(i == 0 ? json : json.append(','), violations.get(i));
+        }
+
+        return json.append("]}").toString();
+    }
+
+    private String label(final Map<String, List<String>> parameters)
+            throws
+            InterruptedException,
+            ExecutionException {
+
+        OSCOntology ontology = this.resident(parameters).loaded().ontology;
+        OSCLabelTable table = ontology.getLabelTable();
+        String iri = first(parameters, "iri");
+        StringBuilder json = new StringBuilder("{");
+
+        if (iri != null) {
+
+            OWLClass classe = ontology.getFactory().getOWLClass(IRI.create(iri));
+            json.append("\"iri\":");
+            OSCReportWriter.quote(json, iri);
+            json.append(",\"deprecated\":").append(table.isDeprecated(classe)).append(",\"labels\":{");
+            boolean first = true;
+            for (String language : table.getLanguages()) {
+
+                String label = table.getLabel(classe, language);
+                if (label != null) {
+
+                    OSCReportWriter.quote(first ? json : json.append(','), language).append(':');
+                    OSCReportWriter.quote(json, label);
+                    first = false;
+                }
+            }
+
+            return json.append("}}").toString();
+        }
+
+        String text = first(parameters, "text");
+        String language = first(parameters, "lang");
+        if (text == null || language == null) {
+
+            throw new Refused(400, "iri, or text and lang expected");
+        }
+
+        json.append("\"text\":");
+        OSCReportWriter.quote(json, text);
+        json.append(",\"lang\":");
+        OSCReportWriter.quote(json, language);
+        json.append(",\"classes\":[");
+        List<OWLClass> classes = table.classes(text, language);
+        for (int i = 0; i < classes.size(); i++) {
+
+            OSCReportWriter.quote(i == 0 ? json : json.append(','), classes.get(i).getIRI().toString());
+        }
+
+        return json.append("]}").toString();
+    }
+
+    private String status(final Map<String, List<String>> parameters) {
+
+        StringBuilder json = new StringBuilder("{\"ontologies\":[");
+        boolean first = true;
+        for (Resident resident : residents.values()) {
+
+            Loaded loaded = resident.current();
+            json.append(first ? "{\"path\":" : ",{\"path\":");
+            OSCReportWriter.quote(json, resident.path.toString());
+            json.append(",\"loaded\":").append(loaded != null)
+                    .append(",\"classes\":").append(loaded == null ? 0 : loaded.ontology.getClassIds().size())
+                    .append(",\"requests\":").append(resident.requests.get())
+                    .append(",\"batches\":").append(resident.batches.get())
+                    .append('}');
+            first = false;
+        }
+
+        return json.append("]}").toString();
+    }
+
+    private boolean isLocal(final String host) {
+
+        if (host == null) {
+
+            return false;
+        }
+
+        String port = ":" + this.getPort();
+        String name = host.endsWith(port) ? host.substring(0, host.length() - port.length()) : host;
+
+        return LOCAL_HOSTS.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Get the document named by the path parameter, if it is served: loaded
+     * with {@link #load(Path)}, or below the root directory.
+     */
+    private Path served(final Map<String, List<String>> parameters) {
+
+        String name = first(parameters, "path");
+        if (name == null) {
+
+            throw new Refused(400, "path expected");
+        }
+
+        Path path = Paths.get(name).toAbsolutePath().normalize();
+        if (documents.contains(path)) {
+
+            return path;
+        }
+        if (root != null) {
+
+            try {
+
+                // the real path, so that links cannot leave the root
+                if (path.toRealPath().startsWith(root)) {
+
+                    return path;
+                }
+            } catch (IOException e) {
+
+                throw new Refused(404, "no such document");
+            }
+        }
+
+        throw new Refused(403, "path not served");
+    }
+
+    /**
+     * Get the resident ontology named by the path parameter, without loading
+     * it.
+     */
+    private Resident resident(final Map<String, List<String>> parameters) {
+
+        Resident resident = residents.get(this.served(parameters));
+        if (resident == null) {
+
+            throw new Refused(404, "not loaded, POST /reload first");
+        }
+
+        return resident;
+    }
+
+    private static String first(final Map<String, List<String>> parameters, final String name) {
+
+        List<String> values = parameters.get(name);
+
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static Map<String, List<String>> parameters(final String query) {
+
+        Map<String, List<String>> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+
+            return parameters;
+        }
+
+        try {
+
+            for (String pair : query.split("&")) {
+
+                int equals = pair.indexOf('=');
+                String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), "UTF-8");
+                String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), "UTF-8");
+                parameters.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+            }
+        } catch (UnsupportedEncodingException e) {
+
+            throw new RuntimeException(e);
+        }
+
+        return parameters;
+    }
+
+    private static String error(final String message) {
+
+        return OSCReportWriter.quote(new StringBuilder("{\"error\":"), message).append('}').toString();
+    }
+
+    /**
+     * Serve the documents given as arguments, loaded at start. The port can be
+     * set with the system property <code>osc.port</code>, and a directory
+     * whose other documents can be loaded with <code>osc.root</code>.
+     *
+     * @param args
+     */
+    public static void main(final String[] args) {
+
+        String root = System.getProperty("osc.root");
+        OSCDaemon daemon = getInstance(OSCChecker.getInstance(),
+                OSCSnapshotCache.getDefaultInstance(),
+                Integer.getInteger("osc.port", PORT),
+                Runtime.getRuntime().availableProcessors(),
+                root == null ? null : Paths.get(root));
+
+        Arrays.stream(args).map(Paths::get).forEach(path -> daemon.load(path).join());
+        daemon.start();
+    }
+}
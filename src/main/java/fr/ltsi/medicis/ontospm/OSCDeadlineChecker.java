@@ -0,0 +1,237 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+/**
+ * Rule engine checking classes in priority order until a deadline, for
+ * pre-commit hooks where a full {@link OSCChecker#check(OSCOntology)} run is
+ * too slow.
+ *
+ * Classes are checked by {@link OSCCoverage.Tier}: first the changed classes
+ * given by the caller (e.g. {@link OSCDiff#changedClasses()}), then the other
+ * OntoSPM classes, then the other classes of the imports closure; each tier in
+ * IRI order. The annotations of the classes outside of the ontology signature
+ * are read from the whole closure. The deadline is tested against the clock
+ * of the checker before each class, so the run stops cleanly after the class
+ * being checked. The report lists the violations in check order and states
+ * its {@link OSCCoverage}; without deadline it has the same violations as a
+ * full run.
+ *
+ * @author javier
+ */
+public final class OSCDeadlineChecker {
+
+    private final OSCChecker checker;
+    private final Clock clock;
+
+    private OSCDeadlineChecker(final OSCChecker checker, final Clock clock) {
+
+        this.checker = checker;
+        this.clock = clock;
+    }
+
+    public static OSCDeadlineChecker getInstance(final OSCChecker checker) {
+
+        return getInstance(checker, Clock.systemUTC());
+    }
+
+    /**
+     * @param checker
+     * @param clock time source of the deadlines and of the elapsed time.
+     * @return
+     */
+    static OSCDeadlineChecker getInstance(final OSCChecker checker, final Clock clock) {
+
+        return new OSCDeadlineChecker(checker, clock);
+    }
+
+    /**
+     * @return a checker running all {@link OSCClassRules}.
+     */
+    public static OSCDeadlineChecker getInstance() {
+
+        return getInstance(OSCChecker.getInstance());
+    }
+
+    /**
+     * Check classes until a deadline.
+     *
+     * @param ontology
+     * @param changed IRIs of the classes to check first; IRIs that are not
+     * classes of the ontology are ignored.
+     * @param deadline
+     * @return the partial report.
+     */
+    public OSCReport check(final OSCOntology ontology, final Collection<IRI> changed, final Instant deadline) {
+
+        return this.check(ontology, changed, clock.instant(), deadline);
+    }
+
+    /**
+     * Check classes for a given time.
+     *
+     * @param ontology
+     * @param changed IRIs of the classes to check first; IRIs that are not
+     * classes of the ontology are ignored.
+     * @param budget
+     * @return the partial report.
+     */
+    public OSCReport check(final OSCOntology ontology, final Collection<IRI> changed, final Duration budget) {
+
+        Instant start = clock.instant();
+        Instant deadline;
+        try {
+
+            deadline = start.plus(budget);
+        } catch (DateTimeException | ArithmeticException e) {
+
+            deadline = Instant.MAX;
+        }
+
+        return this.check(ontology, changed, start, deadline);
+    }
+
+    private OSCReport check(final OSCOntology ontology, final Collection<IRI> changed, final Instant start, final Instant deadline) {
+
+        OSCMetrics.Probe probe = OSCMetrics.getInstance().start("check:deadline");
+
+        OWLClass[][] tiers = tiers(ontology, changed);
+        long[] total = new long[tiers.length];
+        long[] checked = new long[tiers.length];
+        List<OSCViolation> violations = new ArrayList<>();
+
+        for (int t = 0; t < tiers.length; t++) {
+
+            total[t] = tiers[t].length;
+        }
+
+        check:
+        for (int t = 0; t < tiers.length; t++) {
+
+            for (OWLClass classe : tiers[t]) {
+
+                if (!clock.instant().isBefore(deadline)) {
+
+                    break check;
+                }
+                checker.check(ontology.getOntology().containsClassInSignature(classe.getIRI())
+                        ? ontology.snapshot(classe)
+                        : snapshot(ontology.getOntology(), classe), violations);
+                checked[t]++;
+            }
+        }
+
+        OSCCoverage coverage = OSCCoverage.getInstance(checked, total, Duration.between(start, clock.instant()).toNanos());
+        probe.stop(coverage.getChecked());
+
+        return OSCReport.getInstance(violations, coverage);
+    }
+
+    /**
+     * Fetch the annotations of an imported class from the imports closure of
+     * an ontology.
+     */
+    private static OSCClassSnapshot snapshot(final OWLOntology ontology, final OWLClass classe) {
+
+        Map<IRI, List<OWLAnnotationValue>> annotations = ontology.importsClosure()
+                .flatMap(o -> o.annotationAssertionAxioms(classe.getIRI()))
+                .collect(Collectors.groupingBy(a -> a.getProperty().getIRI(),
+                        Collectors.mapping(a -> a.getAnnotation().getValue(), Collectors.toList())));
+
+        return OSCClassSnapshot.getInstance(classe, annotations);
+    }
+
+    /**
+     * Split the classes of an ontology and of its imports closure in priority
+     * tiers.
+     *
+     * @param ontology
+     * @param changed
+     * @return classes in IRI order, indexed by tier ordinal.
+     */
+    private static OWLClass[][] tiers(final OSCOntology ontology, final Collection<IRI> changed) {
+
+        Set<IRI> first = new HashSet<>(changed);
+        List<List<OWLClass>> tiers = new ArrayList<>();
+        for (int t = 0; t < OSCCoverage.Tier.values().length; t++) {
+
+            tiers.add(new ArrayList<>());
+        }
+
+        // classes of the imports closure in IRI order, as the cached views
+        ontology.getOntology().classesInSignature(Imports.INCLUDED)
+                .sorted(Comparator.comparing(c -> c.getIRI().toString()))
+                .forEach(classe -> {
+
+                    OSCCoverage.Tier tier;
+                    if (first.contains(classe.getIRI())) {
+
+                        tier = OSCCoverage.Tier.CHANGED;
+                    } else if (OSCOntology.NAMESPACE.equals(classe.getIRI().getNamespace())) {
+
+                        tier = OSCCoverage.Tier.ONTOSPM;
+                    } else {
+
+                        tier = OSCCoverage.Tier.IMPORTED;
+                    }
+                    tiers.get(tier.ordinal()).add(classe);
+                });
+
+        return tiers.stream()
+                .map(l -> l.toArray(new OWLClass[l.size()]))
+                .toArray(OWLClass[][]::new);
+    }
+
+    /**
+     * Check an ontology file for a pre-commit hook and print the violations
+     * found before the deadline, then the coverage. The budget of the checks,
+     * in milliseconds once the ontology is loaded, can be set with the system
+     * property <code>osc.deadline</code> (2000 by default). The exit status
+     * is 1 if an error was found.
+     *
+     * @param args the ontology file, then the IRIs (or OntoSPM local names)
+     * of the changed classes.
+     */
+    public static void main(final String[] args) {
+
+        if (args.length == 0) {
+
+            throw new IllegalArgumentException("usage: OSCDeadlineChecker <ontology.owl> [changed class...]");
+        }
+
+        Duration budget = Duration.ofMillis(Long.getLong("osc.deadline", 2000));
+        OSCManager manager = OSCManager.getInstance(Paths.get(args[0]));
+        List<IRI> changed = Arrays.stream(args, 1, args.length)
+                .map(a -> IRI.create(a.contains(":") ? a : OSCOntology.NAMESPACE + a))
+                .collect(Collectors.toList());
+
+        OSCReport report = getInstance()
+                .check(OSCOntology.getInstance(manager.getOntology(), manager.getFactory()), changed, budget);
+
+        report.violations().forEach(System.out::println);
+        System.out.println("# " + report.getCoverage());
+
+        if (report.violations().anyMatch(v -> v.getSeverity() == OSCSeverity.ERROR)) {
+
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Classes added, removed and modified between two versions of an ontology.
+ *
+ * Each version is reduced to a table of class {@link OSCFingerprint}s,
+ * computed in parallel; the two tables, ordered by IRI, are merged to find
+ * the changes. Axioms are compared only for the modified classes, and only
+ * when asked for, so the diff of two releases that differ by a few classes
+ * costs about two fingerprint passes.
+ *
+ * @author javier
+ */
+public final class OSCDiff {
+
+    /**
+     * Kind of change of a class.
+     */
+    public enum Kind {
+
+        ADDED,
+        REMOVED,
+        MODIFIED
+    }
+
+    private final OSCOntology before;
+    private final OSCOntology after;
+    private final List<Change> changes;
+
+    private OSCDiff(final OSCOntology before, final OSCOntology after, final List<Change> changes) {
+
+        this.before = before;
+        this.after = after;
+        this.changes = changes;
+    }
+
+    /**
+     * Compare two versions, computing their fingerprints in a pool.
+     *
+     * @param before
+     * @param after
+     * @param pool
+     * @return
+     */
+    public static OSCDiff getInstance(final OSCOntology before, final OSCOntology after, final ForkJoinPool pool) {
+
+        OSCMetrics.Probe probe = OSCMetrics.getInstance().start("diff");
+        OWLClass[] classes1 = before.getView(OSCClassViews.ALL).toArray();
+        OWLClass[] classes2 = after.getView(OSCClassViews.ALL).toArray();
+        long[] fingerprints1 = fingerprints(before.getOntology(), classes1, pool);
+        long[] fingerprints2 = fingerprints(after.getOntology(), classes2, pool);
+
+        List<Change> changes = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < classes1.length || j < classes2.length) {
+
+            int order = i == classes1.length ? 1
+                    : j == classes2.length ? -1
+                    : classes1[i].getIRI().toString().compareTo(classes2[j].getIRI().toString());
+
+            if (order < 0) {
+
+                changes.add(new Change(classes1[i++], Kind.REMOVED));
+            } else if (order > 0) {
+
+                changes.add(new Change(classes2[j++], Kind.ADDED));
+            } else {
+
+                if (fingerprints1[i] != fingerprints2[j]) {
+
+                    changes.add(new Change(classes2[j], Kind.MODIFIED));
+                }
+                i++;
+                j++;
+            }
+        }
+        probe.stop(classes1.length + classes2.length);
+
+        return new OSCDiff(before, after, Collections.unmodifiableList(changes));
+    }
+
+    /**
+     * Compare two versions, computing their fingerprints in the common pool.
+     *
+     * @param before
+     * @param after
+     * @return
+     */
+    public static OSCDiff getInstance(final OSCOntology before, final OSCOntology after) {
+
+        return getInstance(before, after, ForkJoinPool.commonPool());
+    }
+
+    private static long[] fingerprints(final OWLOntology ontology, final OWLClass[] classes, final ForkJoinPool pool) {
+
+        long[] result = new long[classes.length];
+        pool.submit(() -> IntStream.range(0, classes.length).parallel()
+                .forEach(i -> result[i] = OSCFingerprint.of(ontology, classes[i])))
+                .join();
+
+        return result;
+    }
+
+    public OSCOntology getBefore() {
+
+        return before;
+    }
+
+    public OSCOntology getAfter() {
+
+        return after;
+    }
+
+    /**
+     * @return changes, ordered by class IRI.
+     */
+    public List<Change> getChanges() {
+
+        return changes;
+    }
+
+    public Stream<Change> changes(final Kind kind) {
+
+        return changes.stream().filter(c -> c.kind == kind);
+    }
+
+    public boolean isEmpty() {
+
+        return changes.isEmpty();
+    }
+
+    /**
+     * @return classes of the new version that are added or modified: the
+     * classes to check again.
+     */
+    public Stream<OWLClass> changedClasses() {
+
+        return changes.stream()
+                .filter(c -> c.kind != Kind.REMOVED)
+                .map(Change::getOWLClass);
+    }
+
+    /**
+     * Check only the added and modified classes of the new version.
+     *
+     * @param checker
+     * @return the report; violations are ordered by class
+     * {@link org.semanticweb.owlapi.model.IRI}, then by rule.
+     */
+    public OSCReport check(final OSCChecker checker) {
+
+        List<OSCViolation> violations = new ArrayList<>();
+        List<OWLClass> classes = this.changedClasses().collect(Collectors.toList());
+        for (OWLClass classe : classes) {
+
+            checker.check(after.snapshot(classe), violations);
+        }
+
+        return OSCReport.getInstance(violations, classes.size());
+    }
+
+    /**
+     * @param change
+     * @return axioms describing the class in the new version only, sorted.
+     */
+    public List<OWLAxiom> addedAxioms(final Change change) {
+
+        return difference(change, after, before);
+    }
+
+    /**
+     * @param change
+     * @return axioms describing the class in the old version only, sorted.
+     */
+    public List<OWLAxiom> removedAxioms(final Change change) {
+
+        return difference(change, before, after);
+    }
+
+    private static List<OWLAxiom> difference(final Change change, final OSCOntology source, final OSCOntology other) {
+
+        Set<OWLAxiom> excluded = OSCFingerprint.axioms(other.getOntology(), change.classe)
+                .collect(Collectors.toSet());
+
+        return OSCFingerprint.axioms(source.getOntology(), change.classe)
+                .filter(a -> !excluded.contains(a))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Print the changes as release notes: one line per class, with its
+     * English preferred label, and the changed axioms of modified classes.
+     *
+     * @param out
+     */
+    public void print(final PrintStream out) {
+
+        for (Kind kind : Kind.values()) {
+
+            List<Change> selected = this.changes(kind).collect(Collectors.toList());
+            out.println(kind.name().charAt(0) + kind.name().substring(1).toLowerCase(Locale.ROOT) + " classes: " + selected.size());
+
+            for (Change change : selected) {
+
+                OSCOntology version = kind == Kind.REMOVED ? before : after;
+                String label = version.getPreferredLabel(change.classe, "en");
+                out.println("  " + change.getIRI() + (label == null ? "" : " (" + label + ")"));
+
+                if (kind == Kind.MODIFIED) {
+
+                    this.removedAxioms(change).forEach(a -> out.println("    - " + a));
+                    this.addedAxioms(change).forEach(a -> out.println("    + " + a));
+                }
+            }
+        }
+    }
+
+    /**
+     * Print the release notes between two ontology files.
+     *
+     * @param args old and new version.
+     */
+    public static void main(final String[] args) {
+
+        if (args.length != 2) {
+
+            throw new IllegalArgumentException("usage: OSCDiff <old.owl> <new.owl>");
+        }
+
+        OSCManager manager1 = OSCManager.getInstance(Paths.get(args[0]));
+        OSCManager manager2 = OSCManager.getInstance(Paths.get(args[1]));
+
+        getInstance(OSCOntology.getInstance(manager1.getOntology(), manager1.getFactory(), true),
+                OSCOntology.getInstance(manager2.getOntology(), manager2.getFactory(), true))
+                .print(System.out);
+    }
+
+    /**
+     * Change of one class.
+     */
+    public static final class Change {
+
+        private final OWLClass classe;
+        private final Kind kind;
+
+        private Change(final OWLClass classe, final Kind kind) {
+
+            this.classe = classe;
+            this.kind = kind;
+        }
+
+        public OWLClass getOWLClass() {
+
+            return classe;
+        }
+
+        public IRI getIRI() {
+
+            return classe.getIRI();
+        }
+
+        public Kind getKind() {
+
+            return kind;
+        }
+
+        @Override
+        public String toString() {
+
+            return kind + " " + classe.getIRI();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Content fingerprints of axioms and entities.
+ *
+ * The fingerprint of an axiom is a 64-bit FNV-1a hash of its functional
+ * syntax rendering, so it is stable across runs and JVMs. The fingerprint of
+ * an entity combines the fingerprints of the axioms referencing it and of its
+ * annotation assertions with a sum, so it does not depend on the iteration
+ * order of the ontology.
+ *
+ * @author javier
+ */
+public final class OSCFingerprint {
+
+    private static final long OFFSET = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private OSCFingerprint() {
+    }
+
+    public static long of(final OWLAxiom axiom) {
+
+        long hash = OFFSET;
+        for (byte b : axiom.toString().getBytes(StandardCharsets.UTF_8)) {
+
+            hash ^= b & 0xff;
+            hash *= PRIME;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Get the fingerprint of an entity.
+     *
+     * @param ontology
+     * @param entity
+     * @return
+     */
+    public static long of(final OWLOntology ontology, final OWLEntity entity) {
+
+        return axioms(ontology, entity)
+                .mapToLong(OSCFingerprint::of)
+                .sum();
+    }
+
+    /**
+     * Get the fingerprint of the logical content of an ontology: its logical
+     * and declaration axioms and the ones of its imports closure. Annotations
+     * do not change it.
+     *
+     * @param ontology
+     * @return
+     */
+    public static long ofLogicalAxioms(final OWLOntology ontology) {
+
+        return ontology.importsClosure()
+                .flatMap(OWLOntology::axioms)
+                .filter(a -> a.isLogicalAxiom() || a.isOfType(AxiomType.DECLARATION))
+                .distinct()
+                .mapToLong(OSCFingerprint::of)
+                .sum();
+    }
+
+    /**
+     * Get the axioms describing an entity: axioms referencing it and its
+     * annotation assertions.
+     *
+     * @param ontology
+     * @param entity
+     * @return {@link java.util.stream.Stream} of distinct
+     * {@link org.semanticweb.owlapi.model.OWLAxiom}
+     */
+    public static Stream<OWLAxiom> axioms(final OWLOntology ontology, final OWLEntity entity) {
+
+        return Stream.concat(
+                ontology.referencingAxioms(entity),
+                ontology.annotationAssertionAxioms(entity.getIRI()))
+                .distinct();
+    }
+}
@@ -0,0 +1,322 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Asserted class hierarchy with its transitive closure.
+ *
+ * The hierarchy is built from the <code>SubClassOf</code> axioms between named
+ * classes, stored as arrays of {@link OSCClassIds} identifiers. Ancestors and
+ * descendants are searched on demand rather than stored per class, which
+ * would take memory quadratic in the number of classes. Classes are ranked in
+ * topological order once, so the search for an ancestor never expands the
+ * classes ranked above it.
+ *
+ * @author javier
+ */
+public final class OSCHierarchy {
+
+    private static final int[] NONE = new int[0];
+
+    private final OSCClassIds ids;
+    private final int[][] parents;
+    private final int[][] children;
+    private final int[] rank;
+
+    private OSCHierarchy(final OSCClassIds ids, final int[][] parents, final int[][] children, final int[] rank) {
+
+        this.ids = ids;
+        this.parents = parents;
+        this.children = children;
+        this.rank = rank;
+    }
+
+    /**
+     * Build the hierarchy of an ontology.
+     *
+     * @param ontology
+     * @param ids identifiers of the classes of the ontology.
+     * @return
+     */
+    static OSCHierarchy getInstance(final OWLOntology ontology, final OSCClassIds ids) {
+
+        int size = ids.size();
+        List<List<Integer>> up = new ArrayList<>(size);
+        List<List<Integer>> down = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+
+            up.add(new ArrayList<>(2));
+            down.add(new ArrayList<>(2));
+        }
+
+        ontology.axioms(AxiomType.SUBCLASS_OF)
+                .filter(a -> !a.getSubClass().isAnonymous() && !a.getSuperClass().isAnonymous())
+                .forEach(a -> {
+
+                    int sub = ids.getId(a.getSubClass().asOWLClass());
+                    int sup = ids.getId(a.getSuperClass().asOWLClass());
+                    if (sub >= 0 && sup >= 0 && sub != sup && !up.get(sub).contains(sup)) {
+
+                        up.get(sub).add(sup);
+                        down.get(sup).add(sub);
+                    }
+                });
+
+        int[][] parents = new int[size][];
+        int[][] children = new int[size][];
+        for (int i = 0; i < size; i++) {
+
+            parents[i] = toArray(up.get(i));
+            children[i] = toArray(down.get(i));
+        }
+
+        return new OSCHierarchy(ids, parents, children, ranks(parents));
+    }
+
+    private static int[] toArray(final List<Integer> list) {
+
+        return list.isEmpty() ? NONE : list.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Rank the classes in topological order, ancestors first: the rank of a
+     * class is the number of its strongly connected component in the order
+     * found by Tarjan's algorithm, so the classes of a cycle share their rank
+     * and a strict ancestor outside of the cycle has a lower rank.
+     */
+    private static int[] ranks(final int[][] parents) {
+
+        int size = parents.length;
+        int[] index = new int[size];
+        int[] low = new int[size];
+        int[] rank = new int[size];
+        boolean[] open = new boolean[size];
+        int[] components = new int[size];
+        int[] stack = new int[size];
+        int[] next = new int[size];
+        int counter = 0;
+        int count = 0;
+        int pending = 0;
+
+        Arrays.fill(index, -1);
+        for (int root = 0; root < size; root++) {
+
+            if (index[root] >= 0) {
+
+                continue;
+            }
+
+            int top = 0;
+            stack[top] = root;
+            next[top] = 0;
+            index[root] = low[root] = counter++;
+            components[pending++] = root;
+            open[root] = true;
+            while (top >= 0) {
+
+                int node = stack[top];
+                if (next[top] < parents[node].length) {
+
+                    int parent = parents[node][next[top]++];
+                    if (index[parent] < 0) {
+
+                        index[parent] = low[parent] = counter++;
+                        components[pending++] = parent;
+                        open[parent] = true;
+                        top++;
+                        stack[top] = parent;
+                        next[top] = 0;
+                    } else if (open[parent]) {
+
+                        low[node] = Math.min(low[node], index[parent]);
+                    }
+                } else {
+
+                    if (low[node] == index[node]) {
+
+                        int member;
+                        do {
+
+                            member = components[--pending];
+                            open[member] = false;
+                            rank[member] = count;
+                        } while (member != node);
+                        count++;
+                    }
+                    top--;
+                    if (top >= 0) {
+
+                        low[stack[top]] = Math.min(low[stack[top]], low[node]);
+                    }
+                }
+            }
+        }
+
+        return rank;
+    }
+
+    /**
+     * Search the classes reachable from a class through a relation,
+     * depth-first, without expanding the classes ranked below a bound.
+     *
+     * @return true as soon as a reached class matches the predicate.
+     */
+    private boolean search(final int id, final int[][] relation, final int bound, final IntPredicate predicate) {
+
+        BitSet visited = new BitSet();
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = id;
+        while (top > 0) {
+
+            int node = stack[--top];
+            for (int other : relation[node]) {
+
+                if (rank[other] >= bound && !visited.get(other)) {
+
+                    visited.set(other);
+                    if (predicate.test(other)) {
+
+                        return true;
+                    }
+                    if (top == stack.length) {
+
+                        stack = Arrays.copyOf(stack, 2 * top);
+                    }
+                    stack[top++] = other;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private BitSet reachable(final int id, final int[][] relation) {
+
+        BitSet result = new BitSet();
+        this.search(id, relation, Integer.MIN_VALUE, i -> {
+
+            result.set(i);
+            return false;
+        });
+        result.clear(id);
+
+        return result;
+    }
+
+    public OSCClassIds getClassIds() {
+
+        return ids;
+    }
+
+    /**
+     * Test whether a class is a strict descendant of another class.
+     *
+     * @param classe
+     * @param ancestor
+     * @return
+     */
+    public boolean isDescendant(final OWLClass classe, final OWLClass ancestor) {
+
+        int id = ids.getId(classe);
+        int other = ids.getId(ancestor);
+
+        return id >= 0 && other >= 0 && this.isDescendant(id, other);
+    }
+
+    public boolean isDescendant(final int id, final int ancestor) {
+
+        return id != ancestor && rank[ancestor] <= rank[id]
+                && this.search(id, parents, rank[ancestor], i -> i == ancestor);
+    }
+
+    /**
+     * Test whether a class is a strict descendant of any of some classes.
+     *
+     * @param classe
+     * @param ancestors identifiers of the ancestors, see
+     * {@link #toBitSet(java.util.stream.Stream)}.
+     * @return
+     */
+    public boolean isDescendant(final OWLClass classe, final BitSet ancestors) {
+
+        int id = ids.getId(classe);
+
+        return id >= 0 && this.search(id, parents, Integer.MIN_VALUE, i -> i != id && ancestors.get(i));
+    }
+
+    /**
+     * @param classes
+     * @return identifiers of the known classes.
+     */
+    public BitSet toBitSet(final Stream<OWLClass> classes) {
+
+        BitSet result = new BitSet(ids.size());
+        classes.mapToInt(ids::getId)
+                .filter(id -> id >= 0)
+                .forEach(result::set);
+
+        return result;
+    }
+
+    /**
+     * @param classe
+     * @return asserted named super classes.
+     */
+    public Stream<OWLClass> superClasses(final OWLClass classe) {
+
+        return this.classes(parents, classe);
+    }
+
+    /**
+     * @param classe
+     * @return asserted named sub classes.
+     */
+    public Stream<OWLClass> subClasses(final OWLClass classe) {
+
+        return this.classes(children, classe);
+    }
+
+    /**
+     * @param classe
+     * @return strict ancestors, ordered by identifier.
+     */
+    public Stream<OWLClass> ancestors(final OWLClass classe) {
+
+        int id = ids.getId(classe);
+
+        return id < 0
+                ? Stream.empty()
+                : this.reachable(id, parents).stream().mapToObj(ids::getOWLClass);
+    }
+
+    /**
+     * @param classe
+     * @return strict descendants, ordered by identifier.
+     */
+    public Stream<OWLClass> descendants(final OWLClass classe) {
+
+        int id = ids.getId(classe);
+
+        return id < 0
+                ? Stream.empty()
+                : this.reachable(id, children).stream().mapToObj(ids::getOWLClass);
+    }
+
+    private Stream<OWLClass> classes(final int[][] relation, final OWLClass classe) {
+
+        int id = ids.getId(classe);
+
+        return id < 0
+                ? Stream.empty()
+                : Arrays.stream(relation[id]).mapToObj(ids::getOWLClass);
+    }
+}
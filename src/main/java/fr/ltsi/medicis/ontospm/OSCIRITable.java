@@ -0,0 +1,65 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * Intern table of {@link org.semanticweb.owlapi.model.IRI} objects.
+ *
+ * A table holds one IRI object per distinct IRI string of the working set of a
+ * check run, so repeated IRIs are neither parsed nor allocated again. Tables
+ * are thread-safe; they are meant to live as long as the run, not globally.
+ *
+ * @author javier
+ */
+public final class OSCIRITable {
+
+    private final ConcurrentMap<String, IRI> table;
+
+    private OSCIRITable(final int capacity) {
+
+        this.table = new ConcurrentHashMap<>(capacity);
+    }
+
+    public static OSCIRITable getInstance() {
+
+        return getInstance(256);
+    }
+
+    public static OSCIRITable getInstance(final int capacity) {
+
+        return new OSCIRITable(capacity);
+    }
+
+    /**
+     * Get the interned IRI of a string.
+     *
+     * @param iri
+     * @return
+     */
+    public IRI intern(final String iri) {
+
+        IRI result = table.get(iri);
+
+        return result != null ? result : table.computeIfAbsent(iri, IRI::create);
+    }
+
+    /**
+     * Get the interned instance of an IRI.
+     *
+     * @param iri
+     * @return
+     */
+    public IRI intern(final IRI iri) {
+
+        IRI result = table.putIfAbsent(iri.toString(), iri);
+
+        return result != null ? result : iri;
+    }
+
+    public int size() {
+
+        return table.size();
+    }
+}
@@ -0,0 +1,165 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+/**
+ * Rule engine re-checking only the classes changed since the previous run.
+ *
+ * The checker keeps the axioms and the violations of the last checked
+ * version. On the next version, the axioms added or removed since are
+ * compared with this set, and the classes they reference, or annotate, are
+ * checked again with their descendants; new classes are checked too, the
+ * other classes keep their previous result. The cost of a run is one pass
+ * over the axioms plus the checks of the changed classes. The merged report
+ * is the same as a full {@link OSCChecker#check(OSCOntology)} run.
+ *
+ * Instances are not thread-safe.
+ *
+ * @author javier
+ */
+public class OSCIncrementalChecker {
+
+    private final OSCChecker checker;
+    private Set<OWLAxiom> axioms = Collections.emptySet();
+    private Map<IRI, List<OSCViolation>> results = Collections.emptyMap();
+    private Set<IRI> checked = Collections.emptySet();
+
+    private OSCIncrementalChecker(final OSCChecker checker) {
+
+        this.checker = checker;
+    }
+
+    public static OSCIncrementalChecker getInstance(final OSCChecker checker) {
+
+        return new OSCIncrementalChecker(checker);
+    }
+
+    /**
+     * Check a new version of the ontology.
+     *
+     * The first call checks every class.
+     *
+     * @param ontology
+     * @return the merged report, ordered as the reports of
+     * {@link OSCChecker}.
+     */
+    public OSCReport check(final OSCOntology ontology) {
+
+        OWLOntology o = ontology.getOntology();
+        OWLClass[] classes = ontology.classes()
+                .sorted(Comparator.comparing(c -> c.getIRI().toString()))
+                .toArray(OWLClass[]::new);
+
+        // classes described by the axioms added or removed since the last run
+        Set<OWLAxiom> current = o.axioms().collect(Collectors.toCollection(HashSet::new));
+        Set<OWLClass> changed = new HashSet<>();
+        for (OWLAxiom axiom : current) {
+
+            if (!axioms.contains(axiom)) {
+
+                changed(ontology.getFactory(), axiom, changed);
+            }
+        }
+        for (OWLAxiom axiom : axioms) {
+
+            if (!current.contains(axiom)) {
+
+                changed(ontology.getFactory(), axiom, changed);
+            }
+        }
+
+        Set<OWLClass> dirty = descendants(o, changed);
+        Map<IRI, List<OSCViolation>> merged = new HashMap<>(classes.length * 4 / 3 + 1);
+        Set<IRI> rechecked = new HashSet<>();
+        List<OSCViolation> violations = new ArrayList<>();
+
+        for (OWLClass classe : classes) {
+
+            List<OSCViolation> result = results.get(classe.getIRI());
+            if (result == null || dirty.contains(classe)) {
+
+                result = new ArrayList<>(0);
+                checker.check(ontology.snapshot(classe), result);
+                rechecked.add(classe.getIRI());
+            }
+            merged.put(classe.getIRI(), result);
+            violations.addAll(result);
+        }
+
+        axioms = current;
+        results = merged;
+        checked = Collections.unmodifiableSet(rechecked);
+
+        return OSCReport.getInstance(violations, classes.length);
+    }
+
+    /**
+     * @return IRIs of the classes actually checked by the last run.
+     */
+    public Set<IRI> getChecked() {
+
+        return checked;
+    }
+
+    /**
+     * Add the classes described by an axiom, as in
+     * {@link OSCFingerprint#axioms}: the classes it references, and the
+     * subject of an annotation assertion.
+     *
+     * @param factory
+     * @param axiom
+     * @param changed
+     */
+    private static void changed(final OWLDataFactory factory, final OWLAxiom axiom, final Set<OWLClass> changed) {
+
+        axiom.classesInSignature().forEach(changed::add);
+        if (axiom instanceof OWLAnnotationAssertionAxiom) {
+
+            ((OWLAnnotationAssertionAxiom) axiom).getSubject().asIRI()
+                    .ifPresent(iri -> changed.add(factory.getOWLClass(iri)));
+        }
+    }
+
+    /**
+     * Get the changed classes and all their asserted descendants.
+     *
+     * @param ontology
+     * @param changed
+     * @return
+     */
+    private static Set<OWLClass> descendants(final OWLOntology ontology, final Set<OWLClass> changed) {
+
+        Set<OWLClass> result = new HashSet<>(changed);
+        Deque<OWLClass> queue = new ArrayDeque<>(changed);
+
+        while (!queue.isEmpty()) {
+
+            ontology.subClassAxiomsForSuperClass(queue.pop())
+                    .map(OWLSubClassOfAxiom::getSubClass)
+                    .filter(c -> !c.isAnonymous())
+                    .map(OWLClassExpression::asOWLClass)
+                    .filter(result::add)
+                    .forEach(queue::push);
+        }
+
+        return result;
+    }
+}
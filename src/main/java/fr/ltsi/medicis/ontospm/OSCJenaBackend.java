@@ -0,0 +1,415 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.ClassExpressionType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+
+/**
+ * {@link OSCBackend} over the triples of an ontology document, held by a Jena
+ * dataset: in memory, or on disk in a TDB store for ontologies too big for
+ * the heap.
+ *
+ * Classes are found as in {@link OSCStreamingChecker} and annotations are
+ * kept as in {@link OSCCompactModel}, so the rules give the same results as
+ * with {@link OSCOWLAPIBackend}. Only the IRIs of the classes are kept in the
+ * heap; every other query reads the store in a read transaction, and its
+ * answer is materialised before the transaction ends.
+ *
+ * @author javier
+ */
+public final class OSCJenaBackend implements OSCBackend {
+
+    private static final Node PREFERRED_LABEL = NodeFactory.createURI(SKOSVocabulary.PREFLABEL.getIRI().toString());
+    // digest of the document held by a TDB store, in a graph of its own
+    private static final String SOURCE = "urn:fr.ltsi.medicis.ontospm:source";
+    private static final Resource DOCUMENT = ResourceFactory.createResource(SOURCE);
+    private static final Property DIGEST = ResourceFactory.createProperty(SOURCE + "#digest");
+
+    private final String name;
+    private final Dataset dataset;
+    private final Consumer<Dataset> release;
+    private final OWLDataFactory factory = OWLManager.getOWLDataFactory();
+    private final String[] iris;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private OSCJenaBackend(final String name, final Dataset dataset, final Consumer<Dataset> release) {
+
+        this.name = name;
+        this.dataset = dataset;
+        this.release = release;
+        this.iris = Txn.calculateRead(dataset, () -> classes(this.graph()));
+    }
+
+    /**
+     * Read an ontology document in an in-memory dataset.
+     *
+     * @param path
+     * @return
+     */
+    public static OSCJenaBackend getInstance(final Path path) {
+
+        Dataset dataset = DatasetFactory.createTxnMem();
+        Txn.executeWrite(dataset, () -> RDFDataMgr.read(dataset.getDefaultModel(), path.toUri().toString()));
+
+        return new OSCJenaBackend("jena", dataset, Dataset::close);
+    }
+
+    /**
+     * Open the TDB store of a directory, holding an ontology document.
+     *
+     * The store keeps the SHA-256 digest of the document it was filled from
+     * (see {@link OSCSnapshotCache#digest}). When the document exists and its
+     * digest differs, e.g. it was edited, or the store is empty, the store is
+     * emptied and the document read again; otherwise the store is used
+     * without parsing the document. A missing document leaves a filled store
+     * as is.
+     *
+     * @param path
+     * @param directory
+     * @return
+     */
+    public static OSCJenaBackend getInstance(final Path path, final Path directory) {
+
+        Dataset dataset = TDBFactory.createDataset(directory.toString());
+        String digest = Files.isRegularFile(path) ? OSCSnapshotCache.digest(path, "tdb") : null;
+        boolean stale = Txn.calculateRead(dataset, () -> dataset.getDefaultModel().isEmpty()
+                || digest != null && !digest.equals(digest(dataset)));
+
+        if (stale) {
+
+            Txn.executeWrite(dataset, () -> {
+
+                Model model = dataset.getDefaultModel();
+                model.removeAll();
+                RDFDataMgr.read(model, path.toUri().toString());
+                Model source = dataset.getNamedModel(SOURCE);
+                source.removeAll();
+                source.add(DOCUMENT, DIGEST, digest == null ? "" : digest);
+            });
+        }
+
+        return new OSCJenaBackend("tdb", dataset, TDBFactory::release);
+    }
+
+    /**
+     * @param dataset
+     * @return digest of the document held by a store, or null.
+     */
+    private static String digest(final Dataset dataset) {
+
+        Statement statement = dataset.getNamedModel(SOURCE).getProperty(DOCUMENT, DIGEST);
+
+        return statement == null ? null : statement.getString();
+    }
+
+    @Override
+    public String getName() {
+
+        return name;
+    }
+
+    @Override
+    public OWLDataFactory getFactory() {
+
+        return factory;
+    }
+
+    public int size() {
+
+        return iris.length;
+    }
+
+    @Override
+    public Stream<OWLClass> classes() {
+
+        return Arrays.stream(iris).map(iri -> factory.getOWLClass(IRI.create(iri)));
+    }
+
+    @Override
+    public OSCClassSnapshot snapshot(final OWLClass classe) {
+
+        Map<IRI, List<OWLAnnotationValue>> annotations = new HashMap<>(8);
+        Txn.executeRead(dataset, () -> this.graph().find(node(classe), Node.ANY, Node.ANY).forEachRemaining(t -> {
+
+            String predicate = t.getPredicate().getURI();
+            OWLAnnotationValue value = OSCCompactModel.isAnnotation(predicate) ? this.value(t.getObject()) : null;
+            if (value != null) {
+
+                annotations.computeIfAbsent(IRI.create(predicate), k -> new ArrayList<>(3)).add(value);
+            }
+        }));
+
+        return OSCClassSnapshot.getInstance(classe, annotations);
+    }
+
+    @Override
+    public String getPreferredLabel(final OWLClass classe, final String language) {
+
+        return Txn.calculateRead(dataset, () -> {
+
+            ExtendedIterator<Triple> triples = this.graph().find(node(classe), PREFERRED_LABEL, Node.ANY);
+            try {
+
+                while (triples.hasNext()) {
+
+                    Node label = triples.next().getObject();
+                    if (label.isLiteral() && language.equalsIgnoreCase(label.getLiteralLanguage())) {
+
+                        return label.getLiteralLexicalForm();
+                    }
+                }
+
+                return null;
+            } finally {
+
+                triples.close();
+            }
+        });
+    }
+
+    @Override
+    public Stream<OWLClass> superClasses(final OWLClass classe) {
+
+        List<String> parents = new ArrayList<>(2);
+        Txn.executeRead(dataset, () -> this.graph().find(node(classe), RDFS.subClassOf.asNode(), Node.ANY).forEachRemaining(t -> {
+
+            Node parent = t.getObject();
+            if (parent.isURI() && Arrays.binarySearch(iris, parent.getURI()) >= 0) {
+
+                parents.add(parent.getURI());
+            }
+        }));
+
+        return parents.stream().sorted().distinct().map(iri -> factory.getOWLClass(IRI.create(iri)));
+    }
+
+    @Override
+    public Stream<OSCRestriction> restrictions(final OWLClass classe) {
+
+        Set<OSCRestriction> result = new LinkedHashSet<>();
+        Txn.executeRead(dataset, () -> {
+
+            Graph graph = this.graph();
+            Node node = node(classe);
+            graph.find(node, RDFS.subClassOf.asNode(), Node.ANY)
+                    .forEachRemaining(t -> this.restrictions(graph, classe, t.getObject(), AxiomType.SUBCLASS_OF, result));
+            graph.find(node, OWL2.equivalentClass.asNode(), Node.ANY)
+                    .forEachRemaining(t -> this.restrictions(graph, classe, t.getObject(), AxiomType.EQUIVALENT_CLASSES, result));
+            graph.find(Node.ANY, OWL2.equivalentClass.asNode(), node)
+                    .forEachRemaining(t -> this.restrictions(graph, classe, t.getSubject(), AxiomType.EQUIVALENT_CLASSES, result));
+        });
+
+        return result.stream();
+    }
+
+    /**
+     * Close the dataset, once; a TDB store stays on disk and can be opened
+     * again.
+     */
+    @Override
+    public void close() {
+
+        if (closed.compareAndSet(false, true)) {
+
+            release.accept(dataset);
+        }
+    }
+
+    private Graph graph() {
+
+        return dataset.asDatasetGraph().getDefaultGraph();
+    }
+
+    private static Node node(final OWLClass classe) {
+
+        return NodeFactory.createURI(classe.getIRI().toString());
+    }
+
+    private static String[] classes(final Graph graph) {
+
+        Set<String> result = new HashSet<>();
+        graph.find(Node.ANY, RDF.type.asNode(), OWL2.Class.asNode()).forEachRemaining(t -> {
+
+            if (t.getSubject().isURI()) {
+
+                result.add(t.getSubject().getURI());
+            }
+        });
+        OSCStreamingChecker.AXIOMS.forEach(p -> graph.find(Node.ANY, NodeFactory.createURI(p), Node.ANY).forEachRemaining(t -> {
+
+            if (t.getSubject().isURI()) {
+
+                result.add(t.getSubject().getURI());
+            }
+        }));
+        OSCStreamingChecker.REFERENCES.forEach(p -> graph.find(Node.ANY, NodeFactory.createURI(p), Node.ANY).forEachRemaining(t -> {
+
+            Node o = t.getObject();
+            if (o.isURI() && OSCStreamingChecker.BUILTINS.stream().noneMatch(o.getURI()::startsWith)) {
+
+                result.add(o.getURI());
+            }
+        }));
+        graph.find(Node.ANY, RDF.type.asNode(), OWL2.ObjectProperty.asNode()).forEachRemaining(t -> {
+
+            references(graph, t.getSubject(), RDFS.domain, result);
+            references(graph, t.getSubject(), RDFS.range, result);
+        });
+        graph.find(Node.ANY, RDF.type.asNode(), OWL2.DatatypeProperty.asNode()).forEachRemaining(t -> {
+
+            references(graph, t.getSubject(), RDFS.domain, result);
+        });
+        OSCStreamingChecker.LISTS.forEach(p -> graph.find(Node.ANY, NodeFactory.createURI(p), Node.ANY).forEachRemaining(t -> {
+
+            Node list = t.getObject();
+            while (list != null && list.isBlank()) {
+
+                Node member = object(graph, list, RDF.first);
+                if (member != null && member.isURI() && OSCStreamingChecker.BUILTINS.stream().noneMatch(member.getURI()::startsWith)) {
+
+                    result.add(member.getURI());
+                }
+                list = object(graph, list, RDF.rest);
+            }
+        }));
+
+        return result.stream().sorted().toArray(String[]::new);
+    }
+
+    private static void references(final Graph graph, final Node subject, final Resource property, final Set<String> result) {
+
+        graph.find(subject, property.asNode(), Node.ANY).forEachRemaining(t -> {
+
+            Node o = t.getObject();
+            if (o.isURI() && OSCStreamingChecker.BUILTINS.stream().noneMatch(o.getURI()::startsWith)) {
+
+                result.add(o.getURI());
+            }
+        });
+    }
+
+    /**
+     * Collect the restrictions found in the conjuncts of an anonymous class
+     * expression, as {@link org.semanticweb.owlapi.model.OWLClassExpression#asConjunctSet()} does.
+     */
+    private void restrictions(final Graph graph, final OWLClass classe, final Node expression, final AxiomType<?> axiomType, final Set<OSCRestriction> result) {
+
+        if (!expression.isBlank()) {
+
+            return;
+        }
+
+        Node list = object(graph, expression, OWL2.intersectionOf);
+        if (list != null) {
+
+            while (list != null && list.isBlank()) {
+
+                Node member = object(graph, list, RDF.first);
+                if (member != null) {
+
+                    this.restrictions(graph, classe, member, axiomType, result);
+                }
+                list = object(graph, list, RDF.rest);
+            }
+
+            return;
+        }
+
+        Node filler = object(graph, expression, OWL2.someValuesFrom);
+        ClassExpressionType quantifier = ClassExpressionType.OBJECT_SOME_VALUES_FROM;
+        if (filler == null) {
+
+            filler = object(graph, expression, OWL2.allValuesFrom);
+            quantifier = ClassExpressionType.OBJECT_ALL_VALUES_FROM;
+        }
+
+        OWLObjectPropertyExpression property = this.property(graph, object(graph, expression, OWL2.onProperty));
+        if (property != null && filler != null && filler.isURI()
+                && OSCStreamingChecker.BUILTINS.stream().noneMatch(filler.getURI()::startsWith)) {
+
+            result.add(OSCRestriction.getInstance(classe, property, quantifier, factory.getOWLClass(IRI.create(filler.getURI())), axiomType));
+        }
+    }
+
+    private OWLObjectPropertyExpression property(final Graph graph, final Node node) {
+
+        if (node == null) {
+
+            return null;
+        }
+
+        if (node.isURI()) {
+
+            return factory.getOWLObjectProperty(IRI.create(node.getURI()));
+        }
+
+        Node inverse = object(graph, node, OWL2.inverseOf);
+
+        return inverse != null && inverse.isURI()
+                ? factory.getOWLObjectInverseOf(factory.getOWLObjectProperty(IRI.create(inverse.getURI())))
+                : null;
+    }
+
+    private static Node object(final Graph graph, final Node subject, final Resource property) {
+
+        ExtendedIterator<Triple> triples = graph.find(subject, property.asNode(), Node.ANY);
+        try {
+
+            return triples.hasNext() ? triples.next().getObject() : null;
+        } finally {
+
+            triples.close();
+        }
+    }
+
+    private OWLAnnotationValue value(final Node node) {
+
+        if (node.isLiteral()) {
+
+            String language = node.getLiteralLanguage();
+
+            return language == null || language.isEmpty()
+                    ? factory.getOWLLiteral(node.getLiteralLexicalForm(), factory.getOWLDatatype(IRI.create(node.getLiteralDatatypeURI())))
+                    : factory.getOWLLiteral(node.getLiteralLexicalForm(), language);
+        }
+
+        return node.isURI() ? IRI.create(node.getURI()) : null;
+    }
+}
@@ -0,0 +1,211 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+/**
+ * Preferred labels of all classes, by language.
+ *
+ * The table is built once: for each language it holds an array of labels
+ * indexed by the dense class identifiers of {@link OSCClassIds}, and a reverse
+ * map from normalised label (see {@link OSCUtil#toNormalisedSegmentPath}) to
+ * the identifiers of the classes having it. When a class has several labels
+ * in a language, the first one is kept, as in
+ * {@link OSCOntology#getPreferredLabel}. Language tags are case-insensitive:
+ * they are stored and looked up in lower case.
+ *
+ * @author javier
+ */
+public final class OSCLabelTable {
+
+    private static final int[] NONE = new int[0];
+
+    private final OSCClassIds ids;
+    private final Map<String, String[]> labels;
+    private final Map<String, Map<String, int[]>> reverse;
+    private final BitSet deprecated;
+
+    private OSCLabelTable(final OSCClassIds ids, final Map<String, String[]> labels, final BitSet deprecated) {
+
+        this.ids = ids;
+        this.labels = labels;
+        this.deprecated = deprecated;
+        this.reverse = new HashMap<>(labels.size() * 4 / 3 + 1);
+
+        labels.forEach((language, values) -> {
+
+            Map<String, int[]> table = new HashMap<>(values.length * 4 / 3 + 1);
+            for (int id = 0; id < values.length; id++) {
+
+                if (values[id] != null) {
+
+                    String key = OSCUtil.toNormalisedSegmentPath(values[id]);
+                    int[] previous = table.getOrDefault(key, NONE);
+                    int[] next = Arrays.copyOf(previous, previous.length + 1);
+                    next[previous.length] = id;
+                    table.put(key, next);
+                }
+            }
+            reverse.put(language, table);
+        });
+    }
+
+    static OSCLabelTable getInstance(final OSCOntology ontology, final OSCClassIds ids) {
+
+        Map<String, String[]> labels = new HashMap<>();
+        BitSet deprecated = new BitSet(ids.size());
+
+        for (int id = 0; id < ids.size(); id++) {
+
+            OSCClassSnapshot snapshot = ontology.snapshot(ids.getOWLClass(id));
+            if (snapshot.isDeprecated()) {
+
+                deprecated.set(id);
+            }
+            for (OWLLiteral literal : snapshot.getPreferredLabels()) {
+
+                String[] values = labels.computeIfAbsent(key(literal.getLang()), k -> new String[ids.size()]);
+                if (values[id] == null) {
+
+                    values[id] = literal.getLiteral();
+                }
+            }
+        }
+
+        return new OSCLabelTable(ids, labels, deprecated);
+    }
+
+    private static String key(final String language) {
+
+        return language.toLowerCase(Locale.ROOT);
+    }
+
+    public OSCClassIds getClassIds() {
+
+        return ids;
+    }
+
+    /**
+     * @return languages of the labels, in lower case; the empty string stands
+     * for labels without language.
+     */
+    public Set<String> getLanguages() {
+
+        return Collections.unmodifiableSet(labels.keySet());
+    }
+
+    /**
+     * Get the label of a class in a language.
+     *
+     * @param classe
+     * @param language
+     * @return the label, or null if there is none.
+     */
+    public String getLabel(final OWLClass classe, final String language) {
+
+        int id = ids.getId(classe);
+
+        return id < 0 ? null : this.getLabel(id, language);
+    }
+
+    public String getLabel(final int id, final String language) {
+
+        String[] values = labels.get(key(language));
+
+        return values == null ? null : values[id];
+    }
+
+    public boolean isDeprecated(final OWLClass classe) {
+
+        int id = ids.getId(classe);
+
+        return id >= 0 && deprecated.get(id);
+    }
+
+    public boolean isDeprecated(final int id) {
+
+        return deprecated.get(id);
+    }
+
+    /**
+     * Get the classes having a label, compared after normalisation.
+     *
+     * @param label
+     * @param language
+     * @return classes ordered by identifier.
+     */
+    public List<OWLClass> classes(final String label, final String language) {
+
+        return this.toClasses(this.ids(label, language));
+    }
+
+    private int[] ids(final String label, final String language) {
+
+        return reverse.getOrDefault(key(language), Collections.emptyMap())
+                .getOrDefault(OSCUtil.toNormalisedSegmentPath(label), NONE);
+    }
+
+    /**
+     * Get the labels shared by several classes that are not deprecated.
+     *
+     * @param language
+     * @return classes by normalised label, ordered by label.
+     */
+    public Map<String, List<OWLClass>> duplicates(final String language) {
+
+        Map<String, List<OWLClass>> result = new TreeMap<>();
+
+        reverse.getOrDefault(key(language), Collections.emptyMap()).forEach((label, classes) -> {
+
+            int[] live = Arrays.stream(classes).filter(id -> !deprecated.get(id)).toArray();
+            if (live.length > 1) {
+
+                result.put(label, this.toClasses(live));
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Get the labels shared by a deprecated class and a class that is not
+     * deprecated.
+     *
+     * @param language
+     * @return classes (deprecated and not deprecated) by normalised label,
+     * ordered by label.
+     */
+    public Map<String, List<OWLClass>> sharedWithDeprecated(final String language) {
+
+        Map<String, List<OWLClass>> result = new TreeMap<>();
+
+        reverse.getOrDefault(key(language), Collections.emptyMap()).forEach((label, classes) -> {
+
+            boolean live = Arrays.stream(classes).anyMatch(id -> !deprecated.get(id));
+            boolean dead = Arrays.stream(classes).anyMatch(deprecated::get);
+            if (live && dead) {
+
+                result.put(label, this.toClasses(classes));
+            }
+        });
+
+        return result;
+    }
+
+    private List<OWLClass> toClasses(final int[] classes) {
+
+        return Arrays.stream(classes)
+                .mapToObj(ids::getOWLClass)
+                .collect(Collectors.toList());
+    }
+}
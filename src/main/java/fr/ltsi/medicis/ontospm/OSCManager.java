@@ -1,6 +1,7 @@
 package fr.ltsi.medicis.ontospm;
 
 import java.nio.file.Path;
+import java.util.Optional;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.io.IRIDocumentSource;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
@@ -20,27 +21,85 @@ public class OSCManager {
     private final OWLOntology ontology;
     private final OWLDataFactory factory;
 
-    private OSCManager(final Path path)
+    private OSCManager(final Path path, final OSCSnapshotCache cache, final OSCMirror mirror)
             throws
             org.semanticweb.owlapi.model.OWLOntologyCreationException {
 
+        OSCMetrics.Probe probe = OSCMetrics.getInstance().start("load");
         IRI iri = IRI.create(path.toFile());
         OWLOntologyDocumentSource source = new IRIDocumentSource(iri);
         OWLOntologyManager manager = OWLManager.createConcurrentOWLOntologyManager();
-        // ignore imports while loading
-        OWLOntologyLoaderConfiguration configuration = new OWLOntologyLoaderConfiguration();
-        configuration = configuration.setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
-        ontology = manager.loadOntologyFromOntologyDocument(source, configuration);
+        OWLOntologyLoaderConfiguration configuration = configuration();
+
+        if (mirror != null) {
+
+            ontology = mirror.load(path, cache, manager);
+        } else if (cache == null) {
+
+            ontology = manager.loadOntologyFromOntologyDocument(source, configuration);
+        } else {
+
+            String digest = OSCSnapshotCache.digest(path, key(configuration));
+            Optional<OWLOntology> snapshot = cache.load(path, digest, manager);
+
+            if (snapshot.isPresent()) {
+
+                ontology = snapshot.get();
+            } else {
+
+                ontology = manager.loadOntologyFromOntologyDocument(source, configuration);
+                cache.store(path, digest, ontology);
+            }
+        }
         factory = manager.getOWLDataFactory();
+        probe.stop(ontology.getAxiomCount());
     }
 
+    /**
+     * Load an ontology, from the snapshot cache set with the system property
+     * {@value OSCSnapshotCache#PROPERTY} if any.
+     *
+     * @param path
+     * @return
+     */
     public static OSCManager getInstance(final Path path) {
 
+        return getInstance(path, OSCSnapshotCache.getDefaultInstance());
+    }
+
+    /**
+     * Load an ontology using a snapshot cache.
+     *
+     * The ontology is read from its snapshot when the source file and the
+     * loader configuration are unchanged; otherwise it is parsed and the
+     * snapshot is rebuilt.
+     *
+     * @param path
+     * @param cache snapshot cache, or null to always parse the source file.
+     * @return
+     */
+    public static OSCManager getInstance(final Path path, final OSCSnapshotCache cache) {
+
+        return getInstance(path, cache, null);
+    }
+
+    /**
+     * Load an ontology with the part of its import closure found in a local
+     * mirror; other imports are ignored.
+     *
+     * @param path
+     * @param cache snapshot cache, or null to always parse the documents.
+     * @param mirror local mirror, or null to resolve imports from their IRIs,
+     * ignoring missing ones.
+     * @return
+     */
+    public static OSCManager getInstance(final Path path, final OSCSnapshotCache cache, final OSCMirror mirror) {
+
         OSCManager manager = null;
 
         try {
 
-            manager = new OSCManager(path);
+            manager = new OSCManager(path, cache, mirror);
         } catch (org.semanticweb.owlapi.model.OWLOntologyCreationException e) {
 
             throw new RuntimeException(e);
@@ -49,6 +108,29 @@ public class OSCManager {
         return manager;
     }
 
+    static OWLOntologyLoaderConfiguration configuration() {
+
+        // ignore imports while loading
+        OWLOntologyLoaderConfiguration configuration = new OWLOntologyLoaderConfiguration();
+
+        return configuration.setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
+    }
+
+    /**
+     * Key of the loader configuration options that change the loaded
+     * document. The handling of imports is not part of it: a snapshot holds
+     * the axioms of its own document only, so the snapshots written with and
+     * without a {@link OSCMirror} are the same.
+     *
+     * @param configuration
+     * @return
+     */
+    static String key(final OWLOntologyLoaderConfiguration configuration) {
+
+        return "annotations=" + configuration.isLoadAnnotationAxioms()
+                + ";strict=" + configuration.isStrict();
+    }
+
     public OWLOntology getOntology() {
 
         return ontology;
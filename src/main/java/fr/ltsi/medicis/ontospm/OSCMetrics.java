@@ -0,0 +1,310 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in run metrics: calls, items, time and allocated bytes of the phases
+ * of a run (load, index builds, check) and of each rule.
+ *
+ * Metrics are collected when the system property {@value #PROPERTY} is
+ * <code>true</code>; a summary table is then printed on the standard error
+ * at the end of the run. When JDK Flight Recorder is available and the
+ * event classes of <code>src/jfr/java</code> were built (on JDK 11 and
+ * later), every phase is also recorded as a
+ * <code>fr.ltsi.medicis.ontospm.Phase</code> event.
+ * Allocated bytes are measured per thread, where the JVM supports it.
+ *
+ * @author javier
+ */
+public final class OSCMetrics {
+
+    /**
+     * System property enabling the metrics.
+     */
+    public static final String PROPERTY = "osc.metrics";
+
+    private static final Recorder FLIGHT_RECORDER = recorder("fr.ltsi.medicis.ontospm.OSCPhaseEvent$FlightRecorder");
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+    private static final OSCMetrics INSTANCE = new OSCMetrics(Boolean.getBoolean(PROPERTY), true);
+
+    private final boolean enabled;
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Probe disabled = new Probe(null, null, 0, 0, null);
+
+    private OSCMetrics(final boolean enabled, final boolean summary) {
+
+        this.enabled = enabled;
+        if (enabled && summary) {
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> this.print(System.err), "osc-metrics"));
+        }
+    }
+
+    /**
+     * @return the metrics of the JVM.
+     */
+    public static OSCMetrics getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * @param enabled
+     * @return metrics independent of the ones of the JVM, without summary
+     * at the end of the run.
+     */
+    static OSCMetrics newInstance(final boolean enabled) {
+
+        return new OSCMetrics(enabled, false);
+    }
+
+    /**
+     * Load the Flight Recorder events, built apart from the main sources.
+     *
+     * @param name
+     * @return the recorder, or null if Flight Recorder or the event classes
+     * are not available.
+     */
+    private static Recorder recorder(final String name) {
+
+        try {
+
+            Class.forName("jdk.jfr.Event", false, OSCMetrics.class.getClassLoader());
+
+            return (Recorder) Class.forName(name, true, OSCMetrics.class.getClassLoader())
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+
+            return null;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+
+        try {
+
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+
+                    return threads;
+                }
+            }
+        } catch (LinkageError e) {
+
+            // not a HotSpot JVM
+        }
+
+        return null;
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Get the counter of a phase, creating it if needed.
+     *
+     * @param phase
+     * @return
+     */
+    public Counter counter(final String phase) {
+
+        return counters.computeIfAbsent(phase, Counter::new);
+    }
+
+    /**
+     * @return counters by phase, ordered by phase.
+     */
+    public Map<String, Counter> getCounters() {
+
+        return Collections.unmodifiableMap(counters);
+    }
+
+    /**
+     * Start measuring a phase.
+     *
+     * @param phase
+     * @return the probe to stop at the end of the phase; a probe doing
+     * nothing if the metrics are disabled.
+     */
+    public Probe start(final String phase) {
+
+        if (!enabled) {
+
+            return disabled;
+        }
+
+        Object event = FLIGHT_RECORDER != null ? FLIGHT_RECORDER.begin(phase) : null;
+
+        return new Probe(this, this.counter(phase), System.nanoTime(), allocated(), event);
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, or 0 if unknown.
+     */
+    long allocated() {
+
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Record the totals of a phase measured by the caller, e.g. a rule over a
+     * whole check run.
+     *
+     * @param counter
+     * @param calls
+     * @param items
+     * @param nanos
+     * @param bytes
+     */
+    void record(final Counter counter, final long calls, final long items, final long nanos, final long bytes) {
+
+        counter.add(calls, items, nanos, bytes);
+        if (FLIGHT_RECORDER != null) {
+
+            FLIGHT_RECORDER.commit(counter.getPhase(), items, nanos, bytes);
+        }
+    }
+
+    /**
+     * Reset all counters.
+     */
+    public void reset() {
+
+        counters.clear();
+    }
+
+    /**
+     * Print the summary table of the counters.
+     *
+     * @param out
+     */
+    public void print(final PrintStream out) {
+
+        out.println(String.format("%-40s %8s %10s %12s %12s", "phase", "calls", "items", "time (ms)", "alloc (MB)"));
+        counters.values().forEach(c -> out.println(String.format("%-40s %8d %10d %12.1f %12.1f",
+                c.getPhase(), c.getCalls(), c.getItems(), c.getNanos() / 1e6, c.getBytes() / 1048576.0)));
+    }
+
+    /**
+     * Emitter of the phase events, implemented by the Flight Recorder events
+     * of <code>src/jfr/java</code>.
+     */
+    interface Recorder {
+
+        /**
+         * @param phase
+         * @return the started event.
+         */
+        Object begin(String phase);
+
+        void end(Object event, long items, long time, long allocated);
+
+        /**
+         * Commit an event for totals measured elsewhere.
+         */
+        void commit(String phase, long items, long time, long allocated);
+    }
+
+    /**
+     * Thread-safe totals of a phase.
+     */
+    public static final class Counter {
+
+        private final String phase;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder items = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        private Counter(final String phase) {
+
+            this.phase = phase;
+        }
+
+        void add(final long calls, final long items, final long nanos, final long bytes) {
+
+            this.calls.add(calls);
+            this.items.add(items);
+            this.nanos.add(nanos);
+            this.bytes.add(bytes);
+        }
+
+        public String getPhase() {
+
+            return phase;
+        }
+
+        public long getCalls() {
+
+            return calls.sum();
+        }
+
+        public long getItems() {
+
+            return items.sum();
+        }
+
+        public long getNanos() {
+
+            return nanos.sum();
+        }
+
+        public long getBytes() {
+
+            return bytes.sum();
+        }
+    }
+
+    /**
+     * Measure of a running phase.
+     */
+    public static final class Probe {
+
+        private final OSCMetrics metrics;
+        private final Counter counter;
+        private final long start;
+        private final long allocated;
+        private final Object event;
+
+        private Probe(final OSCMetrics metrics, final Counter counter, final long start, final long allocated, final Object event) {
+
+            this.metrics = metrics;
+            this.counter = counter;
+            this.start = start;
+            this.allocated = allocated;
+            this.event = event;
+        }
+
+        /**
+         * Stop the phase.
+         *
+         * @param items number of items (classes, axioms...) processed.
+         */
+        public void stop(final long items) {
+
+            if (metrics == null) {
+
+                return;
+            }
+
+            long nanos = System.nanoTime() - start;
+            long bytes = metrics.allocated() - allocated;
+            counter.add(1, items, nanos, bytes);
+            if (event != null) {
+
+                FLIGHT_RECORDER.end(event, items, nanos, bytes);
+            }
+        }
+    }
+}
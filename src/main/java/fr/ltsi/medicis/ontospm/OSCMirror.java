@@ -0,0 +1,250 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.semanticweb.owlapi.io.IRIDocumentSource;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyAlreadyExistsException;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.util.AutoIRIMapper;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Local mirror of imported ontologies.
+ *
+ * The mirror maps ontology IRIs to documents of a local directory: the
+ * entries of the Protégé XML catalog <code>{@value #CATALOG}</code> of the
+ * directory, if any, then the ontology documents found in the directory.
+ * Documents found in the directory are only mapped by ontology IRI, so an
+ * import by version IRI must be listed in the catalog. An ontology is loaded
+ * with the part of its import closure found in the mirror; imports that are
+ * not mirrored are ignored, so the network is never accessed.
+ *
+ * Each level of the import closure is parsed in parallel straight into the
+ * target manager, which should be a concurrent one. With a
+ * {@link OSCSnapshotCache}, every document of the closure is read from its
+ * own snapshot when it is unchanged.
+ *
+ * @author javier
+ */
+public class OSCMirror {
+
+    /**
+     * Name of the XML catalog of a mirror directory.
+     */
+    public static final String CATALOG = "catalog-v001.xml";
+
+    private final Path directory;
+    private final Map<IRI, Path> documents;
+
+    private OSCMirror(final Path directory, final Map<IRI, Path> documents) {
+
+        this.directory = directory;
+        this.documents = documents;
+    }
+
+    /**
+     * Build the mirror of a directory.
+     *
+     * @param directory
+     * @return
+     */
+    public static OSCMirror getInstance(final Path directory) {
+
+        Map<IRI, Path> documents = new LinkedHashMap<>();
+
+        Path catalog = directory.resolve(CATALOG);
+        if (Files.isRegularFile(catalog)) {
+
+            documents.putAll(catalog(catalog));
+        }
+
+        AutoIRIMapper mapper = new AutoIRIMapper(directory.toFile(), true);
+        mapper.getOntologyIRIs().forEach(iri -> {
+
+            IRI document = mapper.getDocumentIRI(iri);
+            if (document != null) {
+
+                documents.putIfAbsent(iri, Paths.get(document.toURI()));
+            }
+        });
+
+        return new OSCMirror(directory, Collections.unmodifiableMap(documents));
+    }
+
+    /**
+     * Read the <code>uri</code> entries of an XML catalog. Entries that are
+     * not local files are skipped.
+     *
+     * @param catalog
+     * @return document by IRI, in catalog order.
+     */
+    static Map<IRI, Path> catalog(final Path catalog) {
+
+        Map<IRI, Path> documents = new LinkedHashMap<>();
+
+        try {
+
+            DocumentBuilderFactory builder = DocumentBuilderFactory.newInstance();
+            builder.setNamespaceAware(true);
+            builder.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            NodeList entries = builder.newDocumentBuilder()
+                    .parse(catalog.toFile())
+                    .getElementsByTagNameNS("*", "uri");
+
+            for (int i = 0; i < entries.getLength(); i++) {
+
+                Element entry = (Element) entries.item(i);
+                String name = entry.getAttribute("name");
+                String uri = entry.getAttribute("uri");
+                if (name.isEmpty() || uri.isEmpty()) {
+
+                    continue;
+                }
+
+                IRI document = IRI.create(catalog.getParent().toUri().resolve(uri));
+                if ("file".equals(document.getScheme())) {
+
+                    documents.putIfAbsent(IRI.create(name), Paths.get(document.toURI()));
+                }
+            }
+        } catch (IOException | ParserConfigurationException | SAXException e) {
+
+            throw new RuntimeException(e);
+        }
+
+        return documents;
+    }
+
+    public Path getDirectory() {
+
+        return directory;
+    }
+
+    /**
+     * @return mirrored ontology IRIs.
+     */
+    public Set<IRI> getIRIs() {
+
+        return documents.keySet();
+    }
+
+    /**
+     * Get the local document of an ontology.
+     *
+     * @param iri ontology IRI or version IRI.
+     * @return
+     */
+    public Optional<Path> getDocument(final IRI iri) {
+
+        return Optional.ofNullable(documents.get(iri));
+    }
+
+    /**
+     * Load an ontology and the mirrored part of its import closure.
+     *
+     * @param path
+     * @param cache snapshot cache, or null to always parse the documents.
+     * @param manager target manager, concurrent when the closure has more
+     * than one document per level.
+     * @return the ontology, its imports being available in the manager.
+     * @throws OWLOntologyCreationException
+     */
+    public OWLOntology load(final Path path, final OSCSnapshotCache cache, final OWLOntologyManager manager)
+            throws
+            OWLOntologyCreationException {
+
+        Path root = path.toAbsolutePath().normalize();
+        Map<Path, OWLOntology> loaded = new HashMap<>();
+        Set<Path> level = Collections.singleton(root);
+
+        while (!level.isEmpty()) {
+
+            Map<Path, OWLOntology> parsed = level.parallelStream()
+                    .collect(Collectors.toMap(p -> p, p -> parse(p, cache, manager)));
+            loaded.putAll(parsed);
+
+            Set<Path> next = new LinkedHashSet<>();
+            parsed.values().stream()
+                    .flatMap(OWLOntology::importsDeclarations)
+                    .map(OWLImportsDeclaration::getIRI)
+                    .map(documents::get)
+                    .filter(p -> p != null && !loaded.containsKey(p))
+                    .forEach(next::add);
+            level = next;
+        }
+
+        return loaded.get(root);
+    }
+
+    /**
+     * Parse a single document into a manager, ignoring its imports. A
+     * document whose ontology is already in the manager is not read again.
+     */
+    private static OWLOntology parse(final Path path, final OSCSnapshotCache cache, final OWLOntologyManager manager) {
+
+        OWLOntologyLoaderConfiguration configuration = configuration();
+
+        try {
+
+            if (cache == null) {
+
+                return manager.loadOntologyFromOntologyDocument(new IRIDocumentSource(IRI.create(path.toFile())), configuration);
+            }
+
+            String digest = OSCSnapshotCache.digest(path, OSCManager.key(configuration));
+            Optional<OWLOntology> snapshot = cache.load(path, digest, manager);
+            if (snapshot.isPresent()) {
+
+                return snapshot.get();
+            }
+
+            OWLOntology ontology = manager.loadOntologyFromOntologyDocument(new IRIDocumentSource(IRI.create(path.toFile())), configuration);
+            cache.store(path, digest, ontology);
+
+            return ontology;
+        } catch (OWLOntologyAlreadyExistsException e) {
+
+            return manager.getOntology(e.getOntologyID());
+        } catch (OWLOntologyCreationException e) {
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Loader configuration ignoring every import: imports are resolved level
+     * by level by {@link #load}.
+     */
+    private static OWLOntologyLoaderConfiguration configuration() {
+
+        return new OWLOntologyLoaderConfiguration() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isIgnoredImport(final IRI iri) {
+
+                return true;
+            }
+        };
+    }
+}
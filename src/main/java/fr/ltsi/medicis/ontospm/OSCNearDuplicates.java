@@ -0,0 +1,371 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+/**
+ * Pairs of classes with similar preferred labels in the same language.
+ * Languages are compared in lower case, as in {@link OSCLabelTable}.
+ *
+ * Labels are normalised with {@link OSCUtil#toNormalisedSegmentPath}, so
+ * labels that differ only by case, quotes, hyphens or spaces are identical,
+ * then split in character trigrams. The similarity of two labels is the
+ * Jaccard index of their trigram sets; typos and plural forms keep most
+ * trigrams in common.
+ *
+ * Candidate pairs come from an inverted index of trigrams with prefix
+ * filtering: trigrams are ordered from the rarest to the most frequent, and
+ * two labels whose similarity reaches the threshold always share one of the
+ * first trigrams of each label. Only these first trigrams are indexed, so
+ * the frequent trigrams that would make the search quadratic are never
+ * looked up. Candidates are then verified on their full trigram sets: the
+ * result is the same as a comparison of all pairs.
+ *
+ * Deprecated classes are left out.
+ *
+ * @author javier
+ */
+public final class OSCNearDuplicates {
+
+    /**
+     * Default similarity threshold.
+     */
+    public static final double THRESHOLD = 0.6;
+
+    private static final double EPSILON = 1e-9;
+
+    private final double threshold;
+    private final Map<String, List<Pair>> pairs;
+
+    private OSCNearDuplicates(final double threshold, final Map<String, List<Pair>> pairs) {
+
+        this.threshold = threshold;
+        this.pairs = pairs;
+    }
+
+    /**
+     * Find the near duplicate labels of the classes of an ontology.
+     *
+     * @param ontology
+     * @param threshold minimum similarity, in ]0, 1].
+     * @return
+     */
+    public static OSCNearDuplicates getInstance(final OSCOntology ontology, final double threshold) {
+
+        if (!(threshold > 0 && threshold <= 1)) {
+
+            throw new IllegalArgumentException("threshold: " + threshold);
+        }
+
+        OSCMetrics.Probe probe = OSCMetrics.getInstance().start("near-duplicates");
+        OSCClassIds ids = ontology.getClassIds();
+        Map<String, List<Label>> labels = new TreeMap<>();
+        for (int id = 0; id < ids.size(); id++) {
+
+            OSCClassSnapshot snapshot = ontology.snapshot(ids.getOWLClass(id));
+            if (snapshot.isDeprecated()) {
+
+                continue;
+            }
+
+            for (OWLLiteral literal : snapshot.getPreferredLabels()) {
+
+                labels.computeIfAbsent(literal.getLang().toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                        .add(new Label(id, literal.getLiteral()));
+            }
+        }
+
+        Map<String, List<Pair>> pairs = new TreeMap<>();
+        long count = 0;
+        for (Map.Entry<String, List<Label>> entry : labels.entrySet()) {
+
+            List<Pair> found = search(ids, entry.getKey(), entry.getValue(), threshold);
+            if (!found.isEmpty()) {
+
+                pairs.put(entry.getKey(), Collections.unmodifiableList(found));
+            }
+            count += entry.getValue().size();
+        }
+        probe.stop(count);
+
+        return new OSCNearDuplicates(threshold, Collections.unmodifiableMap(pairs));
+    }
+
+    public static OSCNearDuplicates getInstance(final OSCOntology ontology) {
+
+        return getInstance(ontology, THRESHOLD);
+    }
+
+    public double getThreshold() {
+
+        return threshold;
+    }
+
+    /**
+     * @return languages with at least one pair, in lower case.
+     */
+    public Set<String> getLanguages() {
+
+        return pairs.keySet();
+    }
+
+    /**
+     * @param language
+     * @return pairs of classes, from the most similar; a pair of classes
+     * appears once, with its most similar labels.
+     */
+    public List<Pair> getPairs(final String language) {
+
+        return pairs.getOrDefault(language.toLowerCase(Locale.ROOT), Collections.emptyList());
+    }
+
+    /**
+     * @return pairs by language.
+     */
+    public Map<String, List<Pair>> getPairs() {
+
+        return pairs;
+    }
+
+    /**
+     * Get the distinct trigrams of a normalised label, padded at both ends.
+     *
+     * @param label
+     * @return trigrams packed in longs, sorted.
+     */
+    static long[] trigrams(final String label) {
+
+        String padded = "$$" + label + "$";
+        long[] result = new long[padded.length() - 2];
+        for (int i = 0; i < result.length; i++) {
+
+            result[i] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+        }
+        Arrays.sort(result);
+
+        int n = 0;
+        for (int i = 0; i < result.length; i++) {
+
+            if (i == 0 || result[i] != result[i - 1]) {
+
+                result[n++] = result[i];
+            }
+        }
+
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * @param a sorted set
+     * @param b sorted set
+     * @return Jaccard index of two sets.
+     */
+    static double similarity(final int[] a, final int[] b) {
+
+        int common = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+
+            if (a[i] == b[j]) {
+
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+
+                i++;
+            } else {
+
+                j++;
+            }
+        }
+
+        return (double) common / (a.length + b.length - common);
+    }
+
+    private static List<Pair> search(final OSCClassIds ids, final String language, final List<Label> labels, final double threshold) {
+
+        // number the trigrams from the rarest to the most frequent
+        Map<Long, Integer> frequencies = new HashMap<>();
+        long[][] keys = new long[labels.size()][];
+        for (int i = 0; i < keys.length; i++) {
+
+            keys[i] = trigrams(OSCUtil.toNormalisedSegmentPath(labels.get(i).label));
+            for (long key : keys[i]) {
+
+                frequencies.merge(key, 1, Integer::sum);
+            }
+        }
+
+        Long[] order = frequencies.keySet().toArray(new Long[frequencies.size()]);
+        Arrays.sort(order, Comparator.<Long>comparingInt(frequencies::get).thenComparing(Comparator.naturalOrder()));
+        Map<Long, Integer> ranks = new HashMap<>(order.length * 4 / 3 + 1);
+        for (int r = 0; r < order.length; r++) {
+
+            ranks.put(order[r], r);
+        }
+
+        int[][] grams = new int[keys.length][];
+        Integer[] bySize = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+
+            grams[i] = new int[keys[i].length];
+            for (int k = 0; k < keys[i].length; k++) {
+
+                grams[i][k] = ranks.get(keys[i][k]);
+            }
+            Arrays.sort(grams[i]);
+            bySize[i] = i;
+        }
+        Arrays.sort(bySize, Comparator.comparingInt(i -> grams[i].length));
+
+        // labels are indexed by increasing size, so candidates are never larger
+        int[][] postings = new int[order.length][];
+        int[] lengths = new int[order.length];
+        int[] stamps = new int[keys.length];
+        Arrays.fill(stamps, -1);
+        Map<Long, Pair> best = new HashMap<>();
+
+        for (int x : bySize) {
+
+            int[] gx = grams[x];
+            // a similar label shares at least minimum trigrams with this one
+            double minimum = threshold * gx.length - EPSILON;
+            int prefix = gx.length - (int) Math.ceil(minimum) + 1;
+            for (int k = 0; k < prefix; k++) {
+
+                int token = gx[k];
+                for (int p = 0; p < lengths[token]; p++) {
+
+                    int y = postings[token][p];
+                    if (stamps[y] == x || grams[y].length < minimum) {
+
+                        continue;
+                    }
+                    stamps[y] = x;
+
+                    double similarity = similarity(gx, grams[y]);
+                    Label lx = labels.get(x);
+                    Label ly = labels.get(y);
+                    if (similarity >= threshold - EPSILON && lx.id != ly.id) {
+
+                        Pair pair = lx.id < ly.id
+                                ? new Pair(ids.getOWLClass(lx.id), ids.getOWLClass(ly.id), language, lx.label, ly.label, similarity)
+                                : new Pair(ids.getOWLClass(ly.id), ids.getOWLClass(lx.id), language, ly.label, lx.label, similarity);
+                        best.merge((long) Math.min(lx.id, ly.id) << 32 | Math.max(lx.id, ly.id), pair,
+                                (p1, p2) -> p1.similarity >= p2.similarity ? p1 : p2);
+                    }
+                }
+            }
+
+            for (int k = 0; k < prefix; k++) {
+
+                int token = gx[k];
+                if (postings[token] == null) {
+
+                    postings[token] = new int[2];
+                } else if (lengths[token] == postings[token].length) {
+
+                    postings[token] = Arrays.copyOf(postings[token], lengths[token] * 2);
+                }
+                postings[token][lengths[token]++] = x;
+            }
+        }
+
+        List<Pair> result = new ArrayList<>(best.values());
+        result.sort(Comparator.comparingDouble(Pair::getSimilarity).reversed()
+                .thenComparing(p -> p.first.getIRI().toString())
+                .thenComparing(p -> p.second.getIRI().toString()));
+
+        return result;
+    }
+
+    /**
+     * Preferred label of a class.
+     */
+    private static final class Label {
+
+        private final int id;
+        private final String label;
+
+        private Label(final int id, final String label) {
+
+            this.id = id;
+            this.label = label;
+        }
+    }
+
+    /**
+     * Two classes with similar labels in a language.
+     */
+    public static final class Pair {
+
+        private final OWLClass first;
+        private final OWLClass second;
+        private final String language;
+        private final String firstLabel;
+        private final String secondLabel;
+        private final double similarity;
+
+        private Pair(final OWLClass first, final OWLClass second, final String language, final String firstLabel, final String secondLabel, final double similarity) {
+
+            this.first = first;
+            this.second = second;
+            this.language = language;
+            this.firstLabel = firstLabel;
+            this.secondLabel = secondLabel;
+            this.similarity = similarity;
+        }
+
+        /**
+         * @return the class with the smaller IRI.
+         */
+        public OWLClass getFirst() {
+
+            return first;
+        }
+
+        public OWLClass getSecond() {
+
+            return second;
+        }
+
+        public String getLanguage() {
+
+            return language;
+        }
+
+        public String getFirstLabel() {
+
+            return firstLabel;
+        }
+
+        public String getSecondLabel() {
+
+            return secondLabel;
+        }
+
+        /**
+         * @return Jaccard index of the trigrams of the normalised labels.
+         */
+        public double getSimilarity() {
+
+            return similarity;
+        }
+
+        @Override
+        public String toString() {
+
+            return String.format(Locale.ROOT, "%s@%s ~ %s@%s (%.2f)", firstLabel, language, secondLabel, language, similarity);
+        }
+    }
+}
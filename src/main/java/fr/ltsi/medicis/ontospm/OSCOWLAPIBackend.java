@@ -0,0 +1,84 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+/**
+ * {@link OSCBackend} over an ontology loaded in memory by OWLAPI.
+ *
+ * Queries are answered by the structures of {@link OSCOntology}, built on
+ * first use: class views, label table, hierarchy and restriction index.
+ *
+ * @author javier
+ */
+public final class OSCOWLAPIBackend implements OSCBackend {
+
+    private final OSCOntology ontology;
+
+    private OSCOWLAPIBackend(final OSCOntology ontology) {
+
+        this.ontology = ontology;
+    }
+
+    public static OSCOWLAPIBackend getInstance(final OSCOntology ontology) {
+
+        return new OSCOWLAPIBackend(ontology);
+    }
+
+    public OSCOntology getOntology() {
+
+        return ontology;
+    }
+
+    @Override
+    public String getName() {
+
+        return "owlapi";
+    }
+
+    @Override
+    public OWLDataFactory getFactory() {
+
+        return ontology.getFactory();
+    }
+
+    @Override
+    public Stream<OWLClass> classes() {
+
+        return ontology.getView(OSCClassViews.ALL).stream();
+    }
+
+    @Override
+    public OSCClassSnapshot snapshot(final OWLClass classe) {
+
+        return ontology.snapshot(classe);
+    }
+
+    @Override
+    public String getPreferredLabel(final OWLClass classe, final String language) {
+
+        return ontology.getPreferredLabel(classe, language);
+    }
+
+    @Override
+    public Stream<OWLClass> superClasses(final OWLClass classe) {
+
+        return ontology.getHierarchy().superClasses(classe);
+    }
+
+    @Override
+    public Stream<OSCRestriction> restrictions(final OWLClass classe) {
+
+        return ontology.getRestrictions().restrictions(classe).distinct();
+    }
+
+    /**
+     * The ontology stays loaded: it belongs to its
+     * {@link OSCManager}.
+     */
+    @Override
+    public void close() {
+
+    }
+}
@@ -1,6 +1,19 @@
 package fr.ltsi.medicis.ontospm;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.HasIRI;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
@@ -11,6 +24,9 @@ import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.vocab.SKOSVocabulary;
 // import org.semanticweb.owlapi.util.OWLClassLiteralCollector;
 
@@ -24,16 +40,90 @@ public class OSCOntology {
 
     private final OWLOntology ontology;
     private final OWLDataFactory factory;
+    private final boolean indexed;
+    private final AtomicBoolean watched = new AtomicBoolean();
+    private volatile Derived derived = new Derived();
 
-    private OSCOntology(final OWLOntology ontology, final OWLDataFactory factory) {
+    private OSCOntology(final OWLOntology ontology, final OWLDataFactory factory, final boolean indexed) {
 
         this.ontology = ontology;
         this.factory = factory;
+        this.indexed = indexed;
+        if (indexed) {
+
+            this.index();
+        }
     }
 
     public static OSCOntology getInstance(final OWLOntology ontology, final OWLDataFactory factory) {
 
-        return new OSCOntology(ontology, factory);
+        return getInstance(ontology, factory, false);
+    }
+
+    /**
+     * Get an ontology wrapper, optionally in indexed mode.
+     *
+     * In indexed mode all annotation assertion axioms are read once and the
+     * query methods answer from an immutable table instead of scanning the
+     * ontology on every call. Like the other derived structures (class
+     * identifiers, views, label table, hierarchy...), the index is dropped by
+     * a change of the ontology and built again on next use.
+     *
+     * @param ontology
+     * @param factory
+     * @param indexed true to precompute the annotation index.
+     * @return
+     */
+    public static OSCOntology getInstance(final OWLOntology ontology, final OWLDataFactory factory, final boolean indexed) {
+
+        return new OSCOntology(ontology, factory, indexed);
+    }
+
+    public OWLOntology getOntology() {
+
+        return ontology;
+    }
+
+    public OWLDataFactory getFactory() {
+
+        return factory;
+    }
+
+    public boolean isIndexed() {
+
+        return indexed;
+    }
+
+    /**
+     * Get the annotation index, built on first use in indexed mode.
+     *
+     * @return the index, or null in scanning mode.
+     */
+    private OSCAnnotationIndex index() {
+
+        if (!indexed) {
+
+            return null;
+        }
+
+        Derived d = this.derived();
+        OSCAnnotationIndex result = d.index;
+        if (result == null) {
+
+            synchronized (d) {
+
+                result = d.index;
+                if (result == null) {
+
+                    OSCMetrics.Probe probe = OSCMetrics.getInstance().start("index:annotations");
+                    result = OSCAnnotationIndex.getInstance(ontology);
+                    probe.stop(ontology.getAxiomCount(AxiomType.ANNOTATION_ASSERTION));
+                    d.index = result;
+                }
+            }
+        }
+
+        return result;
     }
 
     public Stream<OWLClass> classes() {
@@ -41,6 +131,168 @@ public class OSCOntology {
         return ontology.classesInSignature();
     }
 
+    /**
+     * Get the dense identifiers of the classes, computed on first use.
+     *
+     * @return {@link OSCClassIds}
+     */
+    public OSCClassIds getClassIds() {
+
+        return this.getClassIds(this.derived());
+    }
+
+    private OSCClassIds getClassIds(final Derived d) {
+
+        OSCClassIds result = d.classIds;
+        if (result == null) {
+
+            synchronized (d) {
+
+                result = d.classIds;
+                if (result == null) {
+
+                    OSCMetrics.Probe probe = OSCMetrics.getInstance().start("index:class-ids");
+                    result = OSCClassIds.getInstance(this.classes());
+                    probe.stop(result.size());
+                    d.classIds = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the preferred label table of the classes, computed on first use.
+     *
+     * @return {@link OSCLabelTable}
+     */
+    public OSCLabelTable getLabelTable() {
+
+        Derived d = this.derived();
+        OSCLabelTable result = d.labelTable;
+        if (result == null) {
+
+            synchronized (d) {
+
+                result = d.labelTable;
+                if (result == null) {
+
+                    OSCMetrics.Probe probe = OSCMetrics.getInstance().start("index:labels");
+                    result = OSCLabelTable.getInstance(this, this.getClassIds(d));
+                    probe.stop(result.getClassIds().size());
+                    d.labelTable = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the asserted class hierarchy and its transitive closure, computed on
+     * first use.
+     *
+     * @return {@link OSCHierarchy}
+     */
+    public OSCHierarchy getHierarchy() {
+
+        Derived d = this.derived();
+        OSCHierarchy result = d.hierarchy;
+        if (result == null) {
+
+            synchronized (d) {
+
+                result = d.hierarchy;
+                if (result == null) {
+
+                    OSCMetrics.Probe probe = OSCMetrics.getInstance().start("index:hierarchy");
+                    OSCClassIds ids = this.getClassIds(d);
+                    result = OSCHierarchy.getInstance(ontology, ids);
+                    probe.stop(ids.size());
+                    d.hierarchy = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the restrictions with a named filler asserted on the classes,
+     * computed on first use.
+     *
+     * @return {@link OSCRestrictionIndex}
+     */
+    public OSCRestrictionIndex getRestrictions() {
+
+        Derived d = this.derived();
+        OSCRestrictionIndex result = d.restrictions;
+        if (result == null) {
+
+            synchronized (d) {
+
+                result = d.restrictions;
+                if (result == null) {
+
+                    OSCMetrics.Probe probe = OSCMetrics.getInstance().start("index:restrictions");
+                    result = OSCRestrictionIndex.getInstance(ontology);
+                    probe.stop(result.classes().count());
+                    d.restrictions = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get a named view of the classes, computed on first use.
+     *
+     * @param name
+     * @return {@link OSCClassView}
+     */
+    public OSCClassView getView(final OSCClassViews name) {
+
+        Derived d = this.derived();
+
+        return d.views.computeIfAbsent(name, n -> {
+
+            OSCMetrics.Probe probe = OSCMetrics.getInstance().start("index:view:" + n.name().toLowerCase(Locale.ROOT));
+            OSCClassView view = OSCClassView.getInstance(n, ontology, this.getClassIds(d));
+            probe.stop(view.size());
+
+            return view;
+        });
+    }
+
+    /**
+     * @return this ontology as an {@link OSCBackend}.
+     */
+    public OSCBackend getBackend() {
+
+        return OSCOWLAPIBackend.getInstance(this);
+    }
+
+    /**
+     * Get the structures derived from the ontology, watching the changes of
+     * the ontology from the first call: any change to the ontology drops them
+     * all, so they are computed again on next use.
+     *
+     * The {@link Watcher} only replaces the holder, without locking, so it
+     * cannot deadlock with a computation waiting for the ontology; a
+     * computation running during a change ends in the dropped holder.
+     */
+    private Derived derived() {
+
+        if (!watched.get() && watched.compareAndSet(false, true)) {
+
+            Watcher.watch(this);
+        }
+
+        return derived;
+    }
+
     /**
      * Get a stream of all annotation assertion axioms associated to an entity.
      *
@@ -61,6 +313,12 @@ public class OSCOntology {
      */
     private Stream<OWLAnnotationAssertionAxiom> filteredAnnotationAssertions(final OWLEntity entity, final IRI iri) {
 
+        OSCAnnotationIndex index = this.index();
+        if (index != null) {
+
+            return index.assertions(entity.getIRI(), iri);
+        }
+
         OWLEntity property = factory.getOWLAnnotationProperty(iri);
 
         return this.annotationAssertions(entity)
@@ -83,6 +341,12 @@ public class OSCOntology {
 //       OWLEntity property = factory.getOWLAnnotationProperty(iri);
 //        return this.annotationAssertions(entity)
 //                .anyMatch(a -> a.containsEntityInSignature(property));
+        OSCAnnotationIndex index = this.index();
+        if (index != null) {
+
+            return index.contains(entity.getIRI(), iri);
+        }
+
         return this.filteredAnnotationAssertions(entity, iri).count() != 0;
     }
 
@@ -110,11 +374,139 @@ public class OSCOntology {
                 .map(OWLLiteral.class::cast);
     }
 
+    /**
+     * Fetch all annotations of a class at once.
+     *
+     * @param classe
+     * @return {@link OSCClassSnapshot}
+     */
+    public OSCClassSnapshot snapshot(final OWLClass classe) {
+
+        Map<IRI, List<OWLAnnotationValue>> annotations;
+        OSCAnnotationIndex index = this.index();
+        if (index != null) {
+
+            annotations = index.values(classe.getIRI());
+        } else {
+
+            annotations = this.annotationAssertions(classe)
+                    .collect(Collectors.groupingBy(a -> a.getProperty().getIRI(),
+                            Collectors.mapping(a -> a.getAnnotation().getValue(), Collectors.toList())));
+        }
+
+        return OSCClassSnapshot.getInstance(classe, annotations);
+    }
+
     public String getPreferredLabel(final OWLEntity entity, final String language) {
 
+        // in indexed mode labels of classes are read from the label table
+        if (indexed && entity.isOWLClass()) {
+
+            return this.getLabelTable().getLabel(entity.asOWLClass(), language);
+        }
+
         return this.preferredLabels(entity)
                 .filter(literal -> literal.hasLang(language))
                 .map(OWLLiteral::getLiteral)
                 .findAny().orElse(null);
     }
+
+    /**
+     * Structures derived from one version of the ontology.
+     */
+    private static final class Derived {
+
+        private volatile OSCAnnotationIndex index;
+        private volatile OSCClassIds classIds;
+        private volatile OSCLabelTable labelTable;
+        private volatile OSCHierarchy hierarchy;
+        private volatile OSCRestrictionIndex restrictions;
+        private final Map<OSCClassViews, OSCClassView> views = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Change listener of a manager, shared by the wrappers of its ontologies.
+     *
+     * The wrappers are held weakly, so a wrapper no longer used is collected
+     * and forgotten at the next registration: wrapping an ontology again and
+     * again does not grow the listeners of its manager.
+     */
+    private static final class Watcher implements OWLOntologyChangeListener {
+
+        private static final Map<OWLOntologyManager, Watcher> WATCHERS = new WeakHashMap<>();
+
+        private final List<WeakReference<OSCOntology>> wrappers = new ArrayList<>();
+
+        private static void watch(final OSCOntology wrapper) {
+
+            OWLOntologyManager manager = wrapper.ontology.getOWLOntologyManager();
+            Watcher watcher;
+            synchronized (WATCHERS) {
+
+                watcher = WATCHERS.get(manager);
+                if (watcher == null) {
+
+                    watcher = new Watcher();
+                    WATCHERS.put(manager, watcher);
+                    manager.addOntologyChangeListener(watcher);
+                }
+            }
+            watcher.add(wrapper);
+        }
+
+        private synchronized void add(final OSCOntology wrapper) {
+
+            wrappers.removeIf(r -> r.get() == null);
+            wrappers.add(new WeakReference<>(wrapper));
+        }
+
+        /**
+         * @return number of wrappers not collected yet.
+         */
+        private synchronized int size() {
+
+            wrappers.removeIf(r -> r.get() == null);
+
+            return wrappers.size();
+        }
+
+        @Override
+        public void ontologiesChanged(final List<? extends OWLOntologyChange> changes) {
+
+            Set<OWLOntology> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+            changes.forEach(c -> changed.add(c.getOntology()));
+
+            List<OSCOntology> dropped = new ArrayList<>();
+            synchronized (this) {
+
+                for (WeakReference<OSCOntology> reference : wrappers) {
+
+                    OSCOntology wrapper = reference.get();
+                    if (wrapper != null && changed.contains(wrapper.ontology)) {
+
+                        dropped.add(wrapper);
+                    }
+                }
+            }
+            dropped.forEach(w -> w.derived = new Derived());
+        }
+    }
+
+    /**
+     * Get the number of live wrappers watching the ontologies of a manager,
+     * for tests.
+     *
+     * @param manager
+     * @return
+     */
+    static int watching(final OWLOntologyManager manager) {
+
+        Watcher watcher;
+        synchronized (Watcher.WATCHERS) {
+
+            watcher = Watcher.WATCHERS.get(manager);
+        }
+
+        return watcher == null ? 0 : watcher.size();
+    }
 }
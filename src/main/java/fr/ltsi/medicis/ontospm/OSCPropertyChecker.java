@@ -0,0 +1,83 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rule engine running a set of property rules on an {@link OSCAxiomScan}.
+ *
+ * The ontology is scanned once; every applicable rule is then checked against
+ * the snapshot of each object and data property, as {@link OSCChecker} does
+ * for classes.
+ *
+ * @author javier
+ */
+public final class OSCPropertyChecker {
+
+    private final List<OSCPropertyRule> rules;
+
+    private OSCPropertyChecker(final Collection<? extends OSCPropertyRule> rules) {
+
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    public static OSCPropertyChecker getInstance(final Collection<? extends OSCPropertyRule> rules) {
+
+        return new OSCPropertyChecker(rules);
+    }
+
+    /**
+     * @return a checker running all {@link OSCPropertyRules}.
+     */
+    public static OSCPropertyChecker getInstance() {
+
+        return getInstance(Arrays.asList(OSCPropertyRules.values()));
+    }
+
+    public List<OSCPropertyRule> getRules() {
+
+        return rules;
+    }
+
+    /**
+     * Scan and check all properties of an ontology.
+     *
+     * @param ontology
+     * @return the report; violations are ordered by property
+     * {@link org.semanticweb.owlapi.model.IRI}, then by rule.
+     */
+    public OSCReport check(final OSCOntology ontology) {
+
+        return this.check(OSCAxiomScan.getInstance(ontology.getOntology()));
+    }
+
+    /**
+     * Check all properties of a scan.
+     *
+     * @param scan
+     * @return the report; violations are ordered by property
+     * {@link org.semanticweb.owlapi.model.IRI}, then by rule.
+     */
+    public OSCReport check(final OSCAxiomScan scan) {
+
+        OSCMetrics.Probe probe = OSCMetrics.getInstance().start("check:properties");
+        List<OSCViolation> violations = new ArrayList<>();
+
+        for (OSCPropertySnapshot snapshot : scan.getProperties()) {
+
+            for (OSCPropertyRule rule : rules) {
+
+                if (rule.isApplicable(snapshot)) {
+
+                    rule.check(snapshot).ifPresent(violations::add);
+                }
+            }
+        }
+        probe.stop(scan.getProperties().size());
+
+        return OSCReport.getInstance(violations, scan.getProperties().size());
+    }
+}
@@ -0,0 +1,35 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Optional;
+
+/**
+ * A check run against a single object or data property, as
+ * {@link OSCClassRule} for classes.
+ *
+ * Rules must be stateless.
+ *
+ * @author javier
+ */
+public interface OSCPropertyRule {
+
+    /**
+     * @return unique identifier of the rule.
+     */
+    String getId();
+
+    OSCSeverity getSeverity();
+
+    /**
+     * @param snapshot
+     * @return true iff the rule has to be checked against the property.
+     */
+    boolean isApplicable(OSCPropertySnapshot snapshot);
+
+    /**
+     * Check the rule.
+     *
+     * @param snapshot
+     * @return the violation, or an empty optional if the property passes.
+     */
+    Optional<OSCViolation> check(OSCPropertySnapshot snapshot);
+}
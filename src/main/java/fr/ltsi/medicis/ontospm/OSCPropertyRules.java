@@ -0,0 +1,125 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Object and data property rules of the OntoSPM sanity check.
+ *
+ * Except {@link #DEPRECATED_IN_RESTRICTION}, rules are checked on properties
+ * that are not deprecated and are defined in OntoSPM.
+ *
+ * @author javier
+ */
+public enum OSCPropertyRules implements OSCPropertyRule {
+
+    ALL_LABELS("property-all-labels", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCPropertySnapshot snapshot) {
+
+            int count = snapshot.getPreferredLabels().size();
+
+            return count == 3
+                    ? Optional.empty()
+                    : this.violation(snapshot, snapshot.getIRI() + " has " + count + " preferred labels instead of 3.", Integer.toString(count));
+        }
+    },
+    DEFINITION("property-definition", OSCSeverity.ERROR, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCPropertySnapshot snapshot) {
+
+            return snapshot.hasAnnotation(OSCClassRules.IAO_DEFINITION)
+                    ? Optional.empty()
+                    : this.violation(snapshot, "Property " + snapshot.getIRI() + " has no definition.", null);
+        }
+    },
+    DOMAIN("property-domain", OSCSeverity.WARNING, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCPropertySnapshot snapshot) {
+
+            return snapshot.getDomainCount() > 0
+                    ? Optional.empty()
+                    : this.violation(snapshot, "Property " + snapshot.getIRI() + " has no domain.", null);
+        }
+    },
+    RANGE("property-range", OSCSeverity.WARNING, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCPropertySnapshot snapshot) {
+
+            return snapshot.getRangeCount() > 0
+                    ? Optional.empty()
+                    : this.violation(snapshot, "Property " + snapshot.getIRI() + " has no range.", null);
+        }
+    },
+    UNUSED("unused-property", OSCSeverity.WARNING, Scope.LIVE) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCPropertySnapshot snapshot) {
+
+            return snapshot.getUseCount() > 0
+                    ? Optional.empty()
+                    : this.violation(snapshot, "Property " + snapshot.getIRI() + " is not used in any class expression or assertion.", null);
+        }
+    },
+    DEPRECATED_IN_RESTRICTION("deprecated-property-in-restriction", OSCSeverity.ERROR, OSCPropertySnapshot::isDeprecated) {
+
+        @Override
+        public Optional<OSCViolation> check(final OSCPropertySnapshot snapshot) {
+
+            int count = snapshot.getRestrictionCount();
+
+            return count == 0
+                    ? Optional.empty()
+                    : this.violation(snapshot, "Deprecated property " + snapshot.getIRI() + " is used in " + count + " restrictions.", Integer.toString(count));
+        }
+    };
+
+    private final String id;
+    private final OSCSeverity severity;
+    private final Predicate<OSCPropertySnapshot> scope;
+
+    private OSCPropertyRules(final String id, final OSCSeverity severity, final Predicate<OSCPropertySnapshot> scope) {
+
+        this.id = id;
+        this.severity = severity;
+        this.scope = scope;
+    }
+
+    @Override
+    public String getId() {
+
+        return id;
+    }
+
+    @Override
+    public OSCSeverity getSeverity() {
+
+        return severity;
+    }
+
+    @Override
+    public boolean isApplicable(final OSCPropertySnapshot snapshot) {
+
+        return scope.test(snapshot);
+    }
+
+    Optional<OSCViolation> violation(final OSCPropertySnapshot snapshot, final String message, final String evidence) {
+
+        return Optional.of(OSCViolation.getInstance(id, snapshot.getIRI(), severity, message, evidence));
+    }
+
+    /**
+     * Properties checked by the rules.
+     */
+    private static final class Scope {
+
+        /**
+         * Properties that are not deprecated and are defined in OntoSPM.
+         */
+        private static final Predicate<OSCPropertySnapshot> LIVE = s -> s.isOntoSPM() && !s.isDeprecated();
+    }
+}
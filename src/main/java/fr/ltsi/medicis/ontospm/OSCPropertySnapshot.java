@@ -0,0 +1,145 @@
+package fr.ltsi.medicis.ontospm;
+
+import static fr.ltsi.medicis.ontospm.OSCOntology.NAMESPACE;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+
+/**
+ * Annotations and usage of an object or data property, collected by
+ * {@link OSCAxiomScan} and shared by all property rules.
+ *
+ * @author javier
+ */
+public final class OSCPropertySnapshot {
+
+    private final OWLEntity property;
+    private final Map<IRI, List<OWLAnnotationValue>> annotations;
+    private final List<OWLLiteral> preferredLabels;
+    private final int domains;
+    private final int ranges;
+    private final int uses;
+    private final int restrictions;
+
+    private OSCPropertySnapshot(final OWLEntity property, final Map<IRI, List<OWLAnnotationValue>> annotations, final int domains, final int ranges, final int uses, final int restrictions) {
+
+        this.property = property;
+        this.annotations = annotations;
+        this.domains = domains;
+        this.ranges = ranges;
+        this.uses = uses;
+        this.restrictions = restrictions;
+        this.preferredLabels = this.values(SKOSVocabulary.PREFLABEL.getIRI()).stream()
+                .filter(OWLLiteral.class::isInstance)
+                .map(OWLLiteral.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Create a snapshot.
+     *
+     * @param property
+     * @param annotations annotation values grouped by annotation property; it
+     * must not be modified afterwards.
+     * @param domains number of domain axioms.
+     * @param ranges number of range axioms.
+     * @param uses number of class expressions and assertions using the
+     * property.
+     * @param restrictions number of restrictions on the property.
+     * @return
+     */
+    static OSCPropertySnapshot getInstance(final OWLEntity property, final Map<IRI, List<OWLAnnotationValue>> annotations, final int domains, final int ranges, final int uses, final int restrictions) {
+
+        return new OSCPropertySnapshot(property, annotations, domains, ranges, uses, restrictions);
+    }
+
+    /**
+     * @return the {@link org.semanticweb.owlapi.model.OWLObjectProperty} or
+     * {@link org.semanticweb.owlapi.model.OWLDataProperty}.
+     */
+    public OWLEntity getProperty() {
+
+        return property;
+    }
+
+    public IRI getIRI() {
+
+        return property.getIRI();
+    }
+
+    public boolean isObjectProperty() {
+
+        return property.isOWLObjectProperty();
+    }
+
+    /**
+     * @return true iff the property is defined in the OntoSPM namespace.
+     */
+    public boolean isOntoSPM() {
+
+        return NAMESPACE.equals(property.getIRI().getNamespace());
+    }
+
+    public boolean isDeprecated() {
+
+        return this.hasAnnotation(OWLRDFVocabulary.OWL_DEPRECATED.getIRI());
+    }
+
+    public boolean hasAnnotation(final IRI iri) {
+
+        return annotations.containsKey(iri);
+    }
+
+    public List<OWLAnnotationValue> values(final IRI iri) {
+
+        return annotations.getOrDefault(iri, Collections.emptyList());
+    }
+
+    public List<OWLLiteral> getPreferredLabels() {
+
+        return preferredLabels;
+    }
+
+    public String getPreferredLabel(final String language) {
+
+        return preferredLabels.stream()
+                .filter(literal -> literal.hasLang(language))
+                .map(OWLLiteral::getLiteral)
+                .findAny().orElse(null);
+    }
+
+    public int getDomainCount() {
+
+        return domains;
+    }
+
+    public int getRangeCount() {
+
+        return ranges;
+    }
+
+    /**
+     * @return number of class expressions and individual assertions using
+     * the property; property hierarchy axioms do not count.
+     */
+    public int getUseCount() {
+
+        return uses;
+    }
+
+    /**
+     * @return number of restrictions (some, all, value, cardinality) on the
+     * property.
+     */
+    public int getRestrictionCount() {
+
+        return restrictions;
+    }
+}
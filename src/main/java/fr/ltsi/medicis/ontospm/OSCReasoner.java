@@ -0,0 +1,298 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.semanticweb.HermiT.ReasonerFactory;
+import org.semanticweb.owlapi.model.HasIRI;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.SimpleConfiguration;
+import org.semanticweb.owlapi.reasoner.TimeOutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reasoning stage classifying an ontology with its imports closure.
+ *
+ * The reasoner is given by an {@link OWLReasonerFactory}, HermiT by default,
+ * and runs within a time budget; the OWLAPI structural reasoner only follows
+ * asserted axioms and never finds an unsatisfiable class. When a
+ * directory is set, the classification is stored there, keyed by the
+ * reasoner and the fingerprint of the logical content of the ontology (see
+ * {@link OSCFingerprint#ofLogicalAxioms}): a later classification of an
+ * unchanged ontology, even with edited annotations, is read back without
+ * reasoning.
+ *
+ * @author javier
+ */
+public class OSCReasoner {
+
+    /**
+     * Default time budget, in milliseconds.
+     */
+    public static final long BUDGET = 60000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OSCReasoner.class);
+    private static final int MAGIC = 0x4f534302;
+    private static final String SUFFIX = ".cls";
+
+    private final OWLReasonerFactory factory;
+    private final long budget;
+    private final Path directory;
+
+    private OSCReasoner(final OWLReasonerFactory factory, final long budget, final Path directory) {
+
+        this.factory = factory;
+        this.budget = budget;
+        this.directory = directory;
+    }
+
+    /**
+     * @param factory
+     * @param budget time budget, in milliseconds.
+     * @param directory directory of the stored classifications, or null to
+     * always reason.
+     * @return
+     */
+    public static OSCReasoner getInstance(final OWLReasonerFactory factory, final long budget, final Path directory) {
+
+        return new OSCReasoner(factory, budget, directory);
+    }
+
+    /**
+     * @return a HermiT reasoner with the default budget, storing its
+     * classifications in the directory of the default
+     * {@link OSCSnapshotCache}, if any.
+     */
+    public static OSCReasoner getInstance() {
+
+        OSCSnapshotCache cache = OSCSnapshotCache.getDefaultInstance();
+
+        return getInstance(new ReasonerFactory(), BUDGET, cache == null ? null : cache.getDirectory());
+    }
+
+    public OWLReasonerFactory getFactory() {
+
+        return factory;
+    }
+
+    public long getBudget() {
+
+        return budget;
+    }
+
+    /**
+     * Classify an ontology, or read its stored classification.
+     *
+     * @param ontology
+     * @return the classification, or an empty optional if the reasoner did
+     * not finish within the budget.
+     */
+    public Optional<OSCClassification> classify(final OWLOntology ontology) {
+
+        if (directory == null) {
+
+            return this.reason(ontology);
+        }
+
+        Path entry = this.entry(ontology);
+        Optional<OSCClassification> result = load(entry);
+        if (!result.isPresent()) {
+
+            result = this.reason(ontology);
+            result.ifPresent(c -> this.store(entry, c));
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the stored classification entry of an ontology.
+     *
+     * @param ontology
+     * @return
+     */
+    Path entry(final OWLOntology ontology) {
+
+        String reasoner = factory.getReasonerName().replaceAll("[^A-Za-z0-9]+", "_");
+        String fingerprint = Long.toHexString(OSCFingerprint.ofLogicalAxioms(ontology));
+
+        return directory.resolve(reasoner + "-" + fingerprint + SUFFIX);
+    }
+
+    private Optional<OSCClassification> reason(final OWLOntology ontology) {
+
+        OWLReasoner reasoner = factory.createReasoner(ontology, new SimpleConfiguration(budget));
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+
+            Thread thread = new Thread(r, "osc-reasoner");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        Future<OSCClassification> future = executor.submit(() -> classify(reasoner, ontology));
+
+        try {
+
+            return Optional.of(future.get(budget, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+
+            reasoner.interrupt();
+            future.cancel(true);
+            LOGGER.warn("{} did not classify {} within {} ms", factory.getReasonerName(), ontology.getOntologyID(), budget);
+
+            return Optional.empty();
+        } catch (ExecutionException e) {
+
+            if (e.getCause() instanceof TimeOutException || e.getCause() instanceof ReasonerInterruptedException) {
+
+                LOGGER.warn("{} did not classify {} within {} ms", factory.getReasonerName(), ontology.getOntologyID(), budget);
+
+                return Optional.empty();
+            }
+
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+
+            reasoner.interrupt();
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+
+            executor.shutdownNow();
+            dispose(reasoner, executor);
+        }
+    }
+
+    /**
+     * Dispose a reasoner once the worker using it has stopped; a worker that
+     * does not stop keeps its reasoner, which is then left to the garbage
+     * collector rather than disposed under it.
+     *
+     * @param reasoner
+     * @param executor
+     */
+    private void dispose(final OWLReasoner reasoner, final ExecutorService executor) {
+
+        boolean interrupted = Thread.interrupted();
+
+        try {
+
+            if (executor.awaitTermination(budget, TimeUnit.MILLISECONDS)) {
+
+                reasoner.dispose();
+            } else {
+
+                LOGGER.warn("{} did not stop within {} ms, not disposed", factory.getReasonerName(), budget);
+            }
+        } catch (InterruptedException e) {
+
+            interrupted = true;
+        } finally {
+
+            if (interrupted) {
+
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private OSCClassification classify(final OWLReasoner reasoner, final OWLOntology ontology) {
+
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+
+        // the bottom node of some reasoners (e.g. the structural one) misses
+        // classes that are nonetheless reported as unsatisfiable
+        Set<IRI> unsatisfiable = reasoner.getUnsatisfiableClasses().getEntitiesMinusBottom().stream()
+                .map(HasIRI::getIRI)
+                .collect(Collectors.toCollection(HashSet::new));
+        ontology.classesInSignature(Imports.INCLUDED)
+                .filter(c -> !c.isOWLNothing() && !reasoner.isSatisfiable(c))
+                .forEach(c -> unsatisfiable.add(c.getIRI()));
+
+        Map<IRI, Set<IRI>> superClasses = new HashMap<>();
+        ontology.classesInSignature(Imports.INCLUDED)
+                .filter(c -> !c.isOWLThing() && !c.isOWLNothing() && !unsatisfiable.contains(c.getIRI()))
+                .forEach(c -> superClasses.put(c.getIRI(), reasoner.getSuperClasses(c, true).entities()
+                .filter(s -> !s.isOWLThing())
+                .map(OWLClass::getIRI)
+                .collect(Collectors.toSet())));
+
+        return OSCClassification.getInstance(factory.getReasonerName(), unsatisfiable, superClasses);
+    }
+
+    private static Optional<OSCClassification> load(final Path entry) {
+
+        if (!Files.isRegularFile(entry)) {
+
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(entry))))) {
+
+            if (in.readInt() != MAGIC) {
+
+                return Optional.empty();
+            }
+
+            return Optional.of(OSCClassification.read(in));
+        } catch (IOException e) {
+
+            LOGGER.warn("Ignoring unreadable classification {}: {}", entry, e.toString());
+
+            return Optional.empty();
+        }
+    }
+
+    private void store(final Path entry, final OSCClassification classification) {
+
+        try {
+
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+
+            try {
+
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temporary))))) {
+
+                    out.writeInt(MAGIC);
+                    classification.write(out);
+                }
+                Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+
+            LOGGER.warn("Cannot store classification {}: {}", entry, e.toString());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.HasIRI;
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * Immutable result of a check run.
+ *
+ * Violations are kept in the order they are given, and can be looked up by
+ * rule and entity. A report of a run stopped at a deadline states its
+ * {@link OSCCoverage}.
+ *
+ * @author javier
+ */
+public final class OSCReport {
+
+    private final List<OSCViolation> violations;
+    private final Map<String, Map<IRI, OSCViolation>> table;
+    private final long visited;
+    private final OSCCoverage coverage;
+
+    private OSCReport(final List<OSCViolation> violations, final long visited, final OSCCoverage coverage) {
+
+        this.violations = Collections.unmodifiableList(violations);
+        this.visited = visited;
+        this.coverage = coverage;
+
+        Map<String, Map<IRI, OSCViolation>> builder = new HashMap<>();
+        violations.forEach(v -> builder
+                .computeIfAbsent(v.getRule(), k -> new HashMap<>())
+                .putIfAbsent(v.getIRI(), v));
+        this.table = builder;
+    }
+
+    /**
+     * Create a report.
+     *
+     * @param violations violations, in report order; the list must not be
+     * modified afterwards.
+     * @param visited number of entities checked.
+     * @return
+     */
+    static OSCReport getInstance(final List<OSCViolation> violations, final long visited) {
+
+        return new OSCReport(violations, visited, null);
+    }
+
+    /**
+     * Create a partial report.
+     *
+     * @param violations violations, in report order; the list must not be
+     * modified afterwards.
+     * @param coverage classes checked before the deadline.
+     * @return
+     */
+    static OSCReport getInstance(final List<OSCViolation> violations, final OSCCoverage coverage) {
+
+        return new OSCReport(violations, coverage.getChecked(), coverage);
+    }
+
+    public Stream<OSCViolation> violations() {
+
+        return violations.stream();
+    }
+
+    public Stream<OSCViolation> violations(final OSCClassRule rule) {
+
+        return this.violations()
+                .filter(v -> v.getRule().equals(rule.getId()));
+    }
+
+    public Stream<OSCViolation> violations(final OSCPropertyRule rule) {
+
+        return this.violations()
+                .filter(v -> v.getRule().equals(rule.getId()));
+    }
+
+    public List<OSCViolation> getViolations() {
+
+        return violations;
+    }
+
+    /**
+     * Get the violation of a rule on an entity.
+     *
+     * @param rule
+     * @param entity
+     * @return the violation, or null if the entity passes the rule (or it was
+     * not checked).
+     */
+    public OSCViolation getViolation(final OSCClassRule rule, final HasIRI entity) {
+
+        return table.getOrDefault(rule.getId(), Collections.emptyMap()).get(entity.getIRI());
+    }
+
+    public boolean hasViolation(final OSCClassRule rule, final HasIRI entity) {
+
+        return this.getViolation(rule, entity) != null;
+    }
+
+    /**
+     * Get the violation of a property rule on a property.
+     *
+     * @param rule
+     * @param entity
+     * @return the violation, or null if the property passes the rule (or it
+     * was not checked).
+     */
+    public OSCViolation getViolation(final OSCPropertyRule rule, final HasIRI entity) {
+
+        return table.getOrDefault(rule.getId(), Collections.emptyMap()).get(entity.getIRI());
+    }
+
+    public boolean hasViolation(final OSCPropertyRule rule, final HasIRI entity) {
+
+        return this.getViolation(rule, entity) != null;
+    }
+
+    public int size() {
+
+        return violations.size();
+    }
+
+    /**
+     * @return number of entities visited by the check run.
+     */
+    public long getVisited() {
+
+        return visited;
+    }
+
+    /**
+     * @return the coverage of a run stopped at a deadline, or null if the run
+     * was not bounded.
+     */
+    public OSCCoverage getCoverage() {
+
+        return coverage;
+    }
+
+    /**
+     * @return true iff all entities were checked.
+     */
+    public boolean isComplete() {
+
+        return coverage == null || coverage.isComplete();
+    }
+}
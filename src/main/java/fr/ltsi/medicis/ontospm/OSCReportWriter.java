@@ -0,0 +1,318 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming writer of violations in a machine readable format.
+ *
+ * Each violation is encoded as soon as it is accepted into a fixed size
+ * buffer, which is written to the channel whenever it is full: the memory
+ * used does not depend on the number of violations. The writer is a
+ * {@link java.util.function.Consumer}, so it can be given directly to
+ * {@link OSCChecker#check(OSCOntology, java.util.function.Consumer)} or
+ * {@link OSCStreamingChecker#check(java.nio.file.Path, java.util.function.Consumer)}.
+ *
+ * @author javier
+ */
+public final class OSCReportWriter implements Consumer<OSCViolation>, Closeable {
+
+    /**
+     * Output format.
+     */
+    public enum Format {
+
+        /**
+         * One JSON object per line and per violation.
+         */
+        JSON_LINES,
+        /**
+         * A SARIF 2.1.0 log with a single run.
+         */
+        SARIF
+    }
+
+    /**
+     * Default buffer size, in bytes.
+     */
+    public static final int BUFFER = 1 << 16;
+
+    private static final String TOOL = "ontospm-checker-owlapi";
+
+    private final WritableByteChannel channel;
+    private final Format format;
+    private final String source;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder record = new StringBuilder(256);
+    private long count;
+
+    private OSCReportWriter(final WritableByteChannel channel, final Format format, final String source, final int capacity) {
+
+        this.channel = channel;
+        this.format = format;
+        this.source = source;
+        this.buffer = ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Create a writer and write the header of the report.
+     *
+     * @param channel target channel, closed with the writer.
+     * @param format
+     * @param rules rules of the run, listed in the SARIF tool description.
+     * @param source URI of the checked document, used as the SARIF artifact
+     * location, or null.
+     * @return
+     */
+    public static OSCReportWriter getInstance(final WritableByteChannel channel, final Format format, final Collection<? extends OSCClassRule> rules, final String source) {
+
+        return getInstance(channel, format, rules, source, BUFFER);
+    }
+
+    static OSCReportWriter getInstance(final WritableByteChannel channel, final Format format, final Collection<? extends OSCClassRule> rules, final String source, final int capacity) {
+
+        OSCReportWriter writer = new OSCReportWriter(channel, format, source, capacity);
+        writer.header(new ArrayList<>(rules));
+
+        return writer;
+    }
+
+    /**
+     * @return number of violations written.
+     */
+    public long getCount() {
+
+        return count;
+    }
+
+    @Override
+    public void accept(final OSCViolation violation) {
+
+        record.setLength(0);
+        if (format == Format.JSON_LINES) {
+
+            json(record, violation).append('\n');
+        } else {
+
+            if (count > 0) {
+
+                record.append(",\n");
+            }
+            record.append("{\"ruleId\":");
+            string(violation.getRule());
+            record.append(",\"level\":");
+            string(level(violation.getSeverity()));
+            record.append(",\"message\":{\"text\":");
+            string(violation.getMessage());
+            record.append("},\"locations\":[{");
+            if (source != null) {
+
+                record.append("\"physicalLocation\":{\"artifactLocation\":{\"uri\":");
+                string(source);
+                record.append("}},");
+            }
+            record.append("\"logicalLocations\":[{\"fullyQualifiedName\":");
+            string(violation.getIRI().toString());
+            record.append(",\"kind\":\"type\"}]}]");
+            if (violation.getEvidence() != null) {
+
+                record.append(",\"properties\":{\"evidence\":");
+                string(violation.getEvidence());
+                record.append('}');
+            }
+            record.append('}');
+        }
+        count++;
+        this.write(record);
+    }
+
+    /**
+     * Write the footer of the report, flush the buffer and close the channel.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close()
+            throws
+            IOException {
+
+        try {
+
+            if (format == Format.SARIF) {
+
+                this.write("]}]}\n");
+            }
+            encoder.encode(CharBuffer.allocate(0), buffer, true);
+            encoder.flush(buffer);
+            this.drain();
+        } catch (UncheckedIOException e) {
+
+            throw e.getCause();
+        } finally {
+
+            channel.close();
+        }
+    }
+
+    private void header(final List<OSCClassRule> rules) {
+
+        if (format == Format.SARIF) {
+
+            record.setLength(0);
+            record.append("{\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\",\"version\":\"2.1.0\",\"runs\":[{\"tool\":{\"driver\":{\"name\":");
+            string(TOOL);
+            record.append(",\"rules\":[");
+            for (int i = 0; i < rules.size(); i++) {
+
+                record.append(i == 0 ? "{\"id\":" : ",{\"id\":");
+                string(rules.get(i).getId());
+                record.append(",\"defaultConfiguration\":{\"level\":");
+                string(level(rules.get(i).getSeverity()));
+                record.append("}}");
+            }
+            record.append("]}},\"results\":[\n");
+            this.write(record);
+        }
+    }
+
+    private static String level(final OSCSeverity severity) {
+
+        switch (severity) {
+
+            case ERROR:
+                return "error";
+            case WARNING:
+                return "warning";
+            default:
+                return "note";
+        }
+    }
+
+    /**
+     * Append a violation as a JSON object.
+     *
+     * @param record
+     * @param violation
+     * @return the record.
+     */
+    static StringBuilder json(final StringBuilder record, final OSCViolation violation) {
+
+        record.append("{\"rule\":");
+        quote(record, violation.getRule());
+        record.append(",\"iri\":");
+        quote(record, violation.getIRI().toString());
+        record.append(",\"severity\":");
+        quote(record, violation.getSeverity().name());
+        record.append(",\"message\":");
+        quote(record, violation.getMessage());
+        record.append(",\"evidence\":");
+        quote(record, violation.getEvidence());
+
+        return record.append('}');
+    }
+
+    private void string(final String value) {
+
+        quote(record, value);
+    }
+
+    /**
+     * Append a JSON string, or null.
+     *
+     * @param record
+     * @param value
+     * @return the record.
+     */
+    static StringBuilder quote(final StringBuilder record, final String value) {
+
+        if (value == null) {
+
+            return record.append("null");
+        }
+
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+
+            char c = value.charAt(i);
+            switch (c) {
+
+                case '"':
+                    record.append("\\\"");
+                    break;
+                case '\\':
+                    record.append("\\\\");
+                    break;
+                case '\n':
+                    record.append("\\n");
+                    break;
+                case '\r':
+                    record.append("\\r");
+                    break;
+                case '\t':
+                    record.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+
+                        record.append(String.format("\\u%04x", (int) c));
+                    } else {
+
+                        record.append(c);
+                    }
+            }
+        }
+
+        return record.append('"');
+    }
+
+    /**
+     * Encode characters into the buffer, writing the buffer to the channel
+     * each time it is full.
+     */
+    private void write(final CharSequence chars) {
+
+        CharBuffer in = CharBuffer.wrap(chars);
+        while (true) {
+
+            CoderResult result = encoder.encode(in, buffer, false);
+            if (result.isOverflow()) {
+
+                this.drain();
+            } else if (result.isUnderflow()) {
+
+                return;
+            } else {
+
+                throw new IllegalStateException(result.toString());
+            }
+        }
+    }
+
+    private void drain() {
+
+        buffer.flip();
+        try {
+
+            while (buffer.hasRemaining()) {
+
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}
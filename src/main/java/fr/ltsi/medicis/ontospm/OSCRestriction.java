@@ -0,0 +1,108 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Objects;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.ClassExpressionType;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+
+/**
+ * An existential or universal restriction with a named filler, asserted on a
+ * class by a <code>SubClassOf</code> or an <code>EquivalentClasses</code>
+ * axiom.
+ *
+ * @author javier
+ */
+public final class OSCRestriction {
+
+    private final OWLClass owlClass;
+    private final OWLObjectPropertyExpression property;
+    private final ClassExpressionType quantifier;
+    private final OWLClass filler;
+    private final AxiomType<?> axiomType;
+
+    private OSCRestriction(final OWLClass owlClass, final OWLObjectPropertyExpression property, final ClassExpressionType quantifier, final OWLClass filler, final AxiomType<?> axiomType) {
+
+        this.owlClass = Objects.requireNonNull(owlClass);
+        this.property = Objects.requireNonNull(property);
+        this.quantifier = Objects.requireNonNull(quantifier);
+        this.filler = Objects.requireNonNull(filler);
+        this.axiomType = Objects.requireNonNull(axiomType);
+    }
+
+    /**
+     * Create a restriction.
+     *
+     * @param owlClass restricted class.
+     * @param property
+     * @param quantifier
+     * {@link org.semanticweb.owlapi.model.ClassExpressionType#OBJECT_SOME_VALUES_FROM}
+     * or
+     * {@link org.semanticweb.owlapi.model.ClassExpressionType#OBJECT_ALL_VALUES_FROM}.
+     * @param filler
+     * @param axiomType type of the axiom asserting the restriction.
+     * @return
+     */
+    static OSCRestriction getInstance(final OWLClass owlClass, final OWLObjectPropertyExpression property, final ClassExpressionType quantifier, final OWLClass filler, final AxiomType<?> axiomType) {
+
+        return new OSCRestriction(owlClass, property, quantifier, filler, axiomType);
+    }
+
+    public OWLClass getOWLClass() {
+
+        return owlClass;
+    }
+
+    public OWLObjectPropertyExpression getProperty() {
+
+        return property;
+    }
+
+    public ClassExpressionType getQuantifier() {
+
+        return quantifier;
+    }
+
+    public OWLClass getFiller() {
+
+        return filler;
+    }
+
+    public AxiomType<?> getAxiomType() {
+
+        return axiomType;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+
+        if (this == object) {
+
+            return true;
+        }
+        if (!(object instanceof OSCRestriction)) {
+
+            return false;
+        }
+
+        OSCRestriction other = (OSCRestriction) object;
+
+        return owlClass.equals(other.owlClass)
+                && property.equals(other.property)
+                && quantifier == other.quantifier
+                && filler.equals(other.filler)
+                && axiomType.equals(other.axiomType);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return Objects.hash(owlClass, property, quantifier, filler, axiomType);
+    }
+
+    @Override
+    public String toString() {
+
+        return owlClass + " " + axiomType + " " + quantifier + "(" + property + " " + filler + ")";
+    }
+}
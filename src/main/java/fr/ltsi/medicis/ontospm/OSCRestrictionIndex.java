@@ -0,0 +1,121 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.ClassExpressionType;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLQuantifiedObjectRestriction;
+
+/**
+ * Immutable class &harr; restriction filler table.
+ *
+ * The table is built with a single pass over the <code>SubClassOf</code> and
+ * <code>EquivalentClasses</code> axioms of an ontology. For a named class
+ * <code>C</code>, every conjunct of a super class or of an equivalent class of
+ * <code>C</code> that is an <code>ObjectSomeValuesFrom</code> or an
+ * <code>ObjectAllValuesFrom</code> with a named filler is indexed, both by
+ * <code>C</code> and by the filler.
+ *
+ * @author javier
+ */
+public final class OSCRestrictionIndex {
+
+    private final Map<OWLClass, List<OSCRestriction>> classes;
+    private final Map<OWLClass, List<OSCRestriction>> fillers;
+
+    private OSCRestrictionIndex(final Map<OWLClass, List<OSCRestriction>> classes, final Map<OWLClass, List<OSCRestriction>> fillers) {
+
+        this.classes = classes;
+        this.fillers = fillers;
+    }
+
+    /**
+     * Build the restriction index of an ontology.
+     *
+     * @param ontology
+     * @return
+     */
+    static OSCRestrictionIndex getInstance(final OWLOntology ontology) {
+
+        Map<OWLClass, List<OSCRestriction>> classes = new HashMap<>();
+        Map<OWLClass, List<OSCRestriction>> fillers = new HashMap<>();
+        Consumer<OSCRestriction> add = r -> {
+
+            classes.computeIfAbsent(r.getOWLClass(), k -> new ArrayList<>(2)).add(r);
+            fillers.computeIfAbsent(r.getFiller(), k -> new ArrayList<>(2)).add(r);
+        };
+
+        ontology.axioms(AxiomType.SUBCLASS_OF)
+                .filter(a -> !a.getSubClass().isAnonymous())
+                .forEach(a -> restrictions(a.getSubClass().asOWLClass(), a.getSuperClass(), AxiomType.SUBCLASS_OF)
+                .forEach(add));
+
+        ontology.axioms(AxiomType.EQUIVALENT_CLASSES)
+                .forEach(a -> a.namedClasses()
+                .forEach(c -> a.classExpressions()
+                .filter(OWLClassExpression::isAnonymous)
+                .flatMap(e -> restrictions(c, e, AxiomType.EQUIVALENT_CLASSES))
+                .forEach(add)));
+
+        classes.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        fillers.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+        return new OSCRestrictionIndex(Collections.unmodifiableMap(classes), Collections.unmodifiableMap(fillers));
+    }
+
+    private static Stream<OSCRestriction> restrictions(final OWLClass owlClass, final OWLClassExpression expression, final AxiomType<?> axiomType) {
+
+        return expression.asConjunctSet().stream()
+                .filter(e -> e.getClassExpressionType() == ClassExpressionType.OBJECT_SOME_VALUES_FROM
+                || e.getClassExpressionType() == ClassExpressionType.OBJECT_ALL_VALUES_FROM)
+                .map(e -> (OWLQuantifiedObjectRestriction) e)
+                .filter(r -> !r.getFiller().isAnonymous())
+                .map(r -> OSCRestriction.getInstance(owlClass, r.getProperty(), r.getClassExpressionType(), r.getFiller().asOWLClass(), axiomType));
+    }
+
+    /**
+     * Get the restrictions asserted on a class.
+     *
+     * @param owlClass
+     * @return {@link java.util.stream.Stream} of {@link OSCRestriction}
+     */
+    public Stream<OSCRestriction> restrictions(final OWLClass owlClass) {
+
+        return classes.getOrDefault(owlClass, Collections.emptyList()).stream();
+    }
+
+    /**
+     * Get the restrictions whose filler is a class.
+     *
+     * @param filler
+     * @return {@link java.util.stream.Stream} of {@link OSCRestriction}
+     */
+    public Stream<OSCRestriction> restricting(final OWLClass filler) {
+
+        return fillers.getOrDefault(filler, Collections.emptyList()).stream();
+    }
+
+    /**
+     * @return classes with at least one restriction.
+     */
+    public Stream<OWLClass> classes() {
+
+        return classes.keySet().stream();
+    }
+
+    /**
+     * @return classes used as filler of at least one restriction.
+     */
+    public Stream<OWLClass> fillers() {
+
+        return fillers.keySet().stream();
+    }
+}
@@ -0,0 +1,13 @@
+package fr.ltsi.medicis.ontospm;
+
+/**
+ * Severity of a rule violation.
+ *
+ * @author javier
+ */
+public enum OSCSeverity {
+
+    ERROR,
+    WARNING,
+    INFO
+}
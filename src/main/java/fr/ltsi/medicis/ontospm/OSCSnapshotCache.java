@@ -0,0 +1,256 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.functional.renderer.FunctionalSyntaxObjectRenderer;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.util.VersionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Snapshots of loaded ontologies.
+ *
+ * A snapshot is the compressed OWL functional syntax rendering of an
+ * ontology, stored in a cache directory with one entry per source file: a
+ * plain format, read by the OWLAPI parser straight into the target manager,
+ * and faster to parse than the RDF/XML source. Imports are not resolved when
+ * a snapshot is read. Each entry records the
+ * SHA-256 digest of the source file content together with the loader
+ * configuration key: an entry that does not match the current source file or
+ * configuration is stale, and is rebuilt on the next store.
+ *
+ * @author javier
+ */
+public class OSCSnapshotCache {
+
+    /**
+     * System property naming the default cache directory.
+     */
+    public static final String PROPERTY = "osc.cache";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OSCSnapshotCache.class);
+    private static final int MAGIC = 0x4f534303;
+    private static final String SUFFIX = ".osc";
+
+    private final Path directory;
+
+    private OSCSnapshotCache(final Path directory) {
+
+        this.directory = directory;
+    }
+
+    public static OSCSnapshotCache getInstance(final Path directory) {
+
+        return new OSCSnapshotCache(directory);
+    }
+
+    /**
+     * Get the cache configured with the system property {@value #PROPERTY}.
+     *
+     * @return the cache, or null if the property is not set.
+     */
+    public static OSCSnapshotCache getDefaultInstance() {
+
+        String directory = System.getProperty(PROPERTY);
+
+        return directory == null || directory.isEmpty()
+                ? null
+                : getInstance(Paths.get(directory));
+    }
+
+    public Path getDirectory() {
+
+        return directory;
+    }
+
+    /**
+     * Compute the digest of a source file and a loader configuration.
+     *
+     * @param source
+     * @param configuration loader configuration key.
+     * @return hexadecimal SHA-256 digest.
+     */
+    public static String digest(final Path source, final String configuration) {
+
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[1 << 16];
+
+        try (InputStream in = Files.newInputStream(source)) {
+
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+
+                digest.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+
+            throw new RuntimeException(e);
+        }
+        digest.update(configuration.getBytes(StandardCharsets.UTF_8));
+
+        return hex(digest.digest());
+    }
+
+    /**
+     * Load the snapshot of a source file into a manager.
+     *
+     * @param source
+     * @param digest digest of the source file, see
+     * {@link #digest(java.nio.file.Path, java.lang.String)}.
+     * @param manager target manager.
+     * @return the ontology, or an empty optional if there is no valid
+     * snapshot.
+     */
+    public Optional<OWLOntology> load(final Path source, final String digest, final OWLOntologyManager manager) {
+
+        Path entry = this.entry(source);
+
+        if (!Files.isRegularFile(entry)) {
+
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+
+            if (in.readInt() != MAGIC
+                    || !VersionInfo.getVersionInfo().getVersion().equals(in.readUTF())
+                    || !digest.equals(in.readUTF())) {
+
+                return Optional.empty();
+            }
+
+            StreamDocumentSource snapshot = new StreamDocumentSource(new GZIPInputStream(in),
+                    IRI.create(source.toFile()), new FunctionalSyntaxDocumentFormat(), null);
+
+            return Optional.of(manager.loadOntologyFromOntologyDocument(snapshot, configuration()));
+        } catch (IOException | OWLOntologyCreationException e) {
+
+            LOGGER.warn("Ignoring unreadable snapshot {}: {}", entry, e.toString());
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store the snapshot of a source file, replacing any previous snapshot.
+     *
+     * @param source
+     * @param digest digest of the source file, see
+     * {@link #digest(java.nio.file.Path, java.lang.String)}.
+     * @param ontology
+     */
+    public void store(final Path source, final String digest, final OWLOntology ontology) {
+
+        Path entry = this.entry(source);
+
+        try {
+
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+
+            try {
+
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+
+                    out.writeInt(MAGIC);
+                    out.writeUTF(VersionInfo.getVersionInfo().getVersion());
+                    out.writeUTF(digest);
+                    out.flush();
+
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(out, 1 << 16), StandardCharsets.UTF_8));
+                    FunctionalSyntaxObjectRenderer renderer = new FunctionalSyntaxObjectRenderer(ontology, writer);
+                    // the axioms as they are, without the declarations the storer adds
+                    renderer.setAddMissingDeclarations(false);
+                    ontology.accept(renderer);
+                    writer.close();
+                }
+                Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+
+            LOGGER.warn("Cannot store snapshot {}: {}", entry, e.toString());
+        }
+    }
+
+    /**
+     * Get the cache entry of a source file.
+     *
+     * @param source
+     * @return
+     */
+    Path entry(final Path source) {
+
+        String key = source.toAbsolutePath().normalize().toString();
+        String name = hex(sha256().digest(key.getBytes(StandardCharsets.UTF_8)));
+
+        return directory.resolve(name + SUFFIX);
+    }
+
+    /**
+     * Loader configuration of the snapshots, ignoring every import: the
+     * snapshot holds the axioms of its document only.
+     */
+    private static OWLOntologyLoaderConfiguration configuration() {
+
+        return new OWLOntologyLoaderConfiguration() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isIgnoredImport(final IRI iri) {
+
+                return true;
+            }
+        };
+    }
+
+    private static MessageDigest sha256() {
+
+        try {
+
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String hex(final byte[] bytes) {
+
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+
+            builder.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+        }
+
+        return builder.toString();
+    }
+}
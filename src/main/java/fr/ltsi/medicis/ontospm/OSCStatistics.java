@@ -0,0 +1,129 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.ClassExpressionType;
+import org.semanticweb.owlapi.model.EntityType;
+
+/**
+ * Ontology-wide counts collected by {@link OSCAxiomScan}: axioms by type,
+ * declared entities by type and anonymous class expressions by type.
+ *
+ * @author javier
+ */
+public final class OSCStatistics {
+
+    private final Map<String, Long> axioms;
+    private final Map<String, Long> entities;
+    private final Map<ClassExpressionType, Long> expressions;
+    private final long logicalAxioms;
+
+    private OSCStatistics(final Map<String, Long> axioms, final Map<String, Long> entities, final Map<ClassExpressionType, Long> expressions, final long logicalAxioms) {
+
+        this.axioms = Collections.unmodifiableMap(axioms);
+        this.entities = Collections.unmodifiableMap(entities);
+        this.expressions = Collections.unmodifiableMap(expressions);
+        this.logicalAxioms = logicalAxioms;
+    }
+
+    /**
+     * Mutable counts, filled during the scan.
+     */
+    static final class Builder {
+
+        private final Map<String, Long> axioms = new TreeMap<>();
+        private final Map<String, Long> entities = new TreeMap<>();
+        private final Map<ClassExpressionType, Long> expressions = new EnumMap<>(ClassExpressionType.class);
+        private long logicalAxioms;
+
+        void axiom(final AxiomType<?> type, final boolean logical) {
+
+            axioms.merge(type.getName(), 1L, Long::sum);
+            if (logical) {
+
+                logicalAxioms++;
+            }
+        }
+
+        void entity(final EntityType<?> type) {
+
+            entities.merge(type.getName(), 1L, Long::sum);
+        }
+
+        void expression(final ClassExpressionType type) {
+
+            expressions.merge(type, 1L, Long::sum);
+        }
+
+        OSCStatistics build() {
+
+            return new OSCStatistics(axioms, entities, expressions, logicalAxioms);
+        }
+    }
+
+    /**
+     * @return number of axioms by {@link AxiomType} name, ordered by name.
+     */
+    public Map<String, Long> getAxiomCounts() {
+
+        return axioms;
+    }
+
+    public long getAxiomCount(final AxiomType<?> type) {
+
+        return axioms.getOrDefault(type.getName(), 0L);
+    }
+
+    public long getAxiomCount() {
+
+        return axioms.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getLogicalAxiomCount() {
+
+        return logicalAxioms;
+    }
+
+    /**
+     * @return number of declarations by {@link EntityType} name, ordered by
+     * name.
+     */
+    public Map<String, Long> getEntityCounts() {
+
+        return entities;
+    }
+
+    public long getEntityCount(final EntityType<?> type) {
+
+        return entities.getOrDefault(type.getName(), 0L);
+    }
+
+    /**
+     * @return number of distinct anonymous class expressions of each axiom,
+     * by type.
+     */
+    public Map<ClassExpressionType, Long> getExpressionCounts() {
+
+        return expressions;
+    }
+
+    /**
+     * Print the statistics as a table.
+     *
+     * @param out
+     */
+    public void print(final PrintStream out) {
+
+        out.printf("%-40s %10d%n", "axioms", this.getAxiomCount());
+        out.printf("%-40s %10d%n", "logical axioms", logicalAxioms);
+        axioms.forEach((name, count) -> out.printf("  %-38s %10d%n", name, count));
+        out.printf("%-40s%n", "declarations");
+        entities.forEach((name, count) -> out.printf("  %-38s %10d%n", name, count));
+        out.printf("%-40s%n", "class expressions");
+        expressions.forEach((type, count) -> out.printf("  %-38s %10d%n", type.getName(), count));
+    }
+}
@@ -0,0 +1,523 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.XSD;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+
+/**
+ * Class rule checker reading an ontology document triple by triple.
+ *
+ * Only the <code>skos:prefLabel</code>, <code>rdfs:label</code>,
+ * <code>owl:deprecated</code> and <code>IAO:definition</code> annotations of
+ * the subjects are kept, so the rules of {@link OSCClassRules} give the same
+ * result as with a fully loaded ontology, without building it.
+ *
+ * The annotations of a subject are kept while the subject is one of the most
+ * recently seen subjects (the window); it is checked and dropped when it
+ * leaves the window. The document must therefore group the triples of a
+ * subject within the window, as written by OWLAPI or Protégé in RDF/XML, or
+ * by a sorted N-Triples file. A subject whose annotations come back after it
+ * left the window fails the check with an {@link IllegalStateException}
+ * instead of being reported with missing annotations; a window of
+ * {@link Integer#MAX_VALUE} accepts any order, at the cost of keeping every
+ * subject.
+ *
+ * Memory is bounded by the annotations of the window, plus the IRI of every
+ * class and of every annotated subject that left the window: they are needed
+ * to detect reopened subjects, and to check once, at the end of the
+ * document, the classes only referenced in class expressions (as OWLAPI
+ * counts them in the signature). It is linear in the number of classes, but
+ * much smaller than a loaded ontology.
+ *
+ * @author javier
+ */
+public class OSCStreamingChecker {
+
+    /**
+     * Default number of subjects kept open.
+     */
+    public static final int WINDOW = 256;
+
+    private static final String TYPE = RDF.type.getURI();
+    private static final String CLASS = OWL2.Class.getURI();
+    private static final String DOMAIN = RDFS.domain.getURI();
+    private static final String RANGE = RDFS.range.getURI();
+    private static final Set<String> PROPERTIES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            SKOSVocabulary.PREFLABEL.getIRI().toString(),
+            OWLRDFVocabulary.RDFS_LABEL.getIRI().toString(),
+            OWLRDFVocabulary.OWL_DEPRECATED.getIRI().toString(),
+            OSCClassRules.IAO_DEFINITION.toString())));
+
+    /**
+     * Predicates whose object is a class expression. The members of the lists
+     * of class expressions and the domains and ranges of properties are found
+     * by {@link ClassReferences}.
+     */
+    static final Set<String> REFERENCES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            RDFS.subClassOf.getURI(),
+            OWL2.equivalentClass.getURI(),
+            OWL2.disjointWith.getURI(),
+            OWL2.complementOf.getURI(),
+            OWL2.someValuesFrom.getURI(),
+            OWL2.allValuesFrom.getURI(),
+            OWL2.onClass.getURI())));
+    /**
+     * Types of the properties whose domain is a class.
+     */
+    private static final Set<String> PROPERTY_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            OWL2.ObjectProperty.getURI(),
+            OWL2.DatatypeProperty.getURI())));
+    /**
+     * Predicates whose object is a list of class expressions.
+     */
+    static final Set<String> LISTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            OWL2.unionOf.getURI(),
+            OWL2.intersectionOf.getURI(),
+            OWL2.disjointUnionOf.getURI())));
+    /**
+     * Predicates whose object is a list of anything else: properties,
+     * individuals, literals or facets.
+     */
+    private static final Set<String> OTHER_LISTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            OWL2.propertyChainAxiom.getURI(),
+            OWL2.oneOf.getURI(),
+            OWL2.members.getURI(),
+            OWL2.distinctMembers.getURI(),
+            OWL2.hasKey.getURI(),
+            OWL2.onProperties.getURI(),
+            OWL2.withRestrictions.getURI())));
+    /**
+     * Predicates whose subject is a class.
+     */
+    static final Set<String> AXIOMS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            RDFS.subClassOf.getURI(),
+            OWL2.equivalentClass.getURI(),
+            OWL2.disjointWith.getURI())));
+    /**
+     * Namespaces of built-in datatypes and vocabularies, never classes.
+     */
+    static final List<String> BUILTINS = Collections.unmodifiableList(Arrays.asList(
+            XSD.getURI(),
+            RDF.getURI(),
+            RDFS.getURI(),
+            OWL2.getURI()));
+
+    private final OSCChecker checker;
+    private final int window;
+
+    private OSCStreamingChecker(final Collection<? extends OSCClassRule> rules, final int window) {
+
+        if (window < 1) {
+
+            throw new IllegalArgumentException("window: " + window);
+        }
+
+        this.checker = OSCChecker.getInstance(rules);
+        this.window = window;
+    }
+
+    public static OSCStreamingChecker getInstance(final Collection<? extends OSCClassRule> rules, final int window) {
+
+        return new OSCStreamingChecker(rules, window);
+    }
+
+    /**
+     * @return a streaming checker running all {@link OSCClassRules}.
+     */
+    public static OSCStreamingChecker getInstance() {
+
+        return getInstance(Arrays.asList(OSCClassRules.values()), WINDOW);
+    }
+
+    /**
+     * Check an ontology document. The syntax (RDF/XML, N-Triples, Turtle...)
+     * is guessed from the file extension.
+     *
+     * @param path
+     * @return the report; violations are ordered by class
+     * {@link org.semanticweb.owlapi.model.IRI}, then by rule, as in
+     * {@link OSCChecker#check(OSCOntology)}.
+     */
+    public OSCReport check(final Path path) {
+
+        List<OSCViolation> violations = new ArrayList<>();
+        long visited = this.check(path, violations::add);
+
+        Map<String, Integer> order = new HashMap<>();
+        List<OSCClassRule> rules = checker.getRules();
+        for (int i = 0; i < rules.size(); i++) {
+
+            order.putIfAbsent(rules.get(i).getId(), i);
+        }
+        violations.sort((v1, v2) -> {
+
+            int result = v1.getIRI().toString().compareTo(v2.getIRI().toString());
+
+            return result != 0 ? result : Integer.compare(order.get(v1.getRule()), order.get(v2.getRule()));
+        });
+
+        return OSCReport.getInstance(violations, visited);
+    }
+
+    /**
+     * Check an ontology document, passing each violation to a consumer as
+     * soon as it is found.
+     *
+     * @param path
+     * @param consumer
+     * @return number of classes checked.
+     */
+    public long check(final Path path, final Consumer<OSCViolation> consumer) {
+
+        Sink sink = new Sink(consumer);
+        RDFDataMgr.parse(sink, path.toUri().toString());
+
+        return sink.visited;
+    }
+
+    /**
+     * Named classes of a triple stream that are only known from the triples
+     * around them, whatever the order of the triples: the members of the
+     * lists of class expressions (<code>owl:unionOf</code>,
+     * <code>owl:intersectionOf</code> and <code>owl:disjointUnionOf</code>),
+     * the domains and ranges of object properties and the domains of data
+     * properties. The cells of a list are kept until the predicate of its
+     * head tells whether it holds classes, and the domains and ranges of a
+     * property until its type is known.
+     */
+    static final class ClassReferences {
+
+        private final Consumer<String> members;
+        private final Map<Node, Cell> cells = new HashMap<>();
+        private final Map<String, String> properties = new HashMap<>();
+        private final Map<String, List<String[]>> pending = new HashMap<>();
+
+        /**
+         * @param members consumer of the IRIs of the named classes.
+         */
+        ClassReferences(final Consumer<String> members) {
+
+            this.members = members;
+        }
+
+        /**
+         * Read a triple; the other triples are ignored.
+         *
+         * @param subject
+         * @param predicate
+         * @param object
+         */
+        void triple(final Node subject, final String predicate, final Node object) {
+
+            if (subject.isURI() && TYPE.equals(predicate) && object.isURI() && PROPERTY_TYPES.contains(object.getURI())) {
+
+                properties.put(subject.getURI(), object.getURI());
+                List<String[]> axioms = pending.remove(subject.getURI());
+                if (axioms != null) {
+
+                    axioms.forEach(axiom -> this.property(object.getURI(), axiom[0], axiom[1]));
+                }
+            } else if (subject.isURI() && object.isURI() && (DOMAIN.equals(predicate) || RANGE.equals(predicate))) {
+
+                String type = properties.get(subject.getURI());
+                if (type == null) {
+
+                    pending.computeIfAbsent(subject.getURI(), k -> new ArrayList<>(2)).add(new String[]{predicate, object.getURI()});
+                } else {
+
+                    this.property(type, predicate, object.getURI());
+                }
+            } else if (LISTS.contains(predicate)) {
+
+                this.resolve(object, true);
+            } else if (OTHER_LISTS.contains(predicate)) {
+
+                this.resolve(object, false);
+            } else if (subject.isBlank() && RDF.first.getURI().equals(predicate)) {
+
+                Cell cell = cells.computeIfAbsent(subject, k -> new Cell());
+                cell.first = object;
+                if (cell.classes != null) {
+
+                    this.read(subject, cell);
+                }
+            } else if (subject.isBlank() && RDF.rest.getURI().equals(predicate)) {
+
+                Cell cell = cells.computeIfAbsent(subject, k -> new Cell());
+                cell.rest = object;
+                if (cell.classes != null) {
+
+                    this.read(subject, cell);
+                    this.resolve(object, cell.classes);
+                }
+            }
+        }
+
+        /**
+         * Pass the domain or range of a property when it is a class.
+         */
+        private void property(final String type, final String predicate, final String object) {
+
+            if (OWL2.ObjectProperty.getURI().equals(type) || DOMAIN.equals(predicate)) {
+
+                members.accept(object);
+            }
+        }
+
+        /**
+         * Set the kind of a list and of its known tail.
+         */
+        private void resolve(final Node head, final boolean classes) {
+
+            Node node = head;
+            while (node != null && node.isBlank()) {
+
+                Cell cell = cells.computeIfAbsent(node, k -> new Cell());
+                if (cell.classes != null) {
+
+                    return;
+                }
+                cell.classes = classes;
+                Node rest = cell.rest;
+                this.read(node, cell);
+                node = rest;
+            }
+        }
+
+        /**
+         * Pass the member of a cell of a known kind, and drop the cell once
+         * complete.
+         */
+        private void read(final Node node, final Cell cell) {
+
+            if (cell.first != null) {
+
+                if (cell.classes && cell.first.isURI()) {
+
+                    members.accept(cell.first.getURI());
+                }
+                cell.read = true;
+                cell.first = null;
+            }
+            if (cell.read && cell.rest != null) {
+
+                cells.remove(node);
+            }
+        }
+    }
+
+    /**
+     * Cell of a list: its member and its tail, as far as they are known.
+     */
+    private static final class Cell {
+
+        private Boolean classes;
+        private Node first;
+        private boolean read;
+        private Node rest;
+    }
+
+    /**
+     * Annotations of a subject collected so far.
+     */
+    private static final class Subject {
+
+        private boolean classe;
+        private final Map<IRI, List<OWLAnnotationValue>> annotations = new HashMap<>(4);
+    }
+
+    /**
+     * Triple sink checking subjects as they leave the window.
+     */
+    private final class Sink extends StreamRDFBase {
+
+        private final OWLDataFactory factory = OWLManager.getOWLDataFactory();
+        private final OSCIRITable iris = OSCIRITable.getInstance();
+        private final Consumer<OSCViolation> consumer;
+        private final List<OSCViolation> buffer = new ArrayList<>();
+        private final LinkedHashMap<String, Subject> subjects;
+        private final Set<String> checked = new HashSet<>();
+        // annotated subjects that left the window before being known as classes
+        private final Set<String> closed = new HashSet<>();
+        private final Set<String> referenced = new HashSet<>();
+        private final ClassReferences references = new ClassReferences(this::reference);
+        private long visited;
+
+        private Sink(final Consumer<OSCViolation> consumer) {
+
+            this.consumer = consumer;
+            this.subjects = new LinkedHashMap<String, Subject>(window * 4 / 3 + 1, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Subject> eldest) {
+
+                    if (size() > window) {
+
+                        Sink.this.flush(eldest.getKey(), eldest.getValue());
+
+                        return true;
+                    }
+
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public void triple(final Triple triple) {
+
+            Node s = triple.getSubject();
+            references.triple(s, triple.getPredicate().getURI(), triple.getObject());
+            if (!s.isURI()) {
+
+                Node o = triple.getObject();
+                if (o.isURI() && REFERENCES.contains(triple.getPredicate().getURI())) {
+
+                    this.reference(o.getURI());
+                }
+
+                return;
+            }
+
+            String predicate = triple.getPredicate().getURI();
+            Node o = triple.getObject();
+
+            if (o.isURI() && REFERENCES.contains(predicate)) {
+
+                this.reference(o.getURI());
+            }
+
+            boolean type = TYPE.equals(predicate) && o.isURI() && CLASS.equals(o.getURI())
+                    || AXIOMS.contains(predicate);
+
+            if (!type && !PROPERTIES.contains(predicate)) {
+
+                return;
+            }
+
+            if (checked.contains(s.getURI())) {
+
+                if (type) {
+
+                    // the class is already checked, its annotations are complete
+                    return;
+                }
+                this.reopened(s.getURI());
+            }
+            if (closed.contains(s.getURI())) {
+
+                this.reopened(s.getURI());
+            }
+
+            Subject subject = subjects.computeIfAbsent(s.getURI(), k -> new Subject());
+            if (type) {
+
+                subject.classe = true;
+            } else {
+
+                OWLAnnotationValue value = this.value(o);
+                if (value != null) {
+
+                    subject.annotations.computeIfAbsent(iris.intern(predicate), k -> new ArrayList<>(3)).add(value);
+                }
+            }
+        }
+
+        @Override
+        public void finish() {
+
+            subjects.forEach(this::flush);
+            subjects.clear();
+
+            referenced.removeAll(checked);
+            referenced.forEach(iri -> {
+
+                Subject subject = new Subject();
+                subject.classe = true;
+                this.flush(iri, subject);
+            });
+            referenced.clear();
+        }
+
+        private void reference(final String iri) {
+
+            if (closed.contains(iri)) {
+
+                this.reopened(iri);
+            }
+            if (!checked.contains(iri) && BUILTINS.stream().noneMatch(iri::startsWith)) {
+
+                referenced.add(iri);
+            }
+        }
+
+        private OWLAnnotationValue value(final Node node) {
+
+            if (node.isLiteral()) {
+
+                String language = node.getLiteralLanguage();
+
+                return language == null || language.isEmpty()
+                        ? factory.getOWLLiteral(node.getLiteralLexicalForm(), factory.getOWLDatatype(iris.intern(node.getLiteralDatatypeURI())))
+                        : factory.getOWLLiteral(node.getLiteralLexicalForm(), language);
+            }
+
+            return node.isURI() ? IRI.create(node.getURI()) : null;
+        }
+
+        /**
+         * Fail on a subject whose annotations were dropped when it left the
+         * window.
+         */
+        private void reopened(final String iri) {
+
+            throw new IllegalStateException("Subject " + iri + " is described again after leaving the window of "
+                    + window + " subjects: group the triples by subject (e.g. sort the N-Triples) or enlarge the window.");
+        }
+
+        private void flush(final String iri, final Subject subject) {
+
+            if (!subject.classe && !referenced.contains(iri)) {
+
+                closed.add(iri);
+
+                return;
+            }
+            if (!checked.add(iri)) {
+
+                return;
+            }
+
+            OSCClassSnapshot snapshot = OSCClassSnapshot.getInstance(factory.getOWLClass(IRI.create(iri)), subject.annotations);
+            checker.check(snapshot, buffer);
+            buffer.forEach(consumer);
+            buffer.clear();
+            visited++;
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package fr.ltsi.medicis.ontospm;
 
-import java.lang.reflect.Method;
+import java.util.Locale;
 import org.semanticweb.owlapi.model.HasIRI;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.util.IRIComparator;
-import org.semanticweb.owlapi.util.IRIShortFormProvider;
 import org.semanticweb.owlapi.util.SimpleIRIShortFormProvider;
 
 /**
@@ -13,11 +12,16 @@ import org.semanticweb.owlapi.util.SimpleIRIShortFormProvider;
  */
 public class OSCUtil {
 
+    private static final IRIComparator COMPARATOR = new IRIComparator(new SimpleIRIShortFormProvider());
+
     /**
      * Transform a String to a valid name of the last segment path of an IRI.
      *
      * The transformation performs: (1) replace a space with underscores (2)
-     * remove single quotes, and (3) replace a dash with underscore.
+     * remove single quotes, (3) replace a dash with underscore, and (4) lower
+     * case with {@link String#toLowerCase(java.util.Locale)} in the root
+     * locale. The replacements are done in a single pass; both steps return
+     * the string itself when there is nothing to change.
      *
      * @param string
      * @return a (OntoSPM) normalised string of last segment of an
@@ -25,9 +29,43 @@ public class OSCUtil {
      */
     public static String toNormalisedSegmentPath(final String string) {
 
-        return string.replaceAll(" ", "_")
-                .replaceAll("'", "")
-                .replaceAll("-", "_").toLowerCase();
+        final int length = string.length();
+        int i = 0;
+        while (i < length && !isSeparator(string.charAt(i))) {
+
+            i++;
+        }
+
+        if (i == length) {
+
+            return string.toLowerCase(Locale.ROOT);
+        }
+
+        char[] chars = new char[length];
+        string.getChars(0, i, chars, 0);
+        int j = i;
+        for (; i < length; i++) {
+
+            char c = string.charAt(i);
+            switch (c) {
+
+                case '\'':
+                    break;
+                case ' ':
+                case '-':
+                    chars[j++] = '_';
+                    break;
+                default:
+                    chars[j++] = c;
+            }
+        }
+
+        return new String(chars, 0, j).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isSeparator(final char c) {
+
+        return c == ' ' || c == '\'' || c == '-';
     }
 
     // public static Function<String, String> toSegmentPath = OSCUtil::toNormalisedSergmentPath;
@@ -48,10 +86,7 @@ public class OSCUtil {
      */
     public static boolean compare(final IRI i1, final IRI i2) {
 
-        IRIShortFormProvider provider = new SimpleIRIShortFormProvider();
-        IRIComparator comparator = new IRIComparator(provider);
-
-        return comparator.compare(i1, i2) == 0;
+        return i1 == i2 || COMPARATOR.compare(i1, i2) == 0;
     }
 
     /**
@@ -62,6 +97,9 @@ public class OSCUtil {
      * from the enumerations defined in the package:
      * {@link org.semanticweb.owlapi.vocab}
      *
+     * The vocabulary enumerations hold their IRI, so it is returned without
+     * any lookup or allocation.
+     *
      * @param <E> any enumeration from {@link org.semanticweb.owlapi.vocab}.
      * @param enumeration
      * @return the {@link org.semanticweb.owlapi.model.IRI} associated to the
@@ -69,22 +107,6 @@ public class OSCUtil {
      */
     public static <E extends Enum<E> & HasIRI> IRI getIRI(final E enumeration) {
 
-        IRI result = null;
-        final String name = "getIRI";
-        try {
-
-            Method method = enumeration.getClass().getMethod(name, (Class<?>[]) null);
-            result = (IRI) method.invoke(enumeration);
-
-        } catch (NoSuchMethodException
-                | SecurityException
-                | IllegalAccessException
-                | IllegalArgumentException
-                | java.lang.reflect.InvocationTargetException e) {
-
-            throw new RuntimeException(e);
-        }
-
-        return result;
+        return enumeration.getIRI();
     }
 }
@@ -0,0 +1,100 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.util.Objects;
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * A rule violation found on an entity.
+ *
+ * @author javier
+ */
+public final class OSCViolation {
+
+    private final String rule;
+    private final IRI iri;
+    private final OSCSeverity severity;
+    private final String message;
+    private final String evidence;
+
+    private OSCViolation(final String rule, final IRI iri, final OSCSeverity severity, final String message, final String evidence) {
+
+        this.rule = Objects.requireNonNull(rule);
+        this.iri = Objects.requireNonNull(iri);
+        this.severity = Objects.requireNonNull(severity);
+        this.message = message;
+        this.evidence = evidence;
+    }
+
+    /**
+     * Create a violation.
+     *
+     * @param rule identifier of the rule.
+     * @param iri {@link org.semanticweb.owlapi.model.IRI} of the entity.
+     * @param severity
+     * @param message human readable message.
+     * @param evidence offending value, or null if there is none.
+     * @return
+     */
+    public static OSCViolation getInstance(final String rule, final IRI iri, final OSCSeverity severity, final String message, final String evidence) {
+
+        return new OSCViolation(rule, iri, severity, message, evidence);
+    }
+
+    public String getRule() {
+
+        return rule;
+    }
+
+    public IRI getIRI() {
+
+        return iri;
+    }
+
+    public OSCSeverity getSeverity() {
+
+        return severity;
+    }
+
+    public String getMessage() {
+
+        return message;
+    }
+
+    public String getEvidence() {
+
+        return evidence;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+
+        if (this == object) {
+
+            return true;
+        }
+        if (!(object instanceof OSCViolation)) {
+
+            return false;
+        }
+
+        OSCViolation other = (OSCViolation) object;
+
+        return rule.equals(other.rule)
+                && iri.equals(other.iri)
+                && severity == other.severity
+                && Objects.equals(message, other.message)
+                && Objects.equals(evidence, other.evidence);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return Objects.hash(rule, iri, severity, message, evidence);
+    }
+
+    @Override
+    public String toString() {
+
+        return severity + " [" + rule + "] " + message;
+    }
+}
@@ -1,6 +1,19 @@
 package fr.ltsi.medicis.ontospm;
 
+import static fr.ltsi.medicis.ontospm.OSCOntology.NAMESPACE;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 /**
@@ -9,13 +22,114 @@ import org.testng.annotations.Test;
  */
 public class InstrumentsNGTest {
 
-    @Test(dataProvider = "getSurgicalContinuant", enabled = false)
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCOntology ontology;
+    private final OSCHierarchy hierarchy;
+    private final OSCRestrictionIndex restrictions;
+    private final Set<OWLClass> functions;
+    private final Set<OWLClass> deprecatedFunctions;
+    private final Set<OWLClass> categories;
+    private final BitSet categoryIds;
+
+    public InstrumentsNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+        hierarchy = ontology.getHierarchy();
+        restrictions = ontology.getRestrictions();
+        OSCLabelTable table = ontology.getLabelTable();
+
+        OWLClass function = manager.getFactory().getOWLClass(IRI.create(NAMESPACE + "function_of_instrument"));
+        Map<Boolean, Set<OWLClass>> split = hierarchy.subClasses(function)
+                .collect(Collectors.partitioningBy(table::isDeprecated, Collectors.toSet()));
+        functions = split.get(false);
+        deprecatedFunctions = split.get(true);
+
+        categories = Arrays.asList(
+                "medical_device",
+                // "surgical_furniture",
+                "surgical_instrument",
+                "surgical_material").stream()
+                .map(category -> manager.getFactory().getOWLClass(IRI.create(NAMESPACE + category)))
+                .collect(Collectors.toSet());
+        categoryIds = hierarchy.toBitSet(categories.stream());
+    }
+
+    /**
+     * Get classes that are not deprecated, defined in OntoSPM, and descend
+     * from one of the categories.
+     *
+     * @return
+     */
+    @DataProvider
+    private Object[][] getSurgicalContinuant() {
+
+        OSCLabelTable table = ontology.getLabelTable();
+
+        return ontology.getClassIds().classes()
+                .filter(c -> NAMESPACE.equals(c.getIRI().getNamespace())
+                && !table.isDeprecated(c)
+                && hierarchy.isDescendant(c, categoryIds))
+                .map(x -> new OWLClass[]{x})
+                .toArray(Object[][]::new);
+    }
+
+    @DataProvider
+    private Object[][] getFunctions() {
+
+        return functions.stream()
+                .map(x -> new OWLClass[]{x})
+                .toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "getFunctions", enabled = true)
+    public void testFunctionIsUsed(OWLClass function) {
+
+        boolean used = restrictions.restricting(function)
+                .map(OSCRestriction::getOWLClass)
+                .anyMatch(c -> hierarchy.isDescendant(c, categoryIds));
+
+        Assert.assertTrue(used, "'" + function.getIRI().getShortForm() + "' is not the function of any instrument.");
+    }
+
+    @Test(dataProvider = "getSurgicalContinuant", enabled = true)
     public void testInstrumentHasFunction(OWLClass continuant) {
 
+        long counter = 0;
+        if (!ontology.getOntology().equivalentClassesAxioms(continuant).findAny().isPresent()
+                || !hierarchy.subClasses(continuant).findAny().isPresent()) {
+
+            // functions are inherited from the ancestors, as the continuants are
+            counter = this.getCount(Stream.concat(Stream.of(continuant), hierarchy.ancestors(continuant)), functions);
+        }
+
+        if (categories.contains(continuant)) {
+
+            counter++;
+        }
+
+        Assert.assertTrue(counter > 0, "'" + continuant.getIRI().getShortForm() + "' has no function.");
     }
 
-    @Test(dataProvider = "getSurgicalContinuant", enabled = false)
+    @Test(dataProvider = "getSurgicalContinuant", enabled = true)
     public void TestInstrumentsWithDeprecatedFunctions(OWLClass continuant) {
 
+        long counter = this.getCount(Stream.of(continuant), deprecatedFunctions);
+
+        Assert.assertFalse(counter > 0, "'" + continuant.getIRI().getShortForm() + "' has deprecated function(s).");
+    }
+
+    /**
+     * Count the asserted super classes of some classes that are existential or
+     * universal restrictions on one of some functions.
+     */
+    private long getCount(final Stream<OWLClass> classes, final Set<OWLClass> functions) {
+
+        return classes.flatMap(restrictions::restrictions)
+                .filter(r -> r.getAxiomType() == AxiomType.SUBCLASS_OF)
+                .map(OSCRestriction::getFiller)
+                .filter(functions::contains)
+                .count();
     }
 }
@@ -33,7 +33,7 @@ import org.testng.annotations.Test;
 public class JenaClassesNGTest {
 
     private static final String NAMESPACE = "http://medicis.univ-rennes1.fr/ontologies/ontospm/OntoSPM.owl#";
-    private static final Path PATH = Paths.get("/home/javier/workspace/ontospm-ca/OntoSPM.owl");
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
 
     private final OntModel model;
     private final Set<OntClass> functions;
@@ -125,10 +125,7 @@ public class JenaClassesNGTest {
 
         if (label != null) {
 
-            label = label
-                    .replaceAll(" ", "_")
-                    .replaceAll("'", "")
-                    .replaceAll("-", "_").toLowerCase();
+            label = OSCUtil.toNormalisedSegmentPath(label);
         }
 
         assertEquals(label, iri, "IRI local name does not match with label.");
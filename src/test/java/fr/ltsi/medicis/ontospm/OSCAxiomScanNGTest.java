@@ -0,0 +1,108 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Counts collected by {@link OSCAxiomScan}, against the per-entity queries of
+ * the OWL API.
+ *
+ * @author javier
+ */
+public class OSCAxiomScanNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    @Test
+    public void testProperties() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        OWLOntology ontology = manager.getOntology();
+        OSCAxiomScan scan = OSCAxiomScan.getInstance(ontology);
+
+        Assert.assertEquals(scan.getProperties().size(),
+                ontology.objectPropertiesInSignature().count() + ontology.dataPropertiesInSignature().count());
+
+        for (OSCPropertySnapshot property : scan.getProperties()) {
+
+            long annotations = ontology.annotationAssertionAxioms(property.getIRI()).count();
+            long domains;
+            long ranges;
+            if (property.isObjectProperty()) {
+
+                OWLObjectProperty p = property.getProperty().asOWLObjectProperty();
+                domains = ontology.objectPropertyDomainAxioms(p).count();
+                ranges = ontology.objectPropertyRangeAxioms(p).count();
+            } else {
+
+                domains = ontology.dataPropertyDomainAxioms(property.getProperty().asOWLDataProperty()).count();
+                ranges = ontology.dataPropertyRangeAxioms(property.getProperty().asOWLDataProperty()).count();
+            }
+
+            Assert.assertEquals(property.getDomainCount(), domains, property.getIRI().toString());
+            Assert.assertEquals(property.getRangeCount(), ranges, property.getIRI().toString());
+            Assert.assertTrue(property.getPreferredLabels().size()
+                    + property.values(OSCClassRules.IAO_DEFINITION).size()
+                    + property.values(OWLRDFVocabulary.RDFS_LABEL.getIRI()).size()
+                    <= annotations, property.getIRI().toString());
+            Assert.assertSame(scan.getProperty(property.getIRI()), property);
+        }
+    }
+
+    @Test
+    public void testStatistics() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        OWLOntology ontology = manager.getOntology();
+        OSCStatistics statistics = OSCAxiomScan.getInstance(ontology).getStatistics();
+
+        Assert.assertEquals(statistics.getAxiomCount(), ontology.getAxiomCount());
+        Assert.assertEquals(statistics.getLogicalAxiomCount(), ontology.getLogicalAxiomCount());
+        AxiomType.AXIOM_TYPES.forEach(type
+                -> Assert.assertEquals(statistics.getAxiomCount(type), ontology.getAxiomCount(type), type.getName()));
+        Assert.assertEquals(statistics.getEntityCount(EntityType.OBJECT_PROPERTY),
+                ontology.axioms(AxiomType.DECLARATION).filter(a -> a.getEntity().isOWLObjectProperty()).count());
+    }
+
+    @Test
+    public void testRules() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        OWLOntology ontology = manager.getOntology();
+        OWLDataFactory factory = manager.getFactory();
+
+        OWLObjectProperty unused = factory.getOWLObjectProperty(IRI.create(OSCOntology.NAMESPACE + "unused_property"));
+        OWLObjectProperty deprecated = factory.getOWLObjectProperty(IRI.create(OSCOntology.NAMESPACE + "deprecated_property"));
+        OWLClass classe = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "scalpel"));
+        ontology.add(factory.getOWLDeclarationAxiom(unused));
+        ontology.add(factory.getOWLDeclarationAxiom(deprecated));
+        ontology.add(factory.getDeprecatedOWLAnnotationAssertionAxiom(deprecated.getIRI()));
+        ontology.add(factory.getOWLSubClassOfAxiom(classe,
+                factory.getOWLObjectSomeValuesFrom(factory.getOWLObjectInverseOf(deprecated), classe)));
+
+        OSCAxiomScan scan = OSCAxiomScan.getInstance(ontology);
+        OSCReport report = OSCPropertyChecker.getInstance().check(scan);
+
+        Assert.assertEquals(report.getVisited(), scan.getProperties().size());
+        Assert.assertTrue(report.hasViolation(OSCPropertyRules.UNUSED, unused));
+        Assert.assertTrue(report.hasViolation(OSCPropertyRules.ALL_LABELS, unused));
+        Assert.assertTrue(report.hasViolation(OSCPropertyRules.DOMAIN, unused));
+        Assert.assertTrue(report.hasViolation(OSCPropertyRules.RANGE, unused));
+
+        // deprecated properties are only checked for restrictions, through inverses too
+        Assert.assertEquals(scan.getProperty(deprecated.getIRI()).getRestrictionCount(), 1);
+        Assert.assertTrue(report.hasViolation(OSCPropertyRules.DEPRECATED_IN_RESTRICTION, deprecated));
+        Assert.assertFalse(report.hasViolation(OSCPropertyRules.UNUSED, deprecated));
+        Assert.assertFalse(report.hasViolation(OSCPropertyRules.DEPRECATED_IN_RESTRICTION, unused));
+    }
+}
@@ -0,0 +1,161 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Jena backends, in memory and over a TDB store, against the OWLAPI backend.
+ *
+ * @author javier
+ */
+public class OSCBackendNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCOntology ontology;
+    private final OSCBackend expected;
+    private final Path directory;
+    private final OSCBackend jena;
+    private final OSCBackend tdb;
+
+    public OSCBackendNGTest()
+            throws
+            java.io.IOException {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+        expected = ontology.getBackend();
+        directory = Files.createTempDirectory("osc-tdb");
+        jena = OSCJenaBackend.getInstance(PATH);
+        tdb = OSCJenaBackend.getInstance(PATH, directory);
+    }
+
+    @AfterClass
+    public void tearDown()
+            throws
+            java.io.IOException {
+
+        jena.close();
+        tdb.close();
+        delete(directory);
+    }
+
+    private static void delete(final Path directory)
+            throws
+            java.io.IOException {
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+
+                Files.delete(path);
+            }
+        }
+    }
+
+    @DataProvider
+    private Object[][] getBackends() {
+
+        return new Object[][]{{jena}, {tdb}};
+    }
+
+    @Test(dataProvider = "getBackends")
+    public void testSameViolations(OSCBackend backend) {
+
+        OSCReport report = OSCChecker.getInstance().check(backend);
+        OSCReport reference = OSCChecker.getInstance().check(ontology);
+
+        Assert.assertEquals(OSCChecker.getInstance().check(expected).getViolations(), reference.getViolations());
+        Assert.assertEquals(report.getVisited(), reference.getVisited());
+        Assert.assertEquals(report.getViolations(), reference.getViolations());
+    }
+
+    @Test(dataProvider = "getBackends")
+    public void testQueries(OSCBackend backend) {
+
+        List<OWLClass> classes = backend.classes().collect(Collectors.toList());
+        Assert.assertEquals(classes, expected.classes().collect(Collectors.toList()));
+
+        for (OWLClass classe : classes) {
+
+            Assert.assertEquals(backend.snapshot(classe).isDeprecated(), expected.snapshot(classe).isDeprecated());
+            Assert.assertEquals(backend.annotationValues(classe, OSCClassRules.IAO_DEFINITION).collect(Collectors.toSet()),
+                    expected.annotationValues(classe, OSCClassRules.IAO_DEFINITION).collect(Collectors.toSet()));
+            Assert.assertEquals(backend.superClasses(classe).collect(Collectors.toSet()),
+                    expected.superClasses(classe).collect(Collectors.toSet()), classe.toString());
+
+            Set<OSCRestriction> restrictions = backend.restrictions(classe).collect(Collectors.toSet());
+            Assert.assertEquals(restrictions, expected.restrictions(classe).collect(Collectors.toSet()), classe.toString());
+
+            // a class with several labels in a language may answer any of them
+            Map<String, Long> languages = backend.snapshot(classe).getPreferredLabels().stream()
+                    .collect(Collectors.groupingBy(OWLLiteral::getLang, Collectors.counting()));
+            languages.forEach((language, count) -> {
+
+                if (count == 1) {
+
+                    Assert.assertEquals(backend.getPreferredLabel(classe, language), expected.getPreferredLabel(classe, language));
+                }
+            });
+            Assert.assertNull(backend.getPreferredLabel(classe, "xx"));
+        }
+
+        Assert.assertTrue(classes.stream().anyMatch(c -> backend.restrictions(c).findAny().isPresent()));
+    }
+
+    @Test(dependsOnMethods = {"testSameViolations", "testQueries"})
+    public void testReopen() {
+
+        tdb.close();
+        try (OSCBackend backend = OSCJenaBackend.getInstance(Paths.get("missing.owl"), directory)) {
+
+            Assert.assertEquals(backend.classes().count(), ontology.getClassIds().size());
+        }
+    }
+
+    @Test
+    public void testEditedDocument()
+            throws
+            java.io.IOException {
+
+        Path document = Files.createTempFile("osc-tdb", ".owl");
+        Path store = Files.createTempDirectory("osc-tdb");
+
+        try {
+
+            OSCOntologyGenerator.getInstance(50, 1).write(document);
+            try (OSCBackend backend = OSCJenaBackend.getInstance(document, store)) {
+
+                Assert.assertEquals(backend.classes().count(), 55);
+            }
+
+            // the digest of the document changed, the store is filled again
+            OSCOntologyGenerator.getInstance(60, 1).write(document);
+            try (OSCBackend backend = OSCJenaBackend.getInstance(document, store)) {
+
+                Assert.assertEquals(backend.classes().count(), 65);
+            }
+            try (OSCBackend backend = OSCJenaBackend.getInstance(document, store)) {
+
+                Assert.assertEquals(backend.classes().count(), 65);
+            }
+        } finally {
+
+            Files.delete(document);
+            delete(store);
+        }
+    }
+}
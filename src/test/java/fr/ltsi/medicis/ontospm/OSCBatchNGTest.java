@@ -0,0 +1,78 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Concurrent batch checks under a heap budget.
+ *
+ * @author javier
+ */
+public class OSCBatchNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private Path directory;
+    private OSCReport expected;
+
+    @BeforeClass
+    public void setUp()
+            throws
+            java.io.IOException {
+
+        directory = Files.createTempDirectory("osc-batch");
+        Files.copy(PATH, directory.resolve("a.owl"));
+        Files.copy(PATH, directory.resolve("b.owl"));
+        Files.createDirectory(directory.resolve("release"));
+        Files.copy(PATH, directory.resolve("release").resolve("c.owl"));
+        Files.write(directory.resolve("README.txt"), "not an ontology".getBytes(StandardCharsets.UTF_8));
+
+        OSCManager manager = OSCManager.getInstance(PATH, null);
+        expected = OSCChecker.getInstance().check(OSCOntology.getInstance(manager.getOntology(), manager.getFactory()));
+    }
+
+    @Test
+    public void testDocuments() {
+
+        List<Path> documents = OSCBatch.documents(Collections.singletonList(directory));
+
+        Assert.assertEquals(documents.size(), 3);
+        Assert.assertTrue(documents.contains(directory.resolve("release").resolve("c.owl")));
+    }
+
+    /**
+     * A budget smaller than a single document checks documents one at a
+     * time, a large budget all at once: both give the same report.
+     */
+    @Test
+    public void testBudget() {
+
+        for (long budget : new long[]{1 << 10, 1L << 32}) {
+
+            OSCBatchReport report = OSCBatch.getInstance(OSCChecker.getInstance(), null, budget, 4)
+                    .check(Arrays.asList(directory, directory.resolve("missing.owl")));
+
+            Assert.assertEquals(report.getReports().size(), 3);
+            Assert.assertEquals(report.getFailures().keySet(), Collections.singleton(directory.resolve("missing.owl")));
+            for (OSCReport r : report.getReports().values()) {
+
+                Assert.assertEquals(r.getViolations(), expected.getViolations());
+            }
+            Assert.assertEquals(report.size(), expected.size() * 3);
+
+            StringWriter text = new StringWriter();
+            report.write(new PrintWriter(text));
+            Assert.assertTrue(text.toString().endsWith("# total: 3 documents, " + expected.size() * 3 + " violations, 1 failures" + System.lineSeparator()));
+        }
+    }
+}
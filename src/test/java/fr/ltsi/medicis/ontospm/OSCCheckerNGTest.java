@@ -0,0 +1,44 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Reports of the parallel mode of {@link OSCChecker}.
+ *
+ * @author javier
+ */
+public class OSCCheckerNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCOntology ontology;
+    private final OSCChecker checker;
+    private final OSCReport expected;
+
+    public OSCCheckerNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+        checker = OSCChecker.getInstance();
+        expected = checker.check(ontology);
+    }
+
+    @DataProvider
+    private Object[][] getParallelism() {
+
+        return new Object[][]{{1}, {2}, {3}, {8}, {16}};
+    }
+
+    @Test(dataProvider = "getParallelism")
+    public void testParallelReportIsDeterministic(int parallelism) {
+
+        OSCReport report = checker.check(ontology, parallelism);
+
+        Assert.assertEquals(report.getVisited(), expected.getVisited());
+        Assert.assertEquals(report.getViolations(), expected.getViolations());
+    }
+}
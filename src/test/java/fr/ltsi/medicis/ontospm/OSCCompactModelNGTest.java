@@ -0,0 +1,173 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Compact models built from an ontology and from its triples, against
+ * {@link OSCOntology}.
+ *
+ * @author javier
+ */
+public class OSCCompactModelNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCOntology ontology;
+    private final OSCReport expected;
+
+    public OSCCompactModelNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+        expected = OSCChecker.getInstance().check(ontology);
+    }
+
+    @DataProvider
+    private Object[][] getModels() {
+
+        return new Object[][]{
+            {OSCCompactModel.getInstance(ontology.getOntology(), false)},
+            {OSCCompactModel.getInstance(ontology.getOntology(), true)},
+            {OSCCompactModel.getInstance(PATH, false)},
+            {OSCCompactModel.getInstance(PATH, true)}};
+    }
+
+    @Test(dataProvider = "getModels")
+    public void testSameViolations(OSCCompactModel model) {
+
+        OSCReport report = OSCChecker.getInstance().check(model);
+
+        Assert.assertEquals(report.getVisited(), expected.getVisited());
+        Assert.assertEquals(report.getViolations(), expected.getViolations());
+    }
+
+    @Test(dataProvider = "getModels")
+    public void testQueries(OSCCompactModel model) {
+
+        OSCClassIds ids = ontology.getClassIds();
+        OSCLabelTable labels = ontology.getLabelTable();
+        OSCHierarchy hierarchy = ontology.getHierarchy();
+
+        Assert.assertEquals(model.size(), ids.size());
+        Assert.assertTrue(model.getSize() > 0);
+        Assert.assertEquals(model.getId(IRI.create("http://example.org/unknown")), -1);
+        for (int id = 0; id < ids.size(); id++) {
+
+            OWLClass classe = ids.getOWLClass(id);
+            Assert.assertEquals(model.getIRI(id), classe.getIRI());
+            Assert.assertEquals(model.getId(classe.getIRI()), id);
+            Assert.assertEquals(model.isDeprecated(id), ontology.hasAnnotation(classe, OWLRDFVocabulary.OWL_DEPRECATED));
+            for (String language : new String[]{"en", "fr", "de"}) {
+
+                Assert.assertEquals(model.getPreferredLabel(id, language), labels.getLabel(classe, language));
+            }
+
+            Set<OWLClass> parents = model.superClasses(id).mapToObj(ids::getOWLClass).collect(Collectors.toSet());
+            Assert.assertEquals(parents, hierarchy.superClasses(classe).collect(Collectors.toSet()), classe.toString());
+        }
+    }
+
+    @Test
+    public void testChunks() {
+
+        OSCCompactModel whole = OSCCompactModel.getInstance(ontology.getOntology(), false);
+        OSCCompactModel chunked = OSCCompactModel.getInstance(ontology.getOntology(), true, 64);
+
+        Assert.assertEquals(chunked.getTermCount(), whole.getTermCount());
+        for (int id = 0; id < whole.size(); id++) {
+
+            Assert.assertEquals(chunked.getIRI(id), whole.getIRI(id));
+            Assert.assertEquals(chunked.getId(whole.getIRI(id)), id);
+            Assert.assertEquals(chunked.getPreferredLabel(id, "en"), whole.getPreferredLabel(id, "en"));
+        }
+    }
+
+    /**
+     * A class and its label in <code>b</code>, imported by <code>a</code>,
+     * are part of the models of <code>a</code>.
+     */
+    @Test
+    public void testImports()
+            throws
+            Exception {
+
+        String base = "http://example.org/osc/";
+        Path directory = Files.createTempDirectory("osc-compact");
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLClass a = factory.getOWLClass(IRI.create(base + "A"));
+        OWLClass b = factory.getOWLClass(IRI.create(base + "B"));
+
+        OWLOntology imported = manager.createOntology(IRI.create(base + "b.owl"));
+        manager.addAxiom(imported, factory.getOWLSubClassOfAxiom(b, a));
+        manager.addAxiom(imported, factory.getOWLAnnotationAssertionAxiom(factory.getOWLAnnotationProperty(SKOSVocabulary.PREFLABEL.getIRI()),
+                b.getIRI(), factory.getOWLLiteral("b", "en")));
+        manager.saveOntology(imported, new RDFXMLDocumentFormat(), IRI.create(directory.resolve("b.owl").toFile()));
+
+        OWLOntology root = manager.createOntology(IRI.create(base + "a.owl"));
+        manager.addAxiom(root, factory.getOWLDeclarationAxiom(a));
+        manager.applyChange(new AddImport(root, factory.getOWLImportsDeclaration(IRI.create(base + "b.owl"))));
+        manager.saveOntology(root, new RDFXMLDocumentFormat(), IRI.create(directory.resolve("a.owl").toFile()));
+
+        OSCMirror mirror = OSCMirror.getInstance(directory);
+        OSCManager loaded = OSCManager.getInstance(directory.resolve("a.owl"), null, mirror);
+        for (OSCCompactModel model : new OSCCompactModel[]{
+            OSCCompactModel.getInstance(loaded.getOntology(), false),
+            OSCCompactModel.getInstance(directory.resolve("a.owl"), mirror, false)}) {
+
+            Assert.assertEquals(model.size(), 2);
+            Assert.assertEquals(model.getPreferredLabel(model.getId(b.getIRI()), "en"), "b");
+            Assert.assertEquals(model.superClasses(model.getId(b.getIRI())).boxed().collect(Collectors.toSet()),
+                    Collections.singleton(model.getId(a.getIRI())));
+        }
+    }
+
+    /**
+     * Only the members of the lists of class expressions and the domains and
+     * ranges of object properties are classes.
+     */
+    @Test
+    public void testListMembers()
+            throws
+            Exception {
+
+        Path path = OSCStreamingCheckerNGTest.lists();
+
+        try {
+
+            OSCCompactModel model = OSCCompactModel.getInstance(path, false);
+
+            Assert.assertEquals(model.classes().map(IRI::toString).collect(Collectors.toSet()),
+                    Stream.of("e", "m", "n").map(name -> OSCOntology.NAMESPACE + name).collect(Collectors.toSet()));
+        } finally {
+
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testDirect() {
+
+        Assert.assertFalse(OSCCompactModel.getInstance(PATH, false).isDirect());
+        Assert.assertTrue(OSCCompactModel.getInstance(PATH, true).isDirect());
+    }
+}
@@ -0,0 +1,319 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * HTTP API of {@link OSCDaemon} against {@link OSCChecker}.
+ *
+ * @author javier
+ */
+public class OSCDaemonNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+    private static final int THREADS = 16;
+
+    private final OSCOntology ontology;
+    private final OSCReport expected;
+    private OSCDaemon daemon;
+
+    public OSCDaemonNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+        expected = OSCChecker.getInstance().check(ontology);
+    }
+
+    @BeforeClass
+    public void start() {
+
+        daemon = OSCDaemon.getInstance(OSCChecker.getInstance(), null, 0, THREADS);
+        daemon.load(PATH).join();
+        daemon.start();
+    }
+
+    @AfterClass
+    public void stop() {
+
+        daemon.stop();
+    }
+
+    private HttpURLConnection open(final String method, final String resource)
+            throws
+            java.io.IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + daemon.getPort() + resource).openConnection();
+        connection.setRequestMethod(method);
+
+        return connection;
+    }
+
+    private JsonObject request(final String method, final String resource)
+            throws
+            java.io.IOException {
+
+        HttpURLConnection connection = this.open(method, resource);
+        Assert.assertEquals(connection.getResponseCode(), 200, resource);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+
+            byte[] buffer = new byte[8192];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+
+                bytes.write(buffer, 0, n);
+            }
+        }
+
+        return JSON.parse(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private long status(final String name)
+            throws
+            java.io.IOException {
+
+        JsonObject resident = this.request("GET", "/status").get("ontologies").getAsArray().get(0).getAsObject();
+
+        return resident.get(name).getAsNumber().value().longValue();
+    }
+
+    /**
+     * Send a request with a given <code>Host</code> header, which
+     * {@link HttpURLConnection} does not let set.
+     *
+     * @return the status code.
+     */
+    private int statusWithHost(final String host, final String resource)
+            throws
+            java.io.IOException {
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort())) {
+
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + resource + " HTTP/1.1\r\nHost: " + host + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String line = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII)).readLine();
+
+            return Integer.parseInt(line.split(" ")[1]);
+        }
+    }
+
+    private static String encode(final Object value)
+            throws
+            java.io.UnsupportedEncodingException {
+
+        return URLEncoder.encode(value.toString(), "UTF-8");
+    }
+
+    private static List<String> iris(final JsonArray violations) {
+
+        return violations.stream()
+                .map(v -> v.getAsObject().get("rule").getAsString().value() + " " + v.getAsObject().get("iri").getAsString().value())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> iris(final List<OSCViolation> violations) {
+
+        return violations.stream()
+                .map(v -> v.getRule() + " " + v.getIRI())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCheckAll()
+            throws
+            java.io.IOException {
+
+        JsonObject reload = this.request("POST", "/reload?path=" + encode(PATH));
+        Assert.assertEquals(reload.get("classes").getAsNumber().value().intValue(), ontology.getClassIds().size());
+
+        JsonObject report = this.request("GET", "/check?path=" + encode(PATH));
+        Assert.assertEquals(report.get("visited").getAsNumber().value().longValue(), expected.getVisited());
+        Assert.assertEquals(iris(report.get("violations").getAsArray()), iris(expected.getViolations()));
+    }
+
+    @Test
+    public void testCheckClasses()
+            throws
+            Exception {
+
+        List<OWLClass> classes = ontology.getView(OSCClassViews.ALL).stream().limit(64).collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        try {
+
+            // concurrent requests, batched by the worker of the ontology
+            List<Future<JsonObject>> futures = new ArrayList<>();
+            for (OWLClass classe : classes) {
+
+                futures.add(executor.submit(() -> this.request("GET", "/check?path=" + encode(PATH) + "&class=" + encode(classe.getIRI()))));
+            }
+
+            for (int i = 0; i < classes.size(); i++) {
+
+                IRI iri = classes.get(i).getIRI();
+                JsonObject report = futures.get(i).get();
+                Assert.assertEquals(report.get("visited").getAsNumber().value().intValue(), 1);
+                Assert.assertEquals(iris(report.get("violations").getAsArray()),
+                        iris(expected.violations().filter(v -> v.getIRI().equals(iri)).collect(Collectors.toList())));
+            }
+        } finally {
+
+            executor.shutdown();
+        }
+
+        JsonObject report = this.request("GET", "/check?path=" + encode(PATH)
+                + "&class=" + encode(classes.get(0).getIRI())
+                + "&class=" + encode("http://example.org/unknown"));
+        Assert.assertEquals(report.get("visited").getAsNumber().value().intValue(), 1);
+    }
+
+    @Test
+    public void testBatch()
+            throws
+            Exception {
+
+        List<OWLClass> classes = ontology.getView(OSCClassViews.ALL).stream().limit(THREADS / 2).collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(classes.size());
+        CountDownLatch release = new CountDownLatch(1);
+
+        // block the worker of the ontology while the requests are queued
+        daemon.worker(PATH).execute(() -> {
+
+            try {
+
+                release.await();
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+
+            long requests = this.status("requests");
+            long batches = this.status("batches");
+            List<Future<JsonObject>> futures = new ArrayList<>();
+            for (OWLClass classe : classes) {
+
+                futures.add(executor.submit(() -> this.request("GET", "/check?path=" + encode(PATH) + "&class=" + encode(classe.getIRI()))));
+            }
+            while (this.status("requests") < requests + classes.size()) {
+
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            for (int i = 0; i < classes.size(); i++) {
+
+                IRI iri = classes.get(i).getIRI();
+                Assert.assertEquals(iris(futures.get(i).get().get("violations").getAsArray()),
+                        iris(expected.violations().filter(v -> v.getIRI().equals(iri)).collect(Collectors.toList())));
+            }
+            Assert.assertEquals(this.status("batches"), batches + 1);
+        } finally {
+
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLabel()
+            throws
+            java.io.IOException {
+
+        OSCLabelTable table = ontology.getLabelTable();
+        OWLClass classe = ontology.getView(OSCClassViews.LIVE).stream()
+                .filter(c -> table.getLabel(c, "en") != null)
+                .findFirst().get();
+        String label = table.getLabel(classe, "en");
+
+        JsonObject labels = this.request("GET", "/label?path=" + encode(PATH) + "&iri=" + encode(classe.getIRI()));
+        Assert.assertEquals(labels.get("labels").getAsObject().get("en").getAsString().value(), label);
+        Assert.assertFalse(labels.get("deprecated").getAsBoolean().value());
+
+        JsonObject classes = this.request("GET", "/label?path=" + encode(PATH) + "&text=" + encode(label) + "&lang=en");
+        Assert.assertTrue(classes.get("classes").getAsArray().stream()
+                .anyMatch(c -> c.getAsString().value().equals(classe.getIRI().toString())));
+    }
+
+    @Test
+    public void testErrors()
+            throws
+            java.io.IOException {
+
+        Assert.assertEquals(this.open("GET", "/check").getResponseCode(), 400);
+        Assert.assertEquals(this.open("GET", "/reload?path=" + encode(PATH)).getResponseCode(), 405);
+        Assert.assertEquals(this.open("GET", "/label?path=" + encode(PATH)).getResponseCode(), 400);
+    }
+
+    @Test
+    public void testRefused()
+            throws
+            java.io.IOException {
+
+        // only the documents loaded at start are served, and never loaded on GET
+        Assert.assertEquals(this.open("POST", "/reload?path=" + encode(Paths.get("pom.xml"))).getResponseCode(), 403);
+        Assert.assertEquals(this.open("GET", "/check?path=" + encode(Paths.get("pom.xml"))).getResponseCode(), 403);
+        Assert.assertEquals(this.open("GET", "/check?path=" + encode(Paths.get("src/test/resources/../resources/OntoSPM.owl"))).getResponseCode(), 200);
+
+        // DNS rebinding
+        Assert.assertEquals(this.statusWithHost("localhost:" + daemon.getPort(), "/status"), 200);
+        Assert.assertEquals(this.statusWithHost("attacker.example:" + daemon.getPort(), "/status"), 403);
+    }
+
+    @Test
+    public void testRoot()
+            throws
+            Exception {
+
+        OSCDaemon rooted = OSCDaemon.getInstance(OSCChecker.getInstance(), null, 0, 2, PATH.getParent());
+        rooted.start();
+
+        try {
+
+            String base = "http://localhost:" + rooted.getPort();
+            HttpURLConnection check = (HttpURLConnection) new URL(base + "/check?path=" + encode(PATH)).openConnection();
+            Assert.assertEquals(check.getResponseCode(), 404);
+
+            HttpURLConnection reload = (HttpURLConnection) new URL(base + "/reload?path=" + encode(PATH)).openConnection();
+            reload.setRequestMethod("POST");
+            Assert.assertEquals(reload.getResponseCode(), 200);
+
+            HttpURLConnection outside = (HttpURLConnection) new URL(base + "/reload?path=" + encode(Paths.get("pom.xml"))).openConnection();
+            outside.setRequestMethod("POST");
+            Assert.assertEquals(outside.getResponseCode(), 403);
+        } finally {
+
+            rooted.stop();
+        }
+    }
+}
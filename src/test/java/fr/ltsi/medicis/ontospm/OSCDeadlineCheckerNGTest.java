@@ -0,0 +1,212 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Priority order and coverage of {@link OSCDeadlineChecker}.
+ *
+ * @author javier
+ */
+public class OSCDeadlineCheckerNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCOntology ontology;
+
+    public OSCDeadlineCheckerNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+    }
+
+    /**
+     * Get a checker whose clock advances by one nanosecond at each reading:
+     * a budget of n nanoseconds checks n - 1 classes.
+     *
+     * @return
+     */
+    private static OSCDeadlineChecker getTicking() {
+
+        return OSCDeadlineChecker.getInstance(OSCChecker.getInstance(), new Ticking());
+    }
+
+    /**
+     * Clock advancing by one nanosecond at each reading.
+     */
+    private static final class Ticking extends Clock {
+
+        private Instant now = Instant.EPOCH;
+
+        @Override
+        public ZoneId getZone() {
+
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+
+            Instant instant = now;
+            now = now.plusNanos(1);
+
+            return instant;
+        }
+    }
+
+    @Test
+    public void testNoDeadline() {
+
+        OSCReport full = OSCChecker.getInstance().check(ontology);
+        OSCReport report = OSCDeadlineChecker.getInstance()
+                .check(ontology, Collections.emptyList(), Duration.ofDays(1));
+
+        Assert.assertTrue(report.isComplete(), report.getCoverage().toString());
+        Assert.assertEquals(report.getVisited(), full.getVisited());
+        Assert.assertEquals(new HashSet<>(report.getViolations()), new HashSet<>(full.getViolations()));
+        Assert.assertTrue(full.isComplete());
+        Assert.assertNull(full.getCoverage());
+    }
+
+    @Test
+    public void testPastDeadline() {
+
+        OSCReport report = OSCDeadlineChecker.getInstance()
+                .check(ontology, Collections.emptyList(), Instant.now().minusSeconds(1));
+
+        Assert.assertFalse(report.isComplete());
+        Assert.assertEquals(report.getVisited(), 0);
+        Assert.assertEquals(report.size(), 0);
+        Assert.assertEquals(report.getCoverage().getTotal(), ontology.getOntology().classesInSignature(Imports.INCLUDED).count());
+    }
+
+    /**
+     * A deadline is an instant of the clock of the checker: a deadline n
+     * nanoseconds after the epoch checks n - 1 classes.
+     */
+    @Test
+    public void testInstantDeadline() {
+
+        OSCCoverage coverage = getTicking()
+                .check(ontology, Collections.emptyList(), Instant.EPOCH.plusNanos(4))
+                .getCoverage();
+
+        Assert.assertEquals(coverage.getChecked(), 3);
+        Assert.assertEquals(coverage.getChecked(OSCCoverage.Tier.ONTOSPM), 3);
+    }
+
+    /**
+     * Classes known from an import only are checked in the imported tier,
+     * with their annotations from the import.
+     */
+    @Test
+    public void testImportedTier()
+            throws
+            Exception {
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLClass own = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "own"));
+        OWLClass imported = factory.getOWLClass(IRI.create("http://example.org/osc/imported"));
+
+        OWLOntology b = manager.createOntology(IRI.create("http://example.org/osc/b.owl"));
+        manager.addAxiom(b, factory.getOWLDeclarationAxiom(imported));
+        manager.addAxiom(b, factory.getDeprecatedOWLAnnotationAssertionAxiom(imported.getIRI()));
+        OWLOntology a = manager.createOntology(IRI.create("http://example.org/osc/a.owl"));
+        manager.addAxiom(a, factory.getOWLDeclarationAxiom(own));
+        manager.applyChange(new AddImport(a, factory.getOWLImportsDeclaration(b.getOntologyID().getOntologyIRI().get())));
+
+        OSCOntology checked = OSCOntology.getInstance(a, factory, true);
+        OSCReport report = getTicking().check(checked, Collections.emptyList(), Duration.ofNanos(Long.MAX_VALUE));
+        OSCCoverage coverage = report.getCoverage();
+
+        Assert.assertEquals(coverage.getTotal(OSCCoverage.Tier.ONTOSPM), 1);
+        Assert.assertEquals(coverage.getTotal(OSCCoverage.Tier.IMPORTED), 1);
+        Assert.assertTrue(coverage.isComplete());
+        Assert.assertEquals(report.getVisited(), 2);
+
+        // same violations as in a single ontology holding both
+        OWLOntology merged = manager.createOntology();
+        manager.addAxioms(merged, a.axioms());
+        manager.addAxioms(merged, b.axioms());
+        Assert.assertEquals(new HashSet<>(report.getViolations()),
+                new HashSet<>(OSCChecker.getInstance().check(OSCOntology.getInstance(merged, factory)).getViolations()));
+    }
+
+    @Test
+    public void testPriority() {
+
+        // imported classes violating a rule, checked before the OntoSPM ones
+        List<IRI> changed = OSCChecker.getInstance().check(ontology).violations()
+                .map(OSCViolation::getIRI)
+                .filter(i -> !OSCOntology.NAMESPACE.equals(i.getNamespace()))
+                .distinct()
+                .sorted()
+                .skip(1)
+                .limit(3)
+                .collect(Collectors.toList());
+        Assert.assertEquals(changed.size(), 3);
+
+        OSCReport report = getTicking().check(ontology, changed, Duration.ofNanos(4));
+        OSCCoverage coverage = report.getCoverage();
+
+        Assert.assertEquals(coverage.getChecked(), 3);
+        Assert.assertEquals(coverage.getChecked(OSCCoverage.Tier.CHANGED), 3);
+        Assert.assertEquals(coverage.getTotal(OSCCoverage.Tier.CHANGED), 3);
+        Assert.assertEquals(coverage.getChecked(OSCCoverage.Tier.ONTOSPM), 0);
+        Assert.assertEquals(report.violations().map(OSCViolation::getIRI).collect(Collectors.toSet()),
+                new HashSet<>(changed));
+        Assert.assertTrue(coverage.toString().endsWith("stopped at deadline"), coverage.toString());
+    }
+
+    @Test
+    public void testTiers() {
+
+        IRI changed = IRI.create(OSCOntology.NAMESPACE + "scalpel");
+        OSCCoverage.Tier[] order = OSCCoverage.Tier.values();
+        OSCCoverage coverage = getTicking()
+                .check(ontology, Arrays.asList(changed, IRI.create("http://example.org/none")), Duration.ofNanos(Long.MAX_VALUE))
+                .getCoverage();
+
+        Assert.assertTrue(coverage.isComplete());
+        Assert.assertEquals(coverage.getTotal(OSCCoverage.Tier.CHANGED), 1);
+        Assert.assertEquals(coverage.getTotal(OSCCoverage.Tier.ONTOSPM) + 1,
+                ontology.getView(OSCClassViews.ONTOSPM).stream().count());
+        Assert.assertEquals(Arrays.stream(order).mapToLong(coverage::getTotal).sum(),
+                ontology.getOntology().classesInSignature(Imports.INCLUDED).count());
+
+        // an OntoSPM budget stops before the imported classes
+        long budget = coverage.getTotal(OSCCoverage.Tier.CHANGED) + coverage.getTotal(OSCCoverage.Tier.ONTOSPM) + 1;
+        coverage = getTicking().check(ontology, Collections.singleton(changed), Duration.ofNanos(budget)).getCoverage();
+
+        Assert.assertEquals(coverage.getChecked(OSCCoverage.Tier.ONTOSPM), coverage.getTotal(OSCCoverage.Tier.ONTOSPM));
+        Assert.assertEquals(coverage.getChecked(OSCCoverage.Tier.IMPORTED), 0);
+        Assert.assertFalse(coverage.isComplete());
+    }
+}
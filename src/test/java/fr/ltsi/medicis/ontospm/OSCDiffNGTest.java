@@ -0,0 +1,98 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.util.OWLEntityRemover;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Differences found by {@link OSCDiff} between two versions of the test
+ * ontology.
+ *
+ * @author javier
+ */
+public class OSCDiffNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    @Test
+    public void testSameVersion() {
+
+        OSCManager manager1 = OSCManager.getInstance(PATH);
+        OSCManager manager2 = OSCManager.getInstance(PATH);
+        OSCDiff diff = OSCDiff.getInstance(
+                OSCOntology.getInstance(manager1.getOntology(), manager1.getFactory()),
+                OSCOntology.getInstance(manager2.getOntology(), manager2.getFactory()));
+
+        Assert.assertTrue(diff.isEmpty(), diff.getChanges().toString());
+        Assert.assertEquals(diff.check(OSCChecker.getInstance()).getVisited(), 0);
+    }
+
+    @Test
+    public void testChanges() {
+
+        OSCManager manager1 = OSCManager.getInstance(PATH);
+        OSCManager manager2 = OSCManager.getInstance(PATH);
+        OWLOntology ontology = manager2.getOntology();
+        OWLDataFactory factory = manager2.getFactory();
+
+        OWLClass modified = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "scalpel"));
+        OWLClass removed = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "forceps"));
+        OWLClass added = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "new_instrument"));
+
+        List<OWLAxiom> definitions = ontology.annotationAssertionAxioms(modified.getIRI())
+                .filter(a -> a.getProperty().getIRI().equals(OSCClassRules.IAO_DEFINITION))
+                .collect(Collectors.toList());
+        Assert.assertFalse(definitions.isEmpty());
+        ontology.remove(definitions);
+
+        OWLEntityRemover remover = new OWLEntityRemover(Collections.singleton(ontology));
+        removed.accept(remover);
+        ontology.applyChanges(remover.getChanges());
+        ontology.add(factory.getOWLSubClassOfAxiom(added, modified));
+
+        OSCOntology before = OSCOntology.getInstance(manager1.getOntology(), manager1.getFactory());
+        OSCOntology after = OSCOntology.getInstance(ontology, factory);
+        OSCDiff diff = OSCDiff.getInstance(before, after, new ForkJoinPool(4));
+
+        Assert.assertEquals(diff.changes(OSCDiff.Kind.REMOVED).map(OSCDiff.Change::getOWLClass).collect(Collectors.toList()),
+                Collections.singletonList(removed));
+        Assert.assertEquals(diff.changes(OSCDiff.Kind.ADDED).map(OSCDiff.Change::getOWLClass).collect(Collectors.toList()),
+                Collections.singletonList(added));
+
+        // the new subclass axiom references the modified class too
+        OSCDiff.Change change = diff.changes(OSCDiff.Kind.MODIFIED)
+                .filter(c -> c.getOWLClass().equals(modified))
+                .findAny().orElse(null);
+        Assert.assertNotNull(change, diff.getChanges().toString());
+        Assert.assertTrue(diff.removedAxioms(change).containsAll(definitions));
+        Assert.assertEquals(diff.addedAxioms(change), Collections.singletonList(factory.getOWLSubClassOfAxiom(added, modified)));
+
+        // the same changes whatever the parallelism
+        Assert.assertEquals(OSCDiff.getInstance(before, after, new ForkJoinPool(1)).getChanges().toString(),
+                diff.getChanges().toString());
+
+        OSCReport report = diff.check(OSCChecker.getInstance());
+        Assert.assertEquals(report.getVisited(), diff.changedClasses().count());
+        Assert.assertTrue(report.hasViolation(OSCClassRules.DEFINITION, modified));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        diff.print(new PrintStream(bytes, true));
+        String notes = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertTrue(notes.contains("Removed classes: 1"), notes);
+        Assert.assertTrue(notes.contains(added.getIRI().toString()), notes);
+    }
+}
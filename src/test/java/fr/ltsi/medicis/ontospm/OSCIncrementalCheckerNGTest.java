@@ -0,0 +1,82 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Re-checking of {@link OSCIncrementalChecker} after edits of the ontology.
+ *
+ * @author javier
+ */
+public class OSCIncrementalCheckerNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    @Test
+    public void testOnlyChangedClassesAreChecked() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        OWLOntology ontology = manager.getOntology();
+        OWLDataFactory factory = manager.getFactory();
+        OSCChecker checker = OSCChecker.getInstance();
+        OSCIncrementalChecker incremental = OSCIncrementalChecker.getInstance(checker);
+
+        OSCReport first = incremental.check(OSCOntology.getInstance(ontology, factory));
+        Assert.assertEquals(first.getViolations(), checker.check(OSCOntology.getInstance(ontology, factory)).getViolations());
+        Assert.assertEquals(incremental.getChecked().size(), first.getVisited());
+
+        OSCReport unchanged = incremental.check(OSCOntology.getInstance(ontology, factory));
+        Assert.assertTrue(incremental.getChecked().isEmpty());
+        Assert.assertEquals(unchanged.getViolations(), first.getViolations());
+
+        // remove the definition of a leaf class, and the labels of a class with subclasses
+        OWLClass leaf = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "scalpel"));
+        OWLClass parent = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "surgical_instrument"));
+        ontology.remove(ontology.annotationAssertionAxioms(leaf.getIRI())
+                .filter(a -> a.getProperty().getIRI().equals(OSCClassRules.IAO_DEFINITION))
+                .collect(Collectors.toList()));
+        ontology.remove(ontology.annotationAssertionAxioms(parent.getIRI())
+                .filter(a -> a.getProperty().getIRI().equals(SKOSVocabulary.PREFLABEL.getIRI()))
+                .collect(Collectors.toList()));
+
+        OSCReport edited = incremental.check(OSCOntology.getInstance(ontology, factory));
+        Assert.assertTrue(incremental.getChecked().contains(leaf.getIRI()));
+        Assert.assertTrue(incremental.getChecked().contains(parent.getIRI()));
+        Assert.assertTrue(incremental.getChecked().size() < first.getVisited() / 2, incremental.getChecked().toString());
+        Assert.assertEquals(edited.getViolations(), checker.check(OSCOntology.getInstance(ontology, factory)).getViolations());
+        Assert.assertTrue(edited.hasViolation(OSCClassRules.DEFINITION, leaf));
+        Assert.assertTrue(edited.hasViolation(OSCClassRules.ENGLISH_LABEL, parent));
+    }
+
+    @Test
+    public void testReloadedOntology() {
+
+        OSCChecker checker = OSCChecker.getInstance();
+        OSCIncrementalChecker incremental = OSCIncrementalChecker.getInstance(checker);
+        OSCManager first = OSCManager.getInstance(PATH);
+        OSCReport report = incremental.check(OSCOntology.getInstance(first.getOntology(), first.getFactory()));
+
+        // the same document loaded again is compared axiom by axiom
+        OSCManager second = OSCManager.getInstance(PATH);
+        OWLOntology ontology = second.getOntology();
+        OWLClass leaf = second.getFactory().getOWLClass(IRI.create(OSCOntology.NAMESPACE + "scalpel"));
+        ontology.remove(ontology.annotationAssertionAxioms(leaf.getIRI())
+                .filter(a -> a.getProperty().getIRI().equals(OSCClassRules.IAO_DEFINITION))
+                .collect(Collectors.toList()));
+
+        OSCReport edited = incremental.check(OSCOntology.getInstance(ontology, second.getFactory()));
+        // the class and its descendants only
+        Assert.assertTrue(incremental.getChecked().contains(leaf.getIRI()));
+        Assert.assertTrue(incremental.getChecked().size() < 10, incremental.getChecked().toString());
+        Assert.assertEquals(edited.size(), report.size() + 1);
+        Assert.assertTrue(edited.hasViolation(OSCClassRules.DEFINITION, leaf));
+    }
+}
@@ -0,0 +1,93 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Phase and rule metrics.
+ *
+ * @author javier
+ */
+public class OSCMetricsNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCOntology ontology;
+
+    public OSCMetricsNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+    }
+
+    @Test
+    public void testDisabled() {
+
+        OSCMetrics metrics = OSCMetrics.newInstance(false);
+        metrics.start("load").stop(1);
+
+        Assert.assertFalse(metrics.isEnabled());
+        Assert.assertTrue(metrics.getCounters().isEmpty());
+    }
+
+    @Test
+    public void testProbe() {
+
+        OSCMetrics metrics = OSCMetrics.newInstance(true);
+        for (int i = 0; i < 3; i++) {
+
+            OSCMetrics.Probe probe = metrics.start("phase");
+            probe.stop(10);
+        }
+
+        OSCMetrics.Counter counter = metrics.getCounters().get("phase");
+        Assert.assertEquals(counter.getCalls(), 3);
+        Assert.assertEquals(counter.getItems(), 30);
+        Assert.assertTrue(counter.getNanos() >= 0);
+    }
+
+    @Test
+    public void testRules() {
+
+        OSCMetrics metrics = OSCMetrics.newInstance(true);
+        OSCChecker checker = OSCChecker.getInstance(OSCChecker.getInstance().getRules(), metrics);
+        OSCReport report = checker.check(ontology);
+        checker.check(ontology, 4);
+
+        // measuring does not change the report
+        Assert.assertEquals(report.getViolations(), OSCChecker.getInstance().check(ontology).getViolations());
+
+        Assert.assertEquals(metrics.getCounters().get("check").getCalls(), 2);
+        Assert.assertEquals(metrics.getCounters().get("check").getItems(), 2 * report.getVisited());
+        for (OSCClassRule rule : checker.getRules()) {
+
+            OSCMetrics.Counter counter = metrics.getCounters().get("rule:" + rule.getId());
+            Assert.assertNotNull(counter, rule.getId());
+            // every class is offered to every rule, in both runs
+            Assert.assertEquals(counter.getCalls(), 2 * report.getVisited(), rule.getId());
+            Assert.assertTrue(counter.getItems() <= counter.getCalls(), rule.getId());
+            Assert.assertTrue(counter.getBytes() >= 0, rule.getId());
+        }
+    }
+
+    @Test
+    public void testPrint() {
+
+        OSCMetrics metrics = OSCMetrics.newInstance(true);
+        metrics.start("load").stop(42);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        metrics.print(new PrintStream(bytes, true));
+        String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\\R");
+
+        Assert.assertEquals(lines.length, 2);
+        Assert.assertTrue(lines[0].startsWith("phase"));
+        Assert.assertTrue(lines[1].startsWith("load"));
+        Assert.assertTrue(lines[1].contains(" 42 "));
+    }
+}
@@ -0,0 +1,199 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Offline loading of import closures from a local mirror.
+ *
+ * @author javier
+ */
+public class OSCMirrorNGTest {
+
+    private static final String BASE = "http://example.org/osc/";
+
+    private final List<Path> directories = new ArrayList<>();
+    private Path directory;
+    private Path root;
+
+    /**
+     * Write a mirror where <code>a</code> imports <code>b</code> by its
+     * version IRI, <code>d</code> and an unmirrored ontology, and
+     * <code>b</code> imports <code>c</code>. Only <code>d</code> is not
+     * listed in the catalog.
+     */
+    @BeforeClass
+    public void setUp()
+            throws
+            Exception {
+
+        directory = this.temporary("osc-mirror");
+        root = directory.resolve("a.owl");
+
+        save(ontology("a", null, "b/1.0/b.owl", "d.owl", "missing.owl"), root);
+        save(ontology("b", "b/1.0/b.owl", "c.owl"), directory.resolve("b.owl"));
+        save(ontology("c", null), directory.resolve("c.rdf.txt"));
+        save(ontology("d", null), directory.resolve("d.owl"));
+
+        String catalog = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n"
+                + "<catalog prefer=\"public\" xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">\n"
+                + "    <uri id=\"b\" name=\"" + BASE + "b/1.0/b.owl\" uri=\"b.owl\"/>\n"
+                + "    <uri id=\"c\" name=\"" + BASE + "c.owl\" uri=\"c.rdf.txt\"/>\n"
+                + "    <uri id=\"remote\" name=\"" + BASE + "missing.owl\" uri=\"" + BASE + "missing.owl\"/>\n"
+                + "</catalog>\n";
+        Files.write(directory.resolve(OSCMirror.CATALOG), catalog.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterClass
+    public void tearDown()
+            throws
+            java.io.IOException {
+
+        for (Path temporary : directories) {
+
+            delete(temporary);
+        }
+    }
+
+    /**
+     * Create a temporary directory, deleted after the tests.
+     */
+    private Path temporary(final String prefix)
+            throws
+            java.io.IOException {
+
+        Path temporary = Files.createTempDirectory(prefix);
+        directories.add(temporary);
+
+        return temporary;
+    }
+
+    private static void delete(final Path directory)
+            throws
+            java.io.IOException {
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static OWLOntology ontology(final String name, final String version, final String... imports)
+            throws
+            Exception {
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntologyID id = version == null
+                ? new OWLOntologyID(IRI.create(BASE + name + ".owl"))
+                : new OWLOntologyID(Optional.of(IRI.create(BASE + name + ".owl")), Optional.of(IRI.create(BASE + version)));
+        OWLOntology ontology = manager.createOntology(id);
+
+        OWLClass classe = factory.getOWLClass(IRI.create(BASE + name));
+        manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(classe));
+        for (String i : imports) {
+
+            manager.applyChange(new AddImport(ontology, factory.getOWLImportsDeclaration(IRI.create(BASE + i))));
+        }
+
+        return ontology;
+    }
+
+    private static void save(final OWLOntology ontology, final Path path)
+            throws
+            Exception {
+
+        ontology.getOWLOntologyManager().saveOntology(ontology, new RDFXMLDocumentFormat(), IRI.create(path.toFile()));
+    }
+
+    private static Set<String> closure(final OWLOntology ontology) {
+
+        return ontology.importsClosure()
+                .map(o -> o.getOntologyID().getOntologyIRI().get().toString())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testCatalog() {
+
+        OSCMirror mirror = OSCMirror.getInstance(directory);
+
+        Assert.assertEquals(mirror.getDocument(IRI.create(BASE + "c.owl")), Optional.of(directory.resolve("c.rdf.txt")));
+        Assert.assertEquals(mirror.getDocument(IRI.create(BASE + "b/1.0/b.owl")), Optional.of(directory.resolve("b.owl")));
+        Assert.assertEquals(mirror.getDocument(IRI.create(BASE + "d.owl")), Optional.of(directory.resolve("d.owl")));
+        Assert.assertFalse(mirror.getDocument(IRI.create(BASE + "missing.owl")).isPresent());
+    }
+
+    @Test
+    public void testImportClosure() {
+
+        OSCManager manager = OSCManager.getInstance(root, null, OSCMirror.getInstance(directory));
+        OWLOntology ontology = manager.getOntology();
+
+        Assert.assertEquals(closure(ontology), Arrays.stream(new String[]{"a", "b", "c", "d"})
+                .map(n -> BASE + n + ".owl")
+                .collect(Collectors.toSet()));
+        Assert.assertTrue(ontology.containsClassInSignature(IRI.create(BASE + "c"), Imports.INCLUDED));
+        Assert.assertFalse(ontology.containsClassInSignature(IRI.create(BASE + "c"), Imports.EXCLUDED));
+        Assert.assertEquals(ontology.importsDeclarations().count(), 3);
+    }
+
+    @Test
+    public void testImportClosureIsCached()
+            throws
+            java.io.IOException {
+
+        OSCSnapshotCache cache = OSCSnapshotCache.getInstance(this.temporary("osc-cache"));
+        OSCMirror mirror = OSCMirror.getInstance(directory);
+
+        OSCManager parsed = OSCManager.getInstance(root, cache, mirror);
+        for (String document : new String[]{"a.owl", "b.owl", "c.rdf.txt", "d.owl"}) {
+
+            Assert.assertTrue(Files.isRegularFile(cache.entry(directory.resolve(document))), document);
+        }
+
+        OSCManager loaded = OSCManager.getInstance(root, cache, mirror);
+        Assert.assertEquals(closure(loaded.getOntology()), closure(parsed.getOntology()));
+    }
+
+    /**
+     * A snapshot written through the mirror is read without it.
+     */
+    @Test
+    public void testSnapshotIsShared()
+            throws
+            java.io.IOException {
+
+        OSCSnapshotCache cache = OSCSnapshotCache.getInstance(this.temporary("osc-cache"));
+        OSCManager.getInstance(root, cache, OSCMirror.getInstance(directory));
+        String digest = OSCSnapshotCache.digest(root, OSCManager.key(OSCManager.configuration()));
+
+        Assert.assertTrue(cache.load(root, digest, OWLManager.createOWLOntologyManager()).isPresent());
+    }
+}
@@ -0,0 +1,192 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Near duplicate labels found with the trigram index, against a comparison
+ * of all pairs.
+ *
+ * @author javier
+ */
+public class OSCNearDuplicatesNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCOntology ontology;
+    private final Map<Long, Integer> alphabet = new HashMap<>();
+
+    public OSCNearDuplicatesNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+    }
+
+    @DataProvider
+    private Object[][] getThresholds() {
+
+        return new Object[][]{{0.4}, {0.5}, {0.6}, {0.8}, {1.0}};
+    }
+
+    @Test(dataProvider = "getThresholds")
+    public void testSameAsAllPairs(double threshold) {
+
+        OSCNearDuplicates duplicates = OSCNearDuplicates.getInstance(ontology, threshold);
+        Map<String, Map<String, Double>> expected = allPairs(threshold);
+
+        Assert.assertEquals(duplicates.getLanguages(), expected.keySet());
+        for (String language : expected.keySet()) {
+
+            Map<String, Double> found = duplicates.getPairs(language).stream()
+                    .collect(Collectors.toMap(p -> p.getFirst().getIRI() + " " + p.getSecond().getIRI(), OSCNearDuplicates.Pair::getSimilarity));
+            Assert.assertEquals(found, expected.get(language), language);
+        }
+    }
+
+    @Test
+    public void testVariants()
+            throws
+            OWLOntologyCreationException {
+
+        OWLOntology o = OWLManager.createOWLOntologyManager().createOntology();
+        OWLDataFactory factory = o.getOWLOntologyManager().getOWLDataFactory();
+        String[][] labels = {
+            {"a", "surgical scalpel"},
+            {"b", "Surgical-Scalpel"},
+            {"c", "surgical scalpels"},
+            {"d", "surgical scapel"},
+            {"e", "forceps"},
+            {"f", "retractor"}};
+        for (String[] label : labels) {
+
+            OWLClass classe = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + label[0]));
+            o.add(factory.getOWLDeclarationAxiom(classe));
+            o.add(factory.getOWLAnnotationAssertionAxiom(factory.getOWLAnnotationProperty(SKOSVocabulary.PREFLABEL.getIRI()),
+                    classe.getIRI(), factory.getOWLLiteral(label[1], "en")));
+        }
+
+        OSCNearDuplicates duplicates = OSCNearDuplicates.getInstance(OSCOntology.getInstance(o, factory), 0.7);
+        List<OSCNearDuplicates.Pair> pairs = duplicates.getPairs("en");
+
+        // scalpel variants one edit apart, the identical normalised labels first
+        Assert.assertEquals(pairs.size(), 5, pairs.toString());
+        Assert.assertEquals(pairs.get(0).getSimilarity(), 1.0);
+        Assert.assertEquals(Arrays.asList(pairs.get(0).getFirstLabel(), pairs.get(0).getSecondLabel()),
+                Arrays.asList("surgical scalpel", "Surgical-Scalpel"));
+        Assert.assertTrue(pairs.stream().noneMatch(p -> p.getFirstLabel().equals("surgical scalpels") && p.getSecondLabel().equals("surgical scapel")));
+        Assert.assertTrue(pairs.stream().noneMatch(p -> p.getFirstLabel().equals("forceps") || p.getSecondLabel().equals("forceps")));
+        Assert.assertTrue(duplicates.getPairs("fr").isEmpty());
+    }
+
+    /**
+     * Labels tagged <code>EN</code> and <code>en</code> are in the same
+     * language.
+     */
+    @Test
+    public void testLanguageCase()
+            throws
+            OWLOntologyCreationException {
+
+        OWLOntology o = OWLManager.createOWLOntologyManager().createOntology();
+        OWLDataFactory factory = o.getOWLOntologyManager().getOWLDataFactory();
+        String[][] labels = {
+            {"a", "surgical scalpel", "EN"},
+            {"b", "surgical scalpels", "en"}};
+        for (String[] label : labels) {
+
+            OWLClass classe = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + label[0]));
+            o.add(factory.getOWLDeclarationAxiom(classe));
+            o.add(factory.getOWLAnnotationAssertionAxiom(factory.getOWLAnnotationProperty(SKOSVocabulary.PREFLABEL.getIRI()),
+                    classe.getIRI(), factory.getOWLLiteral(label[1], label[2])));
+        }
+
+        OSCNearDuplicates duplicates = OSCNearDuplicates.getInstance(OSCOntology.getInstance(o, factory), 0.7);
+
+        Assert.assertEquals(duplicates.getLanguages(), Collections.singleton("en"));
+        Assert.assertEquals(duplicates.getPairs("en").size(), 1);
+        Assert.assertEquals(duplicates.getPairs("EN"), duplicates.getPairs("en"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testThreshold() {
+
+        OSCNearDuplicates.getInstance(ontology, 0);
+    }
+
+    /**
+     * Compare all pairs of labels of classes that are not deprecated.
+     */
+    private Map<String, Map<String, Double>> allPairs(final double threshold) {
+
+        Map<String, List<Object[]>> labels = new HashMap<>();
+        ontology.getView(OSCClassViews.ALL).stream()
+                .map(ontology::snapshot)
+                .filter(s -> !s.isDeprecated())
+                .forEach(s -> {
+
+                    for (OWLLiteral literal : s.getPreferredLabels()) {
+
+                        labels.computeIfAbsent(literal.getLang().toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                                .add(new Object[]{s.getOWLClass(), this.grams(literal.getLiteral())});
+                    }
+                });
+
+        Map<String, Map<String, Double>> result = new TreeMap<>();
+        labels.forEach((language, list) -> {
+
+            for (int i = 0; i < list.size(); i++) {
+
+                for (int j = 0; j < list.size(); j++) {
+
+                    OWLClass c1 = (OWLClass) list.get(i)[0];
+                    OWLClass c2 = (OWLClass) list.get(j)[0];
+                    if (c1.getIRI().toString().compareTo(c2.getIRI().toString()) >= 0) {
+
+                        continue;
+                    }
+
+                    double similarity = OSCNearDuplicates.similarity((int[]) list.get(i)[1], (int[]) list.get(j)[1]);
+                    if (similarity >= threshold - 1e-9) {
+
+                        result.computeIfAbsent(language, k -> new HashMap<>())
+                                .merge(c1.getIRI() + " " + c2.getIRI(), similarity, Math::max);
+                    }
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Trigrams of a label as ints, sorted: the similarity does not depend on
+     * their numbering.
+     */
+    private int[] grams(final String label) {
+
+        return Arrays.stream(OSCNearDuplicates.trigrams(OSCUtil.toNormalisedSegmentPath(label)))
+                .mapToInt(t -> alphabet.computeIfAbsent(t, k -> alphabet.size()))
+                .sorted()
+                .toArray();
+    }
+}
@@ -0,0 +1,310 @@
+package fr.ltsi.medicis.ontospm;
+
+import static fr.ltsi.medicis.ontospm.OSCOntology.NAMESPACE;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+
+/**
+ * Generator of ontologies shaped like OntoSPM, for scaling tests and
+ * benchmarks.
+ *
+ * The ontology has instrument categories, instruments restricted on their
+ * function, functions of instruments and surgical phases, as random trees
+ * below fixed roots. Each class has English, French and German preferred
+ * labels, a definition and an IRI matching its English label; a part of the
+ * classes is deprecated. A part of the other classes gets one defect, each
+ * violating known {@link OSCClassRules}: the generator counts the violations
+ * expected from a check run.
+ *
+ * The same size, seed and violation rate always give the same ontology.
+ *
+ * @author javier
+ */
+public final class OSCOntologyGenerator {
+
+    /**
+     * Part of the generated classes that are deprecated.
+     */
+    public static final double DEPRECATED = 0.02;
+
+    private static final String[] EN = {"ka", "lo", "mi", "ne", "ru", "sa", "ti", "vo", "be", "du", "fe", "gi", "ha", "jo", "pu", "ze"};
+    private static final String[] FR = {"ou", "ai", "ché", "eau", "ri", "lé", "mo", "na", "pi", "qua", "sé", "tu", "vé", "yo", "zè", "bo"};
+    private static final String[] DE = {"ach", "ei", "gut", "hal", "ko", "lü", "mar", "nor", "ost", "pf", "rei", "sch", "tr", "ul", "wa", "zu"};
+
+    private static final String[][] ROOTS = {
+        {"surgical_instrument", "surgical instrument", "instrument chirurgical", "chirurgisches Instrument"},
+        {"medical_device", "medical device", "dispositif médical", "Medizinprodukt"},
+        {"surgical_material", "surgical material", "matériel chirurgical", "chirurgisches Material"},
+        {"function_of_instrument", "function of instrument", "fonction d'instrument", "Instrumentfunktion"},
+        {"surgical_phase", "surgical phase", "phase chirurgicale", "chirurgische Phase"}};
+    private static final String[][] NOUNS = {
+        {"forceps", "pince", "zange"},
+        {"pump", "pompe", "pumpe"},
+        {"suture", "fil", "faden"},
+        {"to", "pour", "zum"},
+        {"phase", "phase", "phase"}};
+
+    /**
+     * Defects injected into the generated classes.
+     */
+    public enum Defect {
+
+        NO_FRENCH_LABEL(OSCClassRules.ALL_LABELS, OSCClassRules.FRENCH_LABEL),
+        UNDERSCORE_IN_LABEL(OSCClassRules.UNDERSCORE_IN_LABEL),
+        RDFS_LABEL(OSCClassRules.RDFS_LABEL),
+        NO_DEFINITION(OSCClassRules.DEFINITION),
+        IRI_MISMATCH(OSCClassRules.IRI_MATCHES_LABEL);
+
+        private final OSCClassRules[] rules;
+
+        private Defect(final OSCClassRules... rules) {
+
+            this.rules = rules;
+        }
+    }
+
+    private final int size;
+    private final long seed;
+    private final double violations;
+    private final Map<OSCClassRules, Long> expected = new EnumMap<>(OSCClassRules.class);
+
+    private OSCOntologyGenerator(final int size, final long seed, final double violations) {
+
+        this.size = size;
+        this.seed = seed;
+        this.violations = violations;
+    }
+
+    /**
+     * @param size number of generated classes, roots excluded.
+     * @param seed
+     * @param violations part of the classes that are not deprecated with a
+     * {@link Defect}, between 0 and 1.
+     * @return
+     */
+    public static OSCOntologyGenerator getInstance(final int size, final long seed, final double violations) {
+
+        if (violations < 0 || violations > 1) {
+
+            throw new IllegalArgumentException("violations must be between 0 and 1: " + violations);
+        }
+
+        return new OSCOntologyGenerator(size, seed, violations);
+    }
+
+    /**
+     * @param size
+     * @param seed
+     * @return a generator with 5% of defective classes.
+     */
+    public static OSCOntologyGenerator getInstance(final int size, final long seed) {
+
+        return getInstance(size, seed, 0.05);
+    }
+
+    public int getSize() {
+
+        return size;
+    }
+
+    /**
+     * @param rule
+     * @return number of violations of a rule in the last generated ontology.
+     */
+    public long getExpected(final OSCClassRules rule) {
+
+        return expected.getOrDefault(rule, 0L);
+    }
+
+    /**
+     * @return number of violations in the last generated ontology.
+     */
+    public long getExpected() {
+
+        return expected.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Generate the ontology in a new manager.
+     *
+     * @return
+     */
+    public OWLOntology generate() {
+
+        OWLOntologyManager manager = OWLManager.createConcurrentOWLOntologyManager();
+
+        try {
+
+            return this.generate(manager.createOntology(IRI.create(NAMESPACE.substring(0, NAMESPACE.length() - 1))));
+        } catch (OWLOntologyCreationException e) {
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Generate the ontology into an empty ontology.
+     *
+     * @param ontology
+     * @return the ontology.
+     */
+    public OWLOntology generate(final OWLOntology ontology) {
+
+        OWLDataFactory factory = ontology.getOWLOntologyManager().getOWLDataFactory();
+        Random random = new Random(seed);
+        expected.clear();
+
+        OWLObjectProperty function = factory.getOWLObjectProperty(IRI.create(NAMESPACE + "has_instrument_function_at_all_times"));
+        List<OWLAxiom> axioms = new ArrayList<>();
+        axioms.add(factory.getOWLDeclarationAxiom(function));
+        axioms.add(factory.getOWLAnnotationAssertionAxiom(factory.getOWLAnnotationProperty(SKOSVocabulary.PREFLABEL.getIRI()),
+                function.getIRI(), factory.getOWLLiteral("has instrument function at all times", "en")));
+        ontology.add(axioms);
+
+        // classes of each root, the root first
+        List<List<OWLClass>> trees = new ArrayList<>();
+        for (String[] root : ROOTS) {
+
+            OWLClass classe = factory.getOWLClass(IRI.create(NAMESPACE + root[0]));
+            axioms.clear();
+            this.annotate(factory, classe, root[1], root[2], root[3], null, axioms);
+            ontology.add(axioms);
+            trees.add(new ArrayList<>(Collections.singletonList(classe)));
+        }
+        List<OWLClass> functions = trees.get(3);
+
+        for (int i = 0; i < size; i++) {
+
+            // 60% instruments, 15% functions, 25% phases
+            int draw = random.nextInt(20);
+            int kind = draw < 12 ? draw % 3 : draw < 15 ? 3 : 4;
+            List<OWLClass> tree = trees.get(kind);
+            String word = word(EN, i);
+            String en = kind == 3 ? NOUNS[kind][0] + " " + word : word + " " + NOUNS[kind][0];
+            String fr = NOUNS[kind][1] + " " + word(FR, i);
+            String de = word(DE, i) + NOUNS[kind][2];
+            boolean deprecated = random.nextDouble() < DEPRECATED;
+            Defect defect = !deprecated && random.nextDouble() < violations
+                    ? Defect.values()[random.nextInt(Defect.values().length)]
+                    : null;
+
+            String name = OSCUtil.toNormalisedSegmentPath(en);
+            OWLClass classe = factory.getOWLClass(IRI.create(NAMESPACE + (defect == Defect.IRI_MISMATCH ? name + "_" : name)));
+            OWLClass parent = tree.get(random.nextInt(tree.size()));
+
+            axioms.clear();
+            axioms.add(factory.getOWLSubClassOfAxiom(classe, parent));
+            this.annotate(factory, classe, en,
+                    defect == Defect.NO_FRENCH_LABEL ? null : defect == Defect.UNDERSCORE_IN_LABEL ? fr.replace(' ', '_') : fr,
+                    de, defect, axioms);
+            if (kind < 3 && functions.size() > 1) {
+
+                OWLClass filler = functions.get(1 + random.nextInt(functions.size() - 1));
+                axioms.add(factory.getOWLSubClassOfAxiom(classe, factory.getOWLObjectSomeValuesFrom(function, filler)));
+            }
+            if (deprecated) {
+
+                axioms.add(factory.getDeprecatedOWLAnnotationAssertionAxiom(classe.getIRI()));
+            } else {
+
+                tree.add(classe);
+            }
+            if (defect != null) {
+
+                for (OSCClassRules rule : defect.rules) {
+
+                    expected.merge(rule, 1L, Long::sum);
+                }
+            }
+            ontology.add(axioms);
+        }
+
+        return ontology;
+    }
+
+    /**
+     * Generate the ontology and save it as RDF/XML.
+     *
+     * @param path
+     * @return the path.
+     * @throws IOException
+     */
+    public Path write(final Path path)
+            throws IOException {
+
+        OWLOntology ontology = this.generate();
+
+        try (OutputStream out = Files.newOutputStream(path)) {
+
+            ontology.getOWLOntologyManager().saveOntology(ontology, new RDFXMLDocumentFormat(), out);
+        } catch (OWLOntologyStorageException e) {
+
+            throw new IOException(e);
+        }
+
+        return path;
+    }
+
+    private void annotate(final OWLDataFactory factory, final OWLClass classe, final String en, final String fr, final String de, final Defect defect, final List<OWLAxiom> axioms) {
+
+        IRI iri = classe.getIRI();
+        axioms.add(factory.getOWLDeclarationAxiom(classe));
+        axioms.add(label(factory, SKOSVocabulary.PREFLABEL.getIRI(), iri, en, "en"));
+        if (fr != null) {
+
+            axioms.add(label(factory, SKOSVocabulary.PREFLABEL.getIRI(), iri, fr, "fr"));
+        }
+        axioms.add(label(factory, SKOSVocabulary.PREFLABEL.getIRI(), iri, de, "de"));
+        if (defect == Defect.RDFS_LABEL) {
+
+            axioms.add(label(factory, OWLRDFVocabulary.RDFS_LABEL.getIRI(), iri, en, "en"));
+        }
+        if (defect != Defect.NO_DEFINITION) {
+
+            axioms.add(label(factory, OSCClassRules.IAO_DEFINITION, iri, "a generated " + en + ", used for scaling tests.", "en"));
+        }
+    }
+
+    private static OWLAxiom label(final OWLDataFactory factory, final IRI property, final IRI subject, final String value, final String language) {
+
+        return factory.getOWLAnnotationAssertionAxiom(factory.getOWLAnnotationProperty(property), subject, factory.getOWLLiteral(value, language));
+    }
+
+    /**
+     * Spell a number with syllables, at least two: distinct numbers give
+     * distinct words.
+     */
+    private static String word(final String[] syllables, final int number) {
+
+        StringBuilder result = new StringBuilder();
+        int n = number;
+        do {
+
+            result.append(syllables[n % syllables.length]);
+            n /= syllables.length;
+        } while (n > 0 || result.length() < 4);
+
+        return result.toString();
+    }
+}
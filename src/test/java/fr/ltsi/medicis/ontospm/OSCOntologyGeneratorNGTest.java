@@ -0,0 +1,96 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Shape of the ontologies of {@link OSCOntologyGenerator}.
+ *
+ * @author javier
+ */
+public class OSCOntologyGeneratorNGTest {
+
+    private static final int SIZE = 3000;
+
+    @Test
+    public void testDeterministic() {
+
+        OWLOntology o1 = OSCOntologyGenerator.getInstance(500, 7).generate();
+        OWLOntology o2 = OSCOntologyGenerator.getInstance(500, 7).generate();
+        OWLOntology o3 = OSCOntologyGenerator.getInstance(500, 8).generate();
+
+        Assert.assertEquals(o1.axioms().collect(Collectors.toSet()), o2.axioms().collect(Collectors.toSet()));
+        Assert.assertNotEquals(o1.axioms().collect(Collectors.toSet()), o3.axioms().collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testShape() {
+
+        OWLOntology generated = OSCOntologyGenerator.getInstance(SIZE, 1).generate();
+        OSCOntology ontology = OSCOntology.getInstance(generated, generated.getOWLOntologyManager().getOWLDataFactory(), true);
+        long deprecated = ontology.getView(OSCClassViews.DEPRECATED).stream().count();
+        OWLClass function = ontology.getFactory().getOWLClass(IRI.create(OSCOntology.NAMESPACE + "function_of_instrument"));
+
+        Assert.assertEquals(ontology.classes().count(), SIZE + 5);
+        Assert.assertEquals(ontology.getView(OSCClassViews.ONTOSPM).stream().count(), SIZE + 5);
+        Assert.assertTrue(deprecated > SIZE * OSCOntologyGenerator.DEPRECATED / 2
+                && deprecated < SIZE * OSCOntologyGenerator.DEPRECATED * 2, Long.toString(deprecated));
+        Assert.assertTrue(generated.getAxiomCount(AxiomType.SUBCLASS_OF) > SIZE * 3 / 2);
+
+        // instruments are restricted on live functions only
+        OSCHierarchy hierarchy = ontology.getHierarchy();
+        OSCRestrictionIndex restrictions = ontology.getRestrictions();
+        Assert.assertTrue(restrictions.classes().count() > SIZE / 2);
+        Assert.assertTrue(restrictions.fillers()
+                .allMatch(f -> hierarchy.isDescendant(f, function) && !ontology.getLabelTable().isDeprecated(f)));
+    }
+
+    @Test
+    public void testViolations() {
+
+        OSCOntologyGenerator generator = OSCOntologyGenerator.getInstance(SIZE, 2, 0.1);
+        OWLOntology generated = generator.generate();
+        OSCReport report = OSCChecker.getInstance()
+                .check(OSCOntology.getInstance(generated, generated.getOWLOntologyManager().getOWLDataFactory(), true));
+
+        for (OSCClassRules rule : OSCClassRules.values()) {
+
+            Assert.assertEquals(report.violations(rule).count(), generator.getExpected(rule), rule.getId());
+        }
+        Assert.assertEquals(report.size(), generator.getExpected());
+        Assert.assertTrue(generator.getExpected() > SIZE * 0.1 * 0.8, Long.toString(generator.getExpected()));
+
+        OWLOntology valid = OSCOntologyGenerator.getInstance(SIZE, 2, 0).generate();
+        Assert.assertEquals(OSCChecker.getInstance()
+                .check(OSCOntology.getInstance(valid, valid.getOWLOntologyManager().getOWLDataFactory())).size(), 0);
+    }
+
+    @Test
+    public void testWrite()
+            throws IOException {
+
+        OSCOntologyGenerator generator = OSCOntologyGenerator.getInstance(SIZE, 3);
+        Path path = Files.createTempFile("generated", ".owl");
+
+        try {
+
+            generator.write(path);
+            OSCManager manager = OSCManager.getInstance(path, null);
+            OSCReport report = OSCChecker.getInstance().check(OSCOntology.getInstance(manager.getOntology(), manager.getFactory()));
+
+            Assert.assertEquals(manager.getOntology().getLogicalAxiomCount(), generator.generate().getLogicalAxiomCount());
+            Assert.assertEquals(report.size(), generator.getExpected());
+        } finally {
+
+            Files.delete(path);
+        }
+    }
+}
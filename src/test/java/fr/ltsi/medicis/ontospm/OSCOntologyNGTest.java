@@ -0,0 +1,317 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLQuantifiedObjectRestriction;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Consistency of the indexed mode of {@link OSCOntology} with the scanning
+ * mode.
+ *
+ * @author javier
+ */
+public class OSCOntologyNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+    private static final IRI DEFINITION = IRI.create("http://purl.obolibrary.org/obo/IAO_0000115");
+
+    private final OSCOntology scanned;
+    private final OSCOntology indexed;
+
+    public OSCOntologyNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        scanned = OSCOntology.getInstance(manager.getOntology(), manager.getFactory());
+        indexed = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+    }
+
+    @DataProvider
+    private Object[][] getAllClasses() {
+
+        return scanned.getView(OSCClassViews.ALL).stream()
+                .map(x -> new OWLClass[]{x})
+                .toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "getAllClasses")
+    public void testIndexedAnnotations(OWLClass classe) {
+
+        Assert.assertEquals(indexed.hasAnnotation(classe, OWLRDFVocabulary.OWL_DEPRECATED),
+                scanned.hasAnnotation(classe, OWLRDFVocabulary.OWL_DEPRECATED));
+        Assert.assertEquals(indexed.hasAnnotation(classe, OWLRDFVocabulary.RDFS_LABEL),
+                scanned.hasAnnotation(classe, OWLRDFVocabulary.RDFS_LABEL));
+        Assert.assertEquals(indexed.hasAnnotation(classe, DEFINITION),
+                scanned.hasAnnotation(classe, DEFINITION));
+        Assert.assertEquals(indexed.annotationValues(classe, DEFINITION).collect(Collectors.toSet()),
+                scanned.annotationValues(classe, DEFINITION).collect(Collectors.toSet()));
+    }
+
+    @Test(dataProvider = "getAllClasses")
+    public void testIndexedPreferredLabels(OWLClass classe) {
+
+        Set<?> expected = scanned.preferredLabels(classe).collect(Collectors.toSet());
+
+        Assert.assertEquals(indexed.preferredLabels(classe).collect(Collectors.toSet()), expected);
+        Assert.assertEquals(indexed.annotationProperties(classe, SKOSVocabulary.PREFLABEL).count(),
+                scanned.annotationProperties(classe, SKOSVocabulary.PREFLABEL).count());
+        for (String language : new String[]{"en", "fr", "de"}) {
+
+            String label = indexed.getPreferredLabel(classe, language);
+
+            Assert.assertEquals(label == null, scanned.getPreferredLabel(classe, language) == null, classe.toStringID());
+            Assert.assertEquals(indexed.getLabelTable().getLabel(classe, language), label);
+            if (label != null) {
+
+                Assert.assertTrue(indexed.getLabelTable().classes(label, language).contains(classe));
+                Assert.assertTrue(scanned.getLabelTable().classes(label, language).contains(classe));
+            }
+        }
+    }
+
+    @Test(dataProvider = "getAllClasses")
+    public void testHierarchyClosure(OWLClass classe) {
+
+        // ancestors by traversal of the asserted super classes
+        Set<OWLClass> expected = new HashSet<>();
+        Deque<OWLClass> queue = new ArrayDeque<>();
+        queue.add(classe);
+        while (!queue.isEmpty()) {
+
+            scanned.getOntology().subClassAxiomsForSubClass(queue.poll())
+                    .map(OWLSubClassOfAxiom::getSuperClass)
+                    .filter(c -> !c.isAnonymous())
+                    .map(c -> c.asOWLClass())
+                    .filter(expected::add)
+                    .forEach(queue::add);
+        }
+        expected.remove(classe);
+
+        OSCHierarchy hierarchy = indexed.getHierarchy();
+        Assert.assertEquals(hierarchy.ancestors(classe).collect(Collectors.toSet()), expected);
+        for (OWLClass ancestor : expected) {
+
+            Assert.assertTrue(hierarchy.isDescendant(classe, ancestor));
+            Assert.assertTrue(hierarchy.descendants(ancestor).anyMatch(classe::equals));
+        }
+    }
+
+    @Test(dataProvider = "getAllClasses")
+    public void testRestrictions(OWLClass classe) {
+
+        // restrictions with a named filler among the asserted super classes
+        Set<OWLClass> expected = scanned.getOntology().subClassAxiomsForSubClass(classe)
+                .map(OWLSubClassOfAxiom::getSuperClass)
+                .flatMap(c -> c.asConjunctSet().stream())
+                .filter(c -> c instanceof OWLObjectSomeValuesFrom || c instanceof OWLObjectAllValuesFrom)
+                .map(c -> ((OWLQuantifiedObjectRestriction) c).getFiller())
+                .filter(c -> !c.isAnonymous())
+                .map(c -> c.asOWLClass())
+                .collect(Collectors.toSet());
+
+        OSCRestrictionIndex restrictions = indexed.getRestrictions();
+        Assert.assertEquals(restrictions.restrictions(classe)
+                .filter(r -> r.getAxiomType() == AxiomType.SUBCLASS_OF)
+                .map(OSCRestriction::getFiller)
+                .collect(Collectors.toSet()), expected);
+        for (OWLClass filler : expected) {
+
+            Assert.assertTrue(restrictions.restricting(filler).anyMatch(r -> r.getOWLClass().equals(classe)));
+        }
+    }
+
+    @Test
+    public void testViews() {
+
+        for (OSCClassViews name : OSCClassViews.values()) {
+
+            OSCClassView view = indexed.getView(name);
+            Set<OWLClass> expected = scanned.classes()
+                    .filter(c -> name.test(scanned.getOntology(), c))
+                    .collect(Collectors.toSet());
+
+            Assert.assertSame(indexed.getView(name), view, name.name());
+            Assert.assertEquals(view.size(), expected.size(), name.name());
+            Assert.assertEquals(view.stream().collect(Collectors.toSet()), expected, name.name());
+            Assert.assertEquals(view.stream().parallel().collect(Collectors.toList()),
+                    view.stream().collect(Collectors.toList()), name.name());
+            Assert.assertTrue(expected.stream().allMatch(view::contains), name.name());
+        }
+
+        // same partition as the one of the rules
+        for (OWLClass classe : indexed.getView(OSCClassViews.ALL).toArray()) {
+
+            OSCClassSnapshot snapshot = indexed.snapshot(classe);
+            Assert.assertEquals(indexed.getView(OSCClassViews.LIVE).contains(classe), snapshot.isOntoSPM() && !snapshot.isDeprecated());
+            Assert.assertEquals(indexed.getView(OSCClassViews.DEPRECATED).contains(classe), snapshot.isDeprecated());
+        }
+    }
+
+    @Test
+    public void testViewsFollowChanges()
+            throws
+            org.semanticweb.owlapi.model.OWLOntologyCreationException {
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology o = manager.createOntology();
+        OWLClass a = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "a"));
+        OWLClass b = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "b"));
+        manager.addAxiom(o, factory.getOWLDeclarationAxiom(a));
+        manager.addAxiom(o, factory.getOWLDeclarationAxiom(b));
+
+        OSCOntology ontology = OSCOntology.getInstance(o, factory, true);
+        Assert.assertEquals(ontology.getView(OSCClassViews.LIVE).size(), 2);
+        Assert.assertEquals(ontology.getView(OSCClassViews.DEPRECATED).size(), 0);
+
+        manager.addAxiom(o, factory.getDeprecatedOWLAnnotationAssertionAxiom(a.getIRI()));
+        Assert.assertEquals(ontology.getView(OSCClassViews.LIVE).stream().collect(Collectors.toList()), Collections.singletonList(b));
+        Assert.assertTrue(ontology.getView(OSCClassViews.DEPRECATED).contains(a));
+
+        OWLClass c = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "c"));
+        manager.addAxiom(o, factory.getOWLSubClassOfAxiom(c, b));
+        Assert.assertEquals(ontology.getClassIds().size(), 3);
+        Assert.assertTrue(ontology.getHierarchy().isDescendant(c, b));
+        Assert.assertEquals(ontology.getView(OSCClassViews.LIVE).size(), 2);
+    }
+
+    /**
+     * The classes of a cycle are strict ancestors of each other, not of
+     * themselves.
+     */
+    @Test
+    public void testHierarchyCycle()
+            throws
+            org.semanticweb.owlapi.model.OWLOntologyCreationException {
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology o = manager.createOntology();
+        OWLClass a = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "a"));
+        OWLClass b = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "b"));
+        OWLClass c = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "c"));
+        OWLClass d = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "d"));
+        manager.addAxiom(o, factory.getOWLSubClassOfAxiom(a, b));
+        manager.addAxiom(o, factory.getOWLSubClassOfAxiom(b, a));
+        manager.addAxiom(o, factory.getOWLSubClassOfAxiom(b, c));
+        manager.addAxiom(o, factory.getOWLSubClassOfAxiom(d, a));
+
+        OSCHierarchy hierarchy = OSCOntology.getInstance(o, factory, true).getHierarchy();
+        Assert.assertEquals(hierarchy.ancestors(a).collect(Collectors.toSet()), new HashSet<>(Arrays.asList(b, c)));
+        Assert.assertEquals(hierarchy.ancestors(b).collect(Collectors.toSet()), new HashSet<>(Arrays.asList(a, c)));
+        Assert.assertEquals(hierarchy.descendants(c).collect(Collectors.toSet()), new HashSet<>(Arrays.asList(a, b, d)));
+        Assert.assertTrue(hierarchy.isDescendant(d, c));
+        Assert.assertTrue(hierarchy.isDescendant(a, b) && hierarchy.isDescendant(b, a));
+        Assert.assertFalse(hierarchy.isDescendant(a, a));
+        Assert.assertFalse(hierarchy.isDescendant(c, a));
+        Assert.assertFalse(hierarchy.isDescendant(a, d));
+        Assert.assertTrue(hierarchy.isDescendant(d, hierarchy.toBitSet(Stream.of(c))));
+        Assert.assertFalse(hierarchy.isDescendant(c, hierarchy.toBitSet(Stream.of(a, d))));
+    }
+
+    @Test
+    public void testIndexFollowsChanges()
+            throws
+            org.semanticweb.owlapi.model.OWLOntologyCreationException {
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology o = manager.createOntology();
+        OWLClass a = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "a"));
+        manager.addAxiom(o, factory.getOWLDeclarationAxiom(a));
+
+        OSCOntology ontology = OSCOntology.getInstance(o, factory, true);
+        Assert.assertNull(ontology.getPreferredLabel(a, "en"));
+
+        // the annotation index and the label table are built again
+        manager.addAxiom(o, factory.getOWLAnnotationAssertionAxiom(factory.getOWLAnnotationProperty(SKOSVocabulary.PREFLABEL.getIRI()),
+                a.getIRI(), factory.getOWLLiteral("a", "en")));
+        Assert.assertEquals(ontology.getPreferredLabel(a, "en"), "a");
+        Assert.assertEquals(ontology.getLabelTable().classes("a", "en"), Collections.singletonList(a));
+        Assert.assertTrue(ontology.hasAnnotation(a, SKOSVocabulary.PREFLABEL));
+        Assert.assertEquals(ontology.snapshot(a).getPreferredLabel("en"), "a");
+    }
+
+    /**
+     * Language tags are compared without case in the label table.
+     */
+    @Test
+    public void testLabelLanguages()
+            throws
+            org.semanticweb.owlapi.model.OWLOntologyCreationException {
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology o = manager.createOntology();
+        OWLClass a = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "a"));
+        OWLClass b = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "b"));
+        manager.addAxiom(o, factory.getOWLDeclarationAxiom(a));
+        manager.addAxiom(o, factory.getOWLDeclarationAxiom(b));
+        manager.addAxiom(o, factory.getOWLAnnotationAssertionAxiom(factory.getOWLAnnotationProperty(SKOSVocabulary.PREFLABEL.getIRI()),
+                a.getIRI(), factory.getOWLLiteral("a", "EN")));
+        manager.addAxiom(o, factory.getOWLAnnotationAssertionAxiom(factory.getOWLAnnotationProperty(SKOSVocabulary.PREFLABEL.getIRI()),
+                b.getIRI(), factory.getOWLLiteral("A", "en-GB")));
+        manager.addAxiom(o, factory.getOWLAnnotationAssertionAxiom(factory.getOWLAnnotationProperty(SKOSVocabulary.PREFLABEL.getIRI()),
+                b.getIRI(), factory.getOWLLiteral("a", "en")));
+
+        OSCLabelTable labels = OSCOntology.getInstance(o, factory, true).getLabelTable();
+        Assert.assertEquals(labels.getLanguages(), new HashSet<>(Arrays.asList("en", "en-gb")));
+        for (String language : new String[]{"en", "EN", "En"}) {
+
+            Assert.assertEquals(labels.getLabel(a, language), "a");
+            Assert.assertEquals(labels.classes("a", language), Arrays.asList(a, b));
+            Assert.assertEquals(labels.duplicates(language).keySet(), Collections.singleton("a"));
+        }
+        for (String language : new String[]{"en-GB", "en-gb", "EN-GB"}) {
+
+            Assert.assertEquals(labels.getLabel(b, language), "A");
+            Assert.assertEquals(labels.classes("A", language), Collections.singletonList(b));
+        }
+    }
+
+    @Test
+    public void testWrappersAreCollected()
+            throws
+            Exception {
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology o = manager.createOntology();
+        OSCOntology kept = OSCOntology.getInstance(o, manager.getOWLDataFactory());
+        kept.getClassIds();
+
+        for (int i = 0; i < 100; i++) {
+
+            OSCOntology.getInstance(o, manager.getOWLDataFactory()).getClassIds();
+        }
+        for (int i = 0; i < 10 && OSCOntology.watching(manager) > 1; i++) {
+
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(OSCOntology.watching(manager), 1);
+        Assert.assertEquals(kept.getClassIds().size(), 0);
+    }
+}
@@ -0,0 +1,230 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.OntologyCopy;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerConfiguration;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasoner;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Reasoning stage and stored classifications.
+ *
+ * @author javier
+ */
+public class OSCReasonerNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    /**
+     * Structural reasoner factory counting the reasoners it creates.
+     */
+    private static final class CountingFactory extends StructuralReasonerFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public OWLReasoner createReasoner(final OWLOntology ontology, final OWLReasonerConfiguration configuration) {
+
+            count.incrementAndGet();
+
+            return super.createReasoner(ontology, configuration);
+        }
+    }
+
+    /**
+     * Structural reasoner factory whose reasoners classify until interrupted,
+     * then take a while to stop, recording whether they were disposed while
+     * still running.
+     */
+    private static final class SlowFactory extends StructuralReasonerFactory {
+
+        private volatile boolean running;
+        private volatile boolean disposed;
+        private volatile boolean disposedRunning;
+
+        @Override
+        public OWLReasoner createReasoner(final OWLOntology ontology, final OWLReasonerConfiguration configuration) {
+
+            return new StructuralReasoner(ontology, configuration, BufferingMode.BUFFERING) {
+
+                @Override
+                public void precomputeInferences(final InferenceType... types) {
+
+                    running = true;
+                    try {
+
+                        Thread.sleep(Long.MAX_VALUE);
+                    } catch (InterruptedException e) {
+
+                        long stop = System.nanoTime() + 50_000_000L;
+                        while (System.nanoTime() < stop) {
+
+                            Thread.yield();
+                        }
+                        running = false;
+                        throw new ReasonerInterruptedException(e);
+                    }
+                }
+
+                @Override
+                public void dispose() {
+
+                    disposed = true;
+                    disposedRunning = running;
+                    super.dispose();
+                }
+            };
+        }
+    }
+
+    @Test
+    public void testClassificationIsStored()
+            throws
+            Exception {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        OWLOntologyManager copies = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = copies.copyOntology(manager.getOntology(), OntologyCopy.DEEP);
+        OWLDataFactory factory = copies.getOWLDataFactory();
+
+        CountingFactory counting = new CountingFactory();
+        OSCReasoner reasoner = OSCReasoner.getInstance(counting, OSCReasoner.BUDGET, Files.createTempDirectory("osc-reasoner"));
+
+        OSCClassification classified = reasoner.classify(ontology).get();
+        Assert.assertEquals(counting.count.get(), 1);
+        Assert.assertTrue(Files.isRegularFile(reasoner.entry(ontology)));
+
+        OSCClassification loaded = reasoner.classify(ontology).get();
+        Assert.assertEquals(counting.count.get(), 1);
+        Assert.assertEquals(loaded.getUnsatisfiableClasses(), classified.getUnsatisfiableClasses());
+        Assert.assertEquals(loaded.getClasses(), classified.getClasses());
+        for (IRI iri : classified.getClasses()) {
+
+            OWLClass classe = factory.getOWLClass(iri);
+            Assert.assertEquals(loaded.getSuperClasses(classe), classified.getSuperClasses(classe));
+        }
+
+        // an annotation does not change the classification
+        OWLClass scalpel = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "scalpel"));
+        copies.addAxiom(ontology, factory.getOWLAnnotationAssertionAxiom(
+                factory.getOWLAnnotationProperty(SKOSVocabulary.ALTLABEL.getIRI()),
+                scalpel.getIRI(),
+                factory.getOWLLiteral("lancet", "en")));
+        reasoner.classify(ontology);
+        Assert.assertEquals(counting.count.get(), 1);
+
+        // a logical axiom does
+        OWLClass blade = factory.getOWLClass(IRI.create(OSCOntology.NAMESPACE + "blade"));
+        copies.addAxiom(ontology, factory.getOWLSubClassOfAxiom(blade, scalpel));
+        OSCClassification edited = reasoner.classify(ontology).get();
+        Assert.assertEquals(counting.count.get(), 2);
+        Assert.assertTrue(edited.getSuperClasses(blade).contains(scalpel.getIRI()));
+    }
+
+    @Test
+    public void testUnsatisfiableClass()
+            throws
+            Exception {
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(IRI.create("http://example.org/osc/unsatisfiable.owl"));
+        OWLClass a = factory.getOWLClass(IRI.create("http://example.org/osc/a"));
+        OWLClass b = factory.getOWLClass(IRI.create("http://example.org/osc/b"));
+        manager.addAxiom(ontology, factory.getOWLEquivalentClassesAxiom(a, factory.getOWLNothing()));
+        manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(b));
+
+        Optional<OSCClassification> classification = OSCReasoner.getInstance(new StructuralReasonerFactory(), OSCReasoner.BUDGET, null)
+                .classify(ontology);
+
+        Assert.assertTrue(classification.get().isUnsatisfiable(a));
+        Assert.assertFalse(classification.get().isUnsatisfiable(b));
+        Assert.assertFalse(classification.get().getClasses().contains(a.getIRI()));
+    }
+
+    @Test
+    public void testDisjointClasses()
+            throws
+            Exception {
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(IRI.create("http://example.org/osc/disjoint.owl"));
+        OWLClass a = factory.getOWLClass(IRI.create("http://example.org/osc/a"));
+        OWLClass b = factory.getOWLClass(IRI.create("http://example.org/osc/b"));
+        OWLClass c = factory.getOWLClass(IRI.create("http://example.org/osc/c"));
+        manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(a, b));
+        manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(a, c));
+        manager.addAxiom(ontology, factory.getOWLDisjointClassesAxiom(b, c));
+
+        // only found by a complete reasoner, the default one
+        Assert.assertTrue(OSCReasoner.getInstance(OSCReasoner.getInstance().getFactory(), OSCReasoner.BUDGET, null)
+                .classify(ontology).get().isUnsatisfiable(a));
+        Assert.assertFalse(OSCReasoner.getInstance(new StructuralReasonerFactory(), OSCReasoner.BUDGET, null)
+                .classify(ontology).get().isUnsatisfiable(a));
+    }
+
+    @Test
+    public void testTimeout()
+            throws
+            Exception {
+
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+        SlowFactory slow = new SlowFactory();
+
+        Optional<OSCClassification> classification = OSCReasoner.getInstance(slow, 100, null).classify(ontology);
+
+        Assert.assertFalse(classification.isPresent());
+        Assert.assertTrue(slow.disposed);
+        Assert.assertFalse(slow.disposedRunning);
+    }
+
+    @Test
+    public void testInferredHierarchy() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        OSCOntology ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory());
+        OSCHierarchy hierarchy = ontology.getHierarchy();
+        OSCClassification classification = OSCReasoner.getInstance(new StructuralReasonerFactory(), OSCReasoner.BUDGET, null)
+                .classify(ontology.getOntology()).get();
+
+        // asserted super classes are inferred ones, or ancestors of them
+        ontology.classes().forEach(classe -> {
+
+            Set<IRI> ancestors = new HashSet<>();
+            Deque<IRI> queue = new ArrayDeque<>(classification.getSuperClasses(classe));
+            while (!queue.isEmpty()) {
+
+                IRI iri = queue.poll();
+                if (ancestors.add(iri)) {
+
+                    queue.addAll(classification.getSuperClasses(manager.getFactory().getOWLClass(iri)));
+                }
+            }
+
+            hierarchy.superClasses(classe).forEach(parent
+                    -> Assert.assertTrue(ancestors.contains(parent.getIRI()), classe + " " + parent));
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+import org.semanticweb.owlapi.model.IRI;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Streaming JSON Lines and SARIF reports.
+ *
+ * @author javier
+ */
+public class OSCReportWriterNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCOntology ontology;
+    private final OSCChecker checker = OSCChecker.getInstance();
+    private final OSCReport report;
+
+    public OSCReportWriterNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+        report = checker.check(ontology);
+    }
+
+    private Path write(final OSCReportWriter.Format format, final int capacity)
+            throws
+            java.io.IOException {
+
+        Path path = Files.createTempFile("osc-report", ".json");
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try (OSCReportWriter writer = OSCReportWriter.getInstance(channel, format, checker.getRules(), PATH.toUri().toString(), capacity)) {
+
+            Assert.assertEquals(checker.check(ontology, writer), report.getVisited());
+            Assert.assertEquals(writer.getCount(), report.size());
+        }
+
+        return path;
+    }
+
+    @Test
+    public void testJsonLines()
+            throws
+            java.io.IOException {
+
+        // a buffer smaller than a record is drained many times per record
+        for (int capacity : new int[]{16, OSCReportWriter.BUFFER}) {
+
+            List<String> lines = Files.readAllLines(this.write(OSCReportWriter.Format.JSON_LINES, capacity), StandardCharsets.UTF_8);
+
+            Assert.assertEquals(lines.size(), report.size());
+            for (int i = 0; i < lines.size(); i++) {
+
+                JsonObject object = JSON.parse(lines.get(i));
+                OSCViolation violation = report.getViolations().get(i);
+                Assert.assertEquals(object.get("rule").getAsString().value(), violation.getRule());
+                Assert.assertEquals(IRI.create(object.get("iri").getAsString().value()), violation.getIRI());
+                Assert.assertEquals(object.get("severity").getAsString().value(), violation.getSeverity().name());
+                Assert.assertEquals(object.get("message").getAsString().value(), violation.getMessage());
+                Assert.assertEquals(object.get("evidence").isNull() ? null : object.get("evidence").getAsString().value(), violation.getEvidence());
+            }
+        }
+    }
+
+    @Test
+    public void testSarif()
+            throws
+            java.io.IOException {
+
+        Path path = this.write(OSCReportWriter.Format.SARIF, 16);
+        JsonObject log = JSON.read(path.toString());
+
+        Assert.assertEquals(log.get("version").getAsString().value(), "2.1.0");
+        JsonObject run = log.get("runs").getAsArray().get(0).getAsObject();
+        Assert.assertEquals(run.get("tool").getAsObject().get("driver").getAsObject().get("rules").getAsArray().size(), checker.getRules().size());
+
+        JsonArray results = run.get("results").getAsArray();
+        Assert.assertEquals(results.size(), report.size());
+        for (int i = 0; i < results.size(); i++) {
+
+            JsonObject result = results.get(i).getAsObject();
+            Assert.assertEquals(result.get("ruleId").getAsString().value(), report.getViolations().get(i).getRule());
+            Assert.assertEquals(result.get("message").getAsObject().get("text").getAsString().value(), report.getViolations().get(i).getMessage());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Snapshot cache of {@link OSCManager}.
+ *
+ * @author javier
+ */
+public class OSCSnapshotCacheNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    @Test
+    public void testSnapshotIsReused()
+            throws
+            java.io.IOException {
+
+        Path directory = Files.createTempDirectory("osc-cache");
+        OSCSnapshotCache cache = OSCSnapshotCache.getInstance(directory);
+        Path entry = cache.entry(PATH);
+
+        OSCManager parsed = OSCManager.getInstance(PATH, cache);
+        Assert.assertTrue(Files.isRegularFile(entry));
+        long modified = Files.getLastModifiedTime(entry).toMillis();
+
+        OSCManager loaded = OSCManager.getInstance(PATH, cache);
+        Assert.assertEquals(Files.getLastModifiedTime(entry).toMillis(), modified);
+        Assert.assertTrue(loaded.getOntology().equalAxioms(parsed.getOntology()));
+        Assert.assertEquals(loaded.getOntology().getOntologyID(), parsed.getOntology().getOntologyID());
+    }
+
+    @Test
+    public void testStaleSnapshotIsRebuilt()
+            throws
+            java.io.IOException {
+
+        Path directory = Files.createTempDirectory("osc-cache");
+        Path source = directory.resolve("OntoSPM.owl");
+        Files.copy(PATH, source);
+        OSCSnapshotCache cache = OSCSnapshotCache.getInstance(directory.resolve("cache"));
+
+        String key = OSCManager.key(OSCManager.configuration());
+
+        OSCManager before = OSCManager.getInstance(source, cache);
+        String stale = OSCSnapshotCache.digest(source, key);
+
+        Files.write(source, "<!-- edited -->\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        String digest = OSCSnapshotCache.digest(source, key);
+        Assert.assertNotEquals(digest, stale);
+        Assert.assertFalse(cache.load(source, digest, OWLManager.createOWLOntologyManager()).isPresent());
+
+        OSCManager after = OSCManager.getInstance(source, cache);
+        Assert.assertTrue(after.getOntology().equalAxioms(before.getOntology()));
+        Assert.assertTrue(cache.load(source, digest, OWLManager.createOWLOntologyManager()).isPresent());
+        Assert.assertFalse(cache.load(source, stale, OWLManager.createOWLOntologyManager()).isPresent());
+    }
+}
@@ -0,0 +1,193 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Reports of {@link OSCStreamingChecker} against the reports of
+ * {@link OSCChecker}.
+ *
+ * @author javier
+ */
+public class OSCStreamingCheckerNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCReport expected;
+
+    public OSCStreamingCheckerNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        OSCOntology ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+        expected = OSCChecker.getInstance().check(ontology);
+    }
+
+    @DataProvider
+    private Object[][] getWindow() {
+
+        return new Object[][]{{1}, {16}, {OSCStreamingChecker.WINDOW}};
+    }
+
+    @Test(dataProvider = "getWindow")
+    public void testSameViolations(int window) {
+
+        OSCReport report = OSCStreamingChecker.getInstance(OSCChecker.getInstance().getRules(), window).check(PATH);
+
+        Assert.assertEquals(report.getViolations(), expected.getViolations());
+    }
+
+    /**
+     * Write N-Triples where the annotations of the first class come back
+     * after three other subjects.
+     *
+     * @return
+     * @throws IOException
+     */
+    private static Path interleaved()
+            throws IOException {
+
+        String ns = OSCOntology.NAMESPACE;
+        List<String> lines = new ArrayList<>();
+        for (String name : Arrays.asList("a", "b", "c", "d")) {
+
+            lines.add("<" + ns + name + "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2002/07/owl#Class> .");
+            lines.add("<" + ns + name + "> <http://www.w3.org/2004/02/skos/core#prefLabel> \"" + name + "\"@en .");
+            if (!name.equals("a")) {
+
+                lines.add("<" + ns + name + "> <http://www.w3.org/2004/02/skos/core#prefLabel> \"" + name + "\"@fr .");
+                lines.add("<" + ns + name + "> <http://www.w3.org/2004/02/skos/core#prefLabel> \"" + name + "\"@de .");
+                lines.add("<" + ns + name + "> <" + OSCClassRules.IAO_DEFINITION + "> \"" + name + "\"@en .");
+            }
+        }
+        lines.add("<" + ns + "a> <http://www.w3.org/2004/02/skos/core#prefLabel> \"a\"@fr .");
+        lines.add("<" + ns + "a> <http://www.w3.org/2004/02/skos/core#prefLabel> \"a\"@de .");
+        lines.add("<" + ns + "a> <" + OSCClassRules.IAO_DEFINITION + "> \"a\"@en .");
+
+        Path path = Files.createTempFile("interleaved", ".nt");
+
+        return Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testInterleavedSubjects()
+            throws IOException {
+
+        Path path = interleaved();
+
+        try {
+
+            OSCStreamingChecker.getInstance(OSCChecker.getInstance().getRules(), 2).check(path);
+        } finally {
+
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testInterleavedSubjectsInWindow()
+            throws IOException {
+
+        Path path = interleaved();
+
+        try {
+
+            OSCReport report = OSCStreamingChecker.getInstance(OSCChecker.getInstance().getRules(), 4).check(path);
+
+            Assert.assertEquals(report.getVisited(), 4);
+            Assert.assertEquals(report.getViolations(), new ArrayList<>(), report.getViolations().toString());
+        } finally {
+
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Write N-Triples where a labelled property and individuals are members
+     * of a property chain and of an enumeration, an undescribed class is a
+     * member of a union whose head comes after its cells, another one is the
+     * domain of an object property declared after it, and a datatype and an
+     * IRI are the ranges of a data property and of an annotation property.
+     *
+     * @return
+     * @throws IOException
+     */
+    static Path lists()
+            throws IOException {
+
+        String ns = OSCOntology.NAMESPACE;
+        String first = "<http://www.w3.org/1999/02/22-rdf-syntax-ns#first>";
+        String rest = "<http://www.w3.org/1999/02/22-rdf-syntax-ns#rest>";
+        String nil = "<http://www.w3.org/1999/02/22-rdf-syntax-ns#nil>";
+        List<String> lines = new ArrayList<>();
+        lines.add("<" + ns + "p> <http://www.w3.org/2000/01/rdf-schema#domain> <" + ns + "n> .");
+        lines.add("<" + ns + "p> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2002/07/owl#ObjectProperty> .");
+        lines.add("<" + ns + "p> <http://www.w3.org/2004/02/skos/core#prefLabel> \"p\"@en .");
+        lines.add("<" + ns + "d> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2002/07/owl#DatatypeProperty> .");
+        lines.add("<" + ns + "d> <http://www.w3.org/2000/01/rdf-schema#range> <" + ns + "t> .");
+        lines.add("<" + ns + "a> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2002/07/owl#AnnotationProperty> .");
+        lines.add("<" + ns + "a> <http://www.w3.org/2000/01/rdf-schema#range> <" + ns + "r> .");
+        lines.add("<" + ns + "i> <http://www.w3.org/2004/02/skos/core#prefLabel> \"i\"@en .");
+        lines.add("<" + ns + "j> <http://www.w3.org/2004/02/skos/core#prefLabel> \"j\"@en .");
+        lines.add("<" + ns + "q> <http://www.w3.org/2002/07/owl#propertyChainAxiom> _:c1 .");
+        lines.add("_:c1 " + first + " <" + ns + "p> .");
+        lines.add("_:c1 " + rest + " _:c2 .");
+        lines.add("_:c2 " + first + " <" + ns + "p> .");
+        lines.add("_:c2 " + rest + " " + nil + " .");
+        lines.add("<" + ns + "e> <http://www.w3.org/2002/07/owl#equivalentClass> _:e .");
+        lines.add("_:e <http://www.w3.org/2002/07/owl#oneOf> _:o1 .");
+        lines.add("_:o1 " + first + " <" + ns + "i> .");
+        lines.add("_:o1 " + rest + " _:o2 .");
+        lines.add("_:o2 " + first + " <" + ns + "j> .");
+        lines.add("_:o2 " + rest + " " + nil + " .");
+        lines.add("_:u1 " + rest + " _:u2 .");
+        lines.add("_:u2 " + first + " <" + ns + "m> .");
+        lines.add("_:u2 " + rest + " " + nil + " .");
+        lines.add("_:u1 " + first + " <" + ns + "e> .");
+        lines.add("<" + ns + "e> <http://www.w3.org/2002/07/owl#equivalentClass> _:u .");
+        lines.add("_:u <http://www.w3.org/2002/07/owl#unionOf> _:u1 .");
+
+        Path path = Files.createTempFile("lists", ".nt");
+
+        return Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    @Test(dataProvider = "getLists")
+    public void testListMembers(int window)
+            throws IOException {
+
+        Path path = lists();
+
+        try {
+
+            OSCReport report = OSCStreamingChecker.getInstance(OSCChecker.getInstance().getRules(), window).check(path);
+
+            // e, m and n are classes, the members of the chain and of the enumeration and the ranges are not
+            Assert.assertEquals(report.getVisited(), 3);
+            Set<String> iris = report.getViolations().stream()
+                    .map(violation -> violation.getIRI().toString())
+                    .collect(Collectors.toSet());
+            Assert.assertEquals(iris, new HashSet<>(Arrays.asList(OSCOntology.NAMESPACE + "e", OSCOntology.NAMESPACE + "m", OSCOntology.NAMESPACE + "n")));
+        } finally {
+
+            Files.delete(path);
+        }
+    }
+
+    @DataProvider
+    private Object[][] getLists() {
+
+        return new Object[][]{{1}, {OSCStreamingChecker.WINDOW}};
+    }
+}
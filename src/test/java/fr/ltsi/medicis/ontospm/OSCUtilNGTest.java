@@ -0,0 +1,78 @@
+package fr.ltsi.medicis.ontospm;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.stream.Stream;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+import org.semanticweb.owlapi.vocab.SKOSVocabulary;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author javier
+ */
+public class OSCUtilNGTest {
+
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    /**
+     * Get all preferred labels of the ontology, and some edge cases.
+     *
+     * @return
+     */
+    @DataProvider
+    private Object[][] getLabels() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        OSCOntology ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+
+        return Stream.concat(
+                ontology.classes()
+                .flatMap(ontology::preferredLabels)
+                .map(literal -> literal.getLiteral()),
+                Stream.of("", "already_normalised", "Bowman's Probe-Dilator", "'-' -", "ÉCARTEUR à Côtes", "ΟΔΟΣ ΟΔΟΣ", "İris"))
+                .map(x -> new String[]{x})
+                .toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "getLabels")
+    public void testToNormalisedSegmentPath(String label) {
+
+        String expected = label.replaceAll(" ", "_")
+                .replaceAll("'", "")
+                .replaceAll("-", "_").toLowerCase(Locale.ROOT);
+
+        Assert.assertEquals(OSCUtil.toNormalisedSegmentPath(label), expected);
+    }
+
+    @Test
+    public void testCompare() {
+
+        IRI iri = IRI.create(OSCOntology.NAMESPACE + "scalpel");
+
+        Assert.assertTrue(OSCUtil.compare(iri, IRI.create(OSCOntology.NAMESPACE, "scalpel")));
+        Assert.assertFalse(OSCUtil.compare(iri, IRI.create(OSCOntology.NAMESPACE + "scalpels")));
+    }
+
+    @Test
+    public void testGetIRI() {
+
+        Assert.assertEquals(OSCUtil.getIRI(SKOSVocabulary.PREFLABEL), SKOSVocabulary.PREFLABEL.getIRI());
+        Assert.assertEquals(OSCUtil.getIRI(OWLRDFVocabulary.OWL_DEPRECATED), OWLRDFVocabulary.OWL_DEPRECATED.getIRI());
+    }
+
+    @Test
+    public void testIntern() {
+
+        OSCIRITable table = OSCIRITable.getInstance();
+        IRI iri = table.intern(OSCOntology.NAMESPACE + "scalpel");
+
+        Assert.assertSame(table.intern(OSCOntology.NAMESPACE + "scalpel"), iri);
+        Assert.assertSame(table.intern(IRI.create(OSCOntology.NAMESPACE + "scalpel")), iri);
+        Assert.assertEquals(table.size(), 1);
+    }
+}
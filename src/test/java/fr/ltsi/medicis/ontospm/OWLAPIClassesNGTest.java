@@ -1,9 +1,10 @@
 package fr.ltsi.medicis.ontospm;
 
-import static fr.ltsi.medicis.ontospm.OSCOntology.NAMESPACE;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import org.semanticweb.owlapi.model.IRI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 import org.testng.Assert;
@@ -19,12 +20,21 @@ public class OWLAPIClassesNGTest {
     // FIX change path before testing !
     private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
 
+    private static final String[] LANGUAGES = {"en", "fr", "de"};
+    // similarity of labels reported as near duplicates
+    private static final double NEAR_DUPLICATE = 0.85;
+
     private final OSCOntology ontology;
+    private final OSCReport report;
+    private final OSCClassification classification;
 
     public OWLAPIClassesNGTest() {
                 
         OSCManager manager = OSCManager.getInstance(PATH);
-        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory());
+        ontology = OSCOntology.getInstance(manager.getOntology(), manager.getFactory(), true);
+        // all class rules are checked in a single pass, tests only read the report
+        report = OSCChecker.getInstance().check(ontology);
+        classification = OSCReasoner.getInstance().classify(manager.getOntology()).orElse(null);
     }
 
     /**
@@ -36,8 +46,7 @@ public class OWLAPIClassesNGTest {
     @DataProvider
     private Object[][] getAllClasses() {
 
-        return ontology.classes()
-                .filter(c -> c.getIRI().getNamespace() != null)
+        return ontology.getView(OSCClassViews.ALL).stream()
                 .map(x -> new OWLClass[]{x})
                 .toArray(Object[][]::new);
     }
@@ -51,59 +60,53 @@ public class OWLAPIClassesNGTest {
     @DataProvider
     private Object[][] getClasses() {
 
-        return ontology.classes()
-                .filter(c -> c.getIRI().getNamespace() != null
-                && NAMESPACE.equals(c.getIRI().getNamespace())
-                // filtering deprecated classes
-                && !ontology.hasAnnotation(c, OWLRDFVocabulary.OWL_DEPRECATED))
+        // classes of the OntoSPM namespace, filtering deprecated classes
+        return ontology.getView(OSCClassViews.LIVE).stream()
                 .map(x -> new OWLClass[]{x})
                 .toArray(Object[][]::new);
     }
 
+    /**
+     * Assert a class passes a rule, using the message of the violation.
+     *
+     * @param rule
+     * @param classe
+     */
+    private void assertValid(final OSCClassRule rule, final OWLClass classe) {
+
+        OSCViolation violation = report.getViolation(rule, classe);
+
+        Assert.assertNull(violation, violation == null ? null : violation.getMessage());
+    }
+
     @Test(dataProvider = "getAllClasses", enabled = true)
     public void testHasOntoSPMNamespace(OWLClass classe) {
 
-        boolean result = !NAMESPACE.equals(classe.getIRI().getNamespace());
-
-        Assert.assertFalse(result, "Class: " + classe.toStringID() + " defined as part of OntoSPM.");
+        this.assertValid(OSCClassRules.NAMESPACE, classe);
     }
 
     @Test(dataProvider = "getClasses", enabled = true)
     public void testClassWithAllLabels(OWLClass classe) {
 
-        long result = ontology.preferredLabels(classe).count();
-
-        Assert.assertEquals(result, 3, classe.toStringID());
+        this.assertValid(OSCClassRules.ALL_LABELS, classe);
     }
 
     @Test(dataProvider = "getClasses", enabled = true)
     public void testHasUnderscoresInPreferredLabel(OWLClass classe) {
 
-        boolean result = ontology.preferredLabels(classe)
-                .map(literal -> literal.getLiteral())
-                .reduce(false,
-                        (Boolean x, String y) -> x || y.contains("_"),
-                        (Boolean x, Boolean y) -> x || y);
-
-        Assert.assertFalse(result, "A label of " + classe.toStringID() + " contains underscores.");
+        this.assertValid(OSCClassRules.UNDERSCORE_IN_LABEL, classe);
     }
 
     @Test(dataProvider = "getClasses", enabled = true)
     public void testHasRDFSLabel(OWLClass classe) {
 
-        boolean result = ontology.hasAnnotation(classe, OWLRDFVocabulary.RDFS_LABEL);
-
-        Assert.assertFalse(result, "Label is set using 'rdfs:label' in " + classe.toStringID() + " .");
+        this.assertValid(OSCClassRules.RDFS_LABEL, classe);
     }
 
     @Test(dataProvider = "getClasses", enabled = true)
     public void testHasClassDefinition(OWLClass classe) {
 
-        // annotation <IAO:definition> 
-        IRI definition = IRI.create("http://purl.obolibrary.org/obo/IAO_0000115");
-        boolean result = ontology.hasAnnotation(classe, definition);
-
-        Assert.assertTrue(result, "Class " + classe.toStringID() + " has no definition.");
+        this.assertValid(OSCClassRules.DEFINITION, classe);
     }
 
     @Test(dataProvider = "getClasses", enabled = false)
@@ -118,34 +121,93 @@ public class OWLAPIClassesNGTest {
     @Test(dataProvider = "getClasses", enabled = true)
     public void testIRIClass(OWLClass classe) {
 
-        String result = classe.getIRI().getShortForm();
-        String label = ontology.getPreferredLabel(classe, "en");
-        String expected = OSCUtil.toNormalisedSegmentPath(label);
-
-        Assert.assertEquals(result, expected, "IRI local name does not match with the English label.");
+        this.assertValid(OSCClassRules.IRI_MATCHES_LABEL, classe);
     }
 
     @Test(dataProvider = "getClasses", enabled = true)
     public void testEnglishLabel(OWLClass classe) {
 
-        String result = ontology.getPreferredLabel(classe, "en");
-
-        Assert.assertNotNull(result, "Class " + classe.toStringID() + " has not an English label.");
+        this.assertValid(OSCClassRules.ENGLISH_LABEL, classe);
     }
 
     @Test(dataProvider = "getClasses", enabled = true)
     public void testFrenchLabel(OWLClass classe) {
 
-        String result = ontology.getPreferredLabel(classe, "fr");
-
-        Assert.assertNotNull(result, "Class " + classe.toStringID() + " has not a French label.");
+        this.assertValid(OSCClassRules.FRENCH_LABEL, classe);
     }
 
     @Test(dataProvider = "getClasses", enabled = true)
     public void testGermanLabel(OWLClass classe) {
 
-        String result = ontology.getPreferredLabel(classe, "de");
+        this.assertValid(OSCClassRules.GERMAN_LABEL, classe);
+    }
+
+    @Test(dataProvider = "getClasses", enabled = true)
+    public void testUniquePreferredLabel(OWLClass classe) {
+
+        OSCLabelTable table = ontology.getLabelTable();
+
+        for (String language : LANGUAGES) {
+
+            String label = table.getLabel(classe, language);
+            if (label != null) {
+
+                List<OWLClass> result = table.classes(label, language).stream()
+                        .filter(c -> !c.equals(classe) && !table.isDeprecated(c))
+                        .collect(Collectors.toList());
+
+                Assert.assertTrue(result.isEmpty(), "Label '" + label + "'@" + language + " of " + classe.toStringID() + " is also used by " + result + ".");
+            }
+        }
+    }
+
+    @DataProvider
+    private Object[][] getLanguages() {
+
+        return Arrays.stream(LANGUAGES)
+                .map(x -> new String[]{x})
+                .toArray(Object[][]::new);
+    }
+
+    /**
+     * Whole-ontology check of labels that are almost the same (typos, plural
+     * forms); identical labels are reported by testUniquePreferredLabel.
+     *
+     * @param language
+     */
+    @Test(dataProvider = "getLanguages", enabled = true)
+    public void testNearDuplicatePreferredLabel(String language) {
+
+        List<OSCNearDuplicates.Pair> result = OSCNearDuplicates.getInstance(ontology, NEAR_DUPLICATE).getPairs(language).stream()
+                .filter(p -> p.getSimilarity() < 1)
+                .collect(Collectors.toList());
+
+        Assert.assertTrue(result.isEmpty(), "Near duplicate labels in '" + language + "': " + result + ".");
+    }
+
+    @Test(dataProvider = "getClasses", enabled = false)
+    public void testPreferredLabelOfDeprecatedClass(OWLClass classe) {
+
+        OSCLabelTable table = ontology.getLabelTable();
+
+        for (String language : LANGUAGES) {
+
+            String label = table.getLabel(classe, language);
+            if (label != null) {
+
+                List<OWLClass> result = table.classes(label, language).stream()
+                        .filter(table::isDeprecated)
+                        .collect(Collectors.toList());
+
+                Assert.assertTrue(result.isEmpty(), "Label '" + label + "'@" + language + " of " + classe.toStringID() + " is also used by deprecated " + result + ".");
+            }
+        }
+    }
+
+    @Test(dataProvider = "getClasses", enabled = true)
+    public void testIsSatisfiable(OWLClass classe) {
 
-        Assert.assertNotNull(result, "Class " + classe.toStringID() + " has not a German label.");
+        Assert.assertNotNull(classification, "The ontology was not classified within the time budget.");
+        Assert.assertFalse(classification.isUnsatisfiable(classe), classe.toStringID() + " is unsatisfiable.");
     }
 }
@@ -1,9 +1,107 @@
 package fr.ltsi.medicis.ontospm;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
 /**
  *
  * @author javier
  */
 public class PropertiesNGTest {
-    
+
+    // FIX change path before testing !
+    private static final Path PATH = Paths.get("src/test/resources/OntoSPM.owl");
+
+    private final OSCAxiomScan scan;
+    private final OSCReport report;
+
+    public PropertiesNGTest() {
+
+        OSCManager manager = OSCManager.getInstance(PATH);
+        // all axioms are visited once, tests only read the scan and the report
+        scan = OSCAxiomScan.getInstance(manager.getOntology());
+        report = OSCPropertyChecker.getInstance().check(scan);
+    }
+
+    /**
+     * Get object and data properties that are not deprecated and are
+     * defined in OntoSPM.
+     *
+     * @return
+     */
+    @DataProvider
+    private Object[][] getProperties() {
+
+        return scan.getProperties().stream()
+                .filter(p -> p.isOntoSPM() && !p.isDeprecated())
+                .map(p -> new OSCPropertySnapshot[]{p})
+                .toArray(Object[][]::new);
+    }
+
+    /**
+     * Get deprecated object and data properties.
+     *
+     * @return
+     */
+    @DataProvider
+    private Object[][] getDeprecatedProperties() {
+
+        return scan.getProperties().stream()
+                .filter(OSCPropertySnapshot::isDeprecated)
+                .map(p -> new OSCPropertySnapshot[]{p})
+                .toArray(Object[][]::new);
+    }
+
+    /**
+     * Assert a property passes a rule, using the message of the violation.
+     *
+     * @param rule
+     * @param property
+     */
+    private void assertValid(final OSCPropertyRule rule, final OSCPropertySnapshot property) {
+
+        OSCViolation violation = report.getViolation(rule, property.getProperty());
+
+        Assert.assertNull(violation, violation == null ? null : violation.getMessage());
+    }
+
+    @Test(dataProvider = "getProperties", enabled = true)
+    public void testPropertyWithAllLabels(OSCPropertySnapshot property) {
+
+        this.assertValid(OSCPropertyRules.ALL_LABELS, property);
+    }
+
+    @Test(dataProvider = "getProperties", enabled = true)
+    public void testHasPropertyDefinition(OSCPropertySnapshot property) {
+
+        this.assertValid(OSCPropertyRules.DEFINITION, property);
+    }
+
+    // warnings, many properties of OntoSPM are declared for future use
+    @Test(dataProvider = "getProperties", enabled = false)
+    public void testHasDomain(OSCPropertySnapshot property) {
+
+        this.assertValid(OSCPropertyRules.DOMAIN, property);
+    }
+
+    @Test(dataProvider = "getProperties", enabled = false)
+    public void testHasRange(OSCPropertySnapshot property) {
+
+        this.assertValid(OSCPropertyRules.RANGE, property);
+    }
+
+    @Test(dataProvider = "getProperties", enabled = false)
+    public void testPropertyIsUsed(OSCPropertySnapshot property) {
+
+        this.assertValid(OSCPropertyRules.UNUSED, property);
+    }
+
+    @Test(dataProvider = "getDeprecatedProperties", enabled = true)
+    public void testDeprecatedPropertyNotInRestriction(OSCPropertySnapshot property) {
+
+        this.assertValid(OSCPropertyRules.DEPRECATED_IN_RESTRICTION, property);
+    }
 }